@@ -0,0 +1,57 @@
+package com.koodjohvi.movieapi.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// AIMD concurrency limit: grows by one after a full window of requests under the latency
+// target, shrinks by 10% whenever a request exceeds it.
+class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+    // guarded by "this"
+    private int fastInWindow;
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long targetLatencyNanos) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatencyNanos = targetLatencyNanos;
+    }
+
+    boolean tryAcquire() {
+        if (inFlight.incrementAndGet() > limit) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    void release(long latencyNanos) {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            if (latencyNanos > targetLatencyNanos) {
+                limit = Math.max(minLimit, (int) (limit * 0.9));
+                fastInWindow = 0;
+            } else if (++fastInWindow >= limit) {
+                limit = Math.min(maxLimit, limit + 1);
+                fastInWindow = 0;
+            }
+        }
+    }
+
+    // gives back a slot without a latency sample, for requests rejected after acquiring one
+    void cancel() {
+        inFlight.decrementAndGet();
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,270 @@
+package com.koodjohvi.movieapi.admission;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// In-process admission control in front of the API. Each client (a configured X-API-Key, or
+// the remote address) has a token bucket charged by endpoint cost, and a shared concurrency limit adapts
+// to the time admitted requests spend in the service layer (see ServiceTime), which is dominated
+// by the single SQLite connection.
+// A batch is charged the sum of its sub-requests, read from the buffered body.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@ConditionalOnProperty(name = "admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final Set<String> LIST_ENDPOINTS =
+            Set.of("/api/movies", "/api/actors", "/api/movies/search", "/api/actors/search");
+    private static final long IDLE_BUCKET_NANOS = TimeUnit.MINUTES.toNanos(10);
+    private static final String BATCH_PATH = "/api/batch";
+    private static final String OVERFLOW_CLIENT = "overflow";
+    // far above any batch of batch.max-requests paths
+    private static final int MAX_BATCH_BODY = 256 * 1024;
+
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    // unknown keys would let a client mint a fresh bucket per request
+    private final Set<String> apiKeys;
+    private final int maxClients;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final double bucketCapacity;
+    private final double refillPerSecond;
+    private final double unpaginatedListCost;
+    private final double forceDeleteCost;
+    private final double writeCost;
+    private final Counter rateLimited;
+    private final Counter overloaded;
+
+    public AdmissionControlFilter(MeterRegistry meterRegistry, ObjectMapper objectMapper,
+                                  @Value("${admission.api-keys:}") Set<String> apiKeys,
+                                  @Value("${admission.max-clients:10000}") int maxClients,
+                                  @Value("${admission.bucket.capacity:100}") double bucketCapacity,
+                                  @Value("${admission.bucket.refill-per-second:50}") double refillPerSecond,
+                                  @Value("${admission.cost.unpaginated-list:10}") double unpaginatedListCost,
+                                  @Value("${admission.cost.force-delete:5}") double forceDeleteCost,
+                                  @Value("${admission.cost.write:2}") double writeCost,
+                                  @Value("${admission.concurrency.initial:16}") int initialLimit,
+                                  @Value("${admission.concurrency.min:2}") int minLimit,
+                                  @Value("${admission.concurrency.max:64}") int maxLimit,
+                                  @Value("${admission.concurrency.target-latency-ms:250}") long targetLatencyMs) {
+        this.objectMapper = objectMapper;
+        this.apiKeys = Set.copyOf(apiKeys);
+        this.maxClients = maxClients;
+        this.bucketCapacity = bucketCapacity;
+        this.refillPerSecond = refillPerSecond;
+        this.unpaginatedListCost = unpaginatedListCost;
+        this.forceDeleteCost = forceDeleteCost;
+        this.writeCost = writeCost;
+        this.concurrencyLimit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit,
+                TimeUnit.MILLISECONDS.toNanos(targetLatencyMs));
+
+        this.rateLimited = Counter.builder("admission.rejected").tag("reason", "rate_limited")
+                .description("Requests rejected by admission control").register(meterRegistry);
+        this.overloaded = Counter.builder("admission.rejected").tag("reason", "overloaded")
+                .description("Requests rejected by admission control").register(meterRegistry);
+        Gauge.builder("admission.concurrency.limit", concurrencyLimit, AdaptiveConcurrencyLimit::limit)
+                .register(meterRegistry);
+        Gauge.builder("admission.concurrency.in-flight", concurrencyLimit, AdaptiveConcurrencyLimit::inFlight)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        double cost;
+        if ("POST".equals(request.getMethod()) && BATCH_PATH.equals(request.getRequestURI())) {
+            byte[] body = request.getInputStream().readNBytes(MAX_BATCH_BODY + 1);
+            if (body.length > MAX_BATCH_BODY) {
+                reject(response, HttpStatus.PAYLOAD_TOO_LARGE, 0, "Batch request body is too large");
+                return;
+            }
+            request = new BufferedBodyRequest(request, body);
+            cost = batchCost(body);
+        } else {
+            cost = cost(request);
+        }
+
+        long now = System.nanoTime();
+        String client = clientId(request);
+        // past maxClients (many distinct addresses) new clients share one bucket until idle ones are evicted
+        if (buckets.size() >= maxClients && !buckets.containsKey(client)) {
+            client = OVERFLOW_CLIENT;
+        }
+        TokenBucket bucket = buckets.computeIfAbsent(client,
+                id -> new TokenBucket(bucketCapacity, refillPerSecond, now));
+
+        // the concurrency slot first, so a 503 doesn't also drain the client's tokens
+        if (!concurrencyLimit.tryAcquire()) {
+            overloaded.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1, "Server is busy, please retry");
+            return;
+        }
+        long waitNanos = bucket.tryConsume(cost, now);
+        if (waitNanos > 0) {
+            concurrencyLimit.cancel();
+            rateLimited.increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1,
+                    "Rate limit exceeded");
+            return;
+        }
+        ServiceTime.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            concurrencyLimit.release(ServiceTime.stop());
+        }
+    }
+
+    // drop buckets of clients that have gone quiet
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleBuckets() {
+        long cutoff = System.nanoTime() - IDLE_BUCKET_NANOS;
+        buckets.values().removeIf(bucket -> bucket.idleSince(cutoff));
+    }
+
+    private double cost(HttpServletRequest request) {
+        String method = request.getMethod();
+        if ("GET".equals(method)) {
+            boolean unpaginated = request.getParameter("page") == null && request.getParameter("size") == null;
+            return unpaginated && LIST_ENDPOINTS.contains(request.getRequestURI()) ? unpaginatedListCost : 1;
+        }
+        if ("DELETE".equals(method) && "true".equalsIgnoreCase(request.getParameter("force"))) {
+            return forceDeleteCost;
+        }
+        return writeCost;
+    }
+
+    // each sub-request costs what the same GET would (they are all unpaginated); a body the
+    // batch endpoint will reject anyway costs a write
+    private double batchCost(byte[] body) {
+        JsonNode requests;
+        try {
+            requests = objectMapper.readTree(body).path("requests");
+        } catch (IOException e) {
+            return writeCost;
+        }
+        if (!requests.isObject() || requests.isEmpty()) {
+            return writeCost;
+        }
+        double cost = 0;
+        for (Iterator<JsonNode> paths = requests.elements(); paths.hasNext(); ) {
+            String path = paths.next().asText("");
+            try {
+                String subPath = UriComponentsBuilder.fromUriString(path.trim()).build().getPath();
+                cost += subPath != null && LIST_ENDPOINTS.contains(subPath) ? unpaginatedListCost : 1;
+            } catch (IllegalArgumentException e) {
+                cost += 1;
+            }
+        }
+        return cost;
+    }
+
+    private String clientId(HttpServletRequest request) {
+        String apiKey = request.getHeader("X-API-Key");
+        return apiKey != null && apiKeys.contains(apiKey) ? "key:" + apiKey : "addr:" + request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        if (retryAfterSeconds > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        }
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(message);
+    }
+
+    // the batch body, already read for costing, served again to the controller
+    private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        BufferedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding)));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.koodjohvi.movieapi.admission;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Paces background jobs behind live traffic: a fixed pause per unit of work, then no progress
+// while requests in flight exceed a share of the adaptive concurrency limit (bounded, so a
+// busy server slows a job down without stalling it forever).
+@Component
+public class BackgroundThrottle {
+
+    private static final long BUSY_POLL_MILLIS = 50;
+
+    private final MeterRegistry meterRegistry;
+    private final long pauseMillis;
+    private final double maxLiveShare;
+    private final long maxWaitMillis;
+
+    public BackgroundThrottle(MeterRegistry meterRegistry,
+                              @Value("${background.throttle.pause-ms:20}") long pauseMillis,
+                              @Value("${background.throttle.max-live-share:0.5}") double maxLiveShare,
+                              @Value("${background.throttle.max-wait-ms:5000}") long maxWaitMillis) {
+        this.meterRegistry = meterRegistry;
+        this.pauseMillis = pauseMillis;
+        this.maxLiveShare = maxLiveShare;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    // call between units of work
+    public void pause() throws InterruptedException {
+        if (pauseMillis > 0) {
+            Thread.sleep(pauseMillis);
+        }
+        long deadline = System.nanoTime() + maxWaitMillis * 1_000_000;
+        while (isBusy() && System.nanoTime() < deadline) {
+            Thread.sleep(BUSY_POLL_MILLIS);
+        }
+    }
+
+    // without admission control there is no in-flight gauge and nothing to wait for
+    public boolean isBusy() {
+        Gauge inFlight = meterRegistry.find("admission.concurrency.in-flight").gauge();
+        Gauge limit = meterRegistry.find("admission.concurrency.limit").gauge();
+        if (inFlight == null || limit == null) {
+            return false;
+        }
+        return inFlight.value() > limit.value() * maxLiveShare;
+    }
+}
@@ -0,0 +1,49 @@
+package com.koodjohvi.movieapi.admission;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// Time a request thread spends in service calls, i.e. its transactions and queries, which is
+// what the adaptive concurrency limit adapts to. JSON serialization, response writing and waits
+// in filters (replica read-your-writes) are left out, so big or slow-reading responses don't
+// look like database overload. Outermost calls only; ordered outside @Transactional so commits count.
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "admission.enabled", havingValue = "true", matchIfMissing = true)
+public class ServiceTime {
+
+    // {nanos so far, 1 while inside a service call}, only set while the filter measures a request
+    private static final ThreadLocal<long[]> CURRENT = new ThreadLocal<>();
+
+    static void start() {
+        CURRENT.set(new long[2]);
+    }
+
+    static long stop() {
+        long[] timing = CURRENT.get();
+        CURRENT.remove();
+        return timing == null ? 0 : timing[0];
+    }
+
+    @Around("@within(org.springframework.stereotype.Service) && within(com.koodjohvi.movieapi..*)")
+    public Object serviceCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        long[] timing = CURRENT.get();
+        if (timing == null || timing[1] != 0) {
+            return joinPoint.proceed();
+        }
+        timing[1] = 1;
+        long started = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timing[0] += System.nanoTime() - started;
+            timing[1] = 0;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.koodjohvi.movieapi.admission;
+
+// Classic token bucket: holds up to capacity tokens and refills continuously.
+class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefill;
+    private long lastUse;
+
+    TokenBucket(double capacity, double tokensPerSecond, long now) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefill = now;
+        this.lastUse = now;
+    }
+
+    // returns 0 when the cost was taken, otherwise the nanos until it could be
+    synchronized long tryConsume(double cost, long now) {
+        lastUse = now;
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+
+        // a request dearer than the whole bucket still gets through once it is full
+        double needed = Math.min(cost, capacity);
+        if (tokens >= needed) {
+            tokens -= needed;
+            return 0;
+        }
+        return (long) Math.ceil((needed - tokens) / tokensPerNano);
+    }
+
+    synchronized boolean idleSince(long cutoff) {
+        return lastUse < cutoff;
+    }
+}
@@ -0,0 +1,110 @@
+package com.koodjohvi.movieapi.backup;
+
+import com.koodjohvi.movieapi.storage.CatalogStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+// Restore on startup: with --backup.restore-from=<file>|latest the backup is checked with
+// PRAGMA integrity_check and copied over the SQLite database file before any connection is
+// opened. The current database is kept next to it as <name>.before-restore-<millis>, together
+// with its -journal/-wal/-shm files (a hot journal may hold committed data the main file does
+// not). A backup that fails the check stops the startup instead of serving a damaged catalog.
+// Sharded catalogs are refused: the backup only covers the main file, not the shards.
+// Registered in META-INF/spring.factories so it runs before the context is created.
+public class BackupRestoreListener implements ApplicationListener<ApplicationEnvironmentPreparedEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(BackupRestoreListener.class);
+
+    private static final String SQLITE_URL = "jdbc:sqlite:";
+
+    @Override
+    public void onApplicationEvent(ApplicationEnvironmentPreparedEvent event) {
+        ConfigurableEnvironment environment = event.getEnvironment();
+        String restoreFrom = environment.getProperty("backup.restore-from", "").trim();
+        if (restoreFrom.isEmpty()) {
+            return;
+        }
+        if (CatalogStorage.of(environment.getProperty("catalog.storage", "sqlite")) != CatalogStorage.SQLITE) {
+            throw new IllegalStateException("backup.restore-from needs the SQLite storage engine");
+        }
+        if (environment.getProperty("sharding.enabled", Boolean.class, false)) {
+            throw new IllegalStateException("backup.restore-from is not available in sharded mode: the shard files "
+                    + "would no longer match the restored main database");
+        }
+        try {
+            restore(resolveBackup(restoreFrom, Path.of(environment.getProperty("backup.directory", "./backups"))),
+                    databaseFile(environment.getProperty("spring.datasource.url", "")));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Restoring the catalog from " + restoreFrom + " failed", e);
+        }
+    }
+
+    private static Path resolveBackup(String restoreFrom, Path directory) throws IOException {
+        if (!"latest".equalsIgnoreCase(restoreFrom)) {
+            return Path.of(restoreFrom);
+        }
+        List<Path> backups = SqliteBackupService.backups(directory);
+        if (backups.isEmpty()) {
+            throw new IllegalStateException("No backups found in " + directory);
+        }
+        return backups.get(0);
+    }
+
+    private static void restore(Path backup, Path database) throws IOException {
+        if (!Files.isRegularFile(backup)) {
+            throw new IllegalStateException("Backup file not found: " + backup);
+        }
+        String check = SqliteBackupService.verify(backup);
+        if (!"ok".equals(check)) {
+            throw new IllegalStateException("Backup " + backup + " failed integrity_check: " + check);
+        }
+
+        // copy next to the database first so the swap itself is a rename
+        Path staged = database.resolveSibling(database.getFileName() + ".restoring");
+        Files.copy(backup, staged, StandardCopyOption.REPLACE_EXISTING);
+        Path previous = database.resolveSibling(database.getFileName() + ".before-restore-" + System.currentTimeMillis());
+        if (Files.exists(database)) {
+            Files.move(database, previous);
+            log.info("Moved the current database to {}", previous);
+        }
+        // a journal or WAL left by the old database must not be applied to the restored one; it goes
+        // with the old file under the matching name, so opening that file still recovers it
+        for (String suffix : List.of("-journal", "-wal", "-shm")) {
+            Path sidecar = database.resolveSibling(database.getFileName() + suffix);
+            if (Files.exists(sidecar)) {
+                Files.move(sidecar, previous.resolveSibling(previous.getFileName() + suffix));
+            }
+        }
+        Files.move(staged, database, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Restored {} from backup {}", database, backup);
+    }
+
+    // ./database.db from jdbc:sqlite:./database.db (optionally file: prefixed, with ?params)
+    private static Path databaseFile(String url) {
+        if (!url.startsWith(SQLITE_URL)) {
+            throw new IllegalStateException("Cannot restore into a non-file datasource: " + url);
+        }
+        String path = url.substring(SQLITE_URL.length());
+        if (path.startsWith("file:")) {
+            path = path.substring("file:".length());
+        }
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        if (path.isEmpty() || path.equals(":memory:")) {
+            throw new IllegalStateException("Cannot restore into an in-memory SQLite database");
+        }
+        return Path.of(path);
+    }
+}
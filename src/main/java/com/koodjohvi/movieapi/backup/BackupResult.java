@@ -0,0 +1,6 @@
+package com.koodjohvi.movieapi.backup;
+
+// one finished backup: the verified snapshot file, how fast it was copied and how often
+// concurrent writes made SQLite start the copy over
+public record BackupResult(String file, long bytes, int pages, long durationMillis, long bytesPerSecond,
+                           int restarts, long completedAt) {}
@@ -0,0 +1,7 @@
+package com.koodjohvi.movieapi.backup;
+
+import java.util.List;
+
+// progress is the copied share of the current run's pages (0..1), null when idle
+public record BackupStatus(boolean running, Double progress, BackupResult lastBackup, String lastError,
+                           List<String> backups) {}
@@ -0,0 +1,230 @@
+package com.koodjohvi.movieapi.backup;
+
+import com.koodjohvi.movieapi.admission.BackgroundThrottle;
+import com.koodjohvi.movieapi.storage.CatalogStorage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLiteErrorCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+// Online snapshots of the SQLite catalog through SQLite's backup API. The driver copies the
+// database in steps of a few pages and only holds the read lock during a step; the progress
+// callback between steps pauses behind live traffic, so writers get the file in between. A
+// write from another connection makes SQLite restart the copy from a consistent point, so the
+// result is always a snapshot of one committed state. Pausing stretches the copy and with it the
+// window for such writes, so once a copy has restarted the rest runs without pauses; otherwise a
+// steady write load could keep it restarting for good. Each copy is written to a temp file,
+// checked with PRAGMA integrity_check, then renamed into the backup directory and rotated.
+@Service
+public class SqliteBackupService {
+
+    private static final Logger log = LoggerFactory.getLogger(SqliteBackupService.class);
+
+    static final String PREFIX = "catalog-";
+    static final String SUFFIX = ".db";
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final DataSource dataSource;
+    private final BackgroundThrottle throttle;
+    private final boolean enabled;
+    private final boolean sharded;
+    private final Path directory;
+    private final int keep;
+
+    private final Timer durationTimer;
+    private final DistributionSummary sizeSummary;
+    private final Counter failures;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile double progress;
+    private volatile long lastBytesPerSecond;
+    private volatile BackupResult lastBackup;
+    private volatile String lastError;
+
+    public SqliteBackupService(DataSource dataSource, BackgroundThrottle throttle, MeterRegistry meterRegistry,
+                               @Value("${catalog.storage:sqlite}") String storage,
+                               @Value("${sharding.enabled:false}") boolean sharded,
+                               @Value("${backup.directory:./backups}") String directory,
+                               @Value("${backup.keep:7}") int keep) {
+        this.dataSource = dataSource;
+        this.throttle = throttle;
+        this.enabled = CatalogStorage.of(storage) == CatalogStorage.SQLITE;
+        this.sharded = sharded;
+        this.directory = Path.of(directory);
+        this.keep = Math.max(1, keep);
+        this.durationTimer = Timer.builder("catalog.backup.duration").register(meterRegistry);
+        this.sizeSummary = DistributionSummary.builder("catalog.backup.size").baseUnit("bytes").register(meterRegistry);
+        this.failures = Counter.builder("catalog.backup.failures").register(meterRegistry);
+        Gauge.builder("catalog.backup.progress", this, s -> s.running.get() ? s.progress : 0).register(meterRegistry);
+        Gauge.builder("catalog.backup.throughput", this, s -> s.lastBytesPerSecond).baseUnit("bytes/s")
+                .register(meterRegistry);
+    }
+
+    public BackupStatus status() {
+        return new BackupStatus(running.get(), running.get() ? progress : null, lastBackup, lastError, listBackups());
+    }
+
+    @Scheduled(cron = "${backup.cron:-}")
+    public void scheduledBackup() {
+        if (enabled && !sharded && !start()) {
+            log.info("Scheduled backup skipped, one is already running");
+        }
+    }
+
+    // starts a backup in the background; false if one is already running
+    public boolean start() {
+        if (!enabled) {
+            throw new IllegalArgumentException("Online backups are only available for the SQLite storage engine");
+        }
+        if (sharded) {
+            // movies live in the shard files, which a backup of the main database does not cover
+            throw new IllegalArgumentException("Online backups are not available in sharded mode");
+        }
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        progress = 0;
+        Thread worker = new Thread(() -> {
+            try {
+                lastBackup = backup();
+                lastError = null;
+            } catch (RuntimeException | SQLException | IOException e) {
+                failures.increment();
+                lastError = e.getMessage();
+                log.error("Catalog backup failed", e);
+            } finally {
+                running.set(false);
+            }
+        }, "catalog-backup");
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    private BackupResult backup() throws SQLException, IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve(PREFIX + LocalDateTime.now().format(STAMP) + SUFFIX);
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        Files.deleteIfExists(temp);
+
+        long started = System.nanoTime();
+        int[] pages = new int[1];
+        // pages left after the previous step, and how often the copy started over
+        int[] lastRemaining = {Integer.MAX_VALUE};
+        int[] restarts = new int[1];
+        try (Connection connection = dataSource.getConnection()) {
+            int rc = connection.unwrap(SQLiteConnection.class).getDatabase().backup("main", temp.toString(),
+                    (remaining, pageCount) -> {
+                        pages[0] = pageCount;
+                        progress = pageCount == 0 ? 1 : (pageCount - remaining) / (double) pageCount;
+                        if (remaining > lastRemaining[0]) {
+                            restarts[0]++;
+                            log.info("Catalog backup restarted by a concurrent write, continuing without pauses");
+                        }
+                        lastRemaining[0] = remaining;
+                        if (restarts[0] == 0) {
+                            pause();
+                        }
+                    });
+            if (rc != SQLiteErrorCode.SQLITE_OK.code) {
+                throw new SQLException("SQLite backup failed with code " + rc);
+            }
+        } catch (SQLException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        long durationNanos = System.nanoTime() - started;
+
+        String check = verify(temp);
+        if (!"ok".equals(check)) {
+            Files.deleteIfExists(temp);
+            throw new IllegalStateException("Backup failed integrity_check: " + check);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        rotate();
+
+        long bytes = Files.size(target);
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(durationNanos);
+        long bytesPerSecond = durationNanos == 0 ? bytes : (long) (bytes / (durationNanos / 1e9));
+        durationTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+        sizeSummary.record(bytes);
+        lastBytesPerSecond = bytesPerSecond;
+        log.info("Catalog backed up to {} ({} bytes in {} ms, {} restarts)", target, bytes, durationMillis, restarts[0]);
+        return new BackupResult(target.toString(), bytes, pages[0], durationMillis, bytesPerSecond, restarts[0],
+                System.currentTimeMillis());
+    }
+
+    // drops the oldest backups beyond backup.keep
+    private void rotate() throws IOException {
+        List<Path> backups = backups(directory);
+        for (int i = keep; i < backups.size(); i++) {
+            Files.deleteIfExists(backups.get(i));
+        }
+    }
+
+    private List<String> listBackups() {
+        try {
+            return backups(directory).stream().map(p -> p.getFileName().toString()).toList();
+        } catch (IOException e) {
+            return List.of();
+        }
+    }
+
+    // finished backups in a directory, newest first (the timestamped names sort by age)
+    static List<Path> backups(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> {
+                String name = p.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).sorted((a, b) -> b.getFileName().compareTo(a.getFileName())).toList();
+        }
+    }
+
+    // "ok" if the file opens as a SQLite database and passes PRAGMA integrity_check
+    static String verify(Path file) {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file.toAbsolutePath());
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("PRAGMA integrity_check")) {
+            return rs.next() ? rs.getString(1) : "no result";
+        } catch (SQLException e) {
+            return e.getMessage();
+        }
+    }
+
+    // called from the driver's native copy loop, so it must not throw
+    private void pause() {
+        try {
+            throttle.pause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.koodjohvi.movieapi.batch;
+
+import com.koodjohvi.movieapi.entities.Actor;
+import com.koodjohvi.movieapi.entities.Genre;
+import com.koodjohvi.movieapi.entities.Movie;
+import com.koodjohvi.movieapi.repositories.ActorRepository;
+import com.koodjohvi.movieapi.repositories.GenreRepository;
+import com.koodjohvi.movieapi.repositories.MovieStore;
+
+import java.util.*;
+import java.util.function.Function;
+
+// DataLoader-style lookup merging for one batch: sub-requests first register the ids they
+// need, then load() fetches each kind with IN queries (in chunks below SQLite's bound
+// parameter limit) and the sub-requests read their results from the maps. Movies found
+// through filmographies are loaded together with the directly requested ones, up to
+// maxMovies in total: the genre and filmography lists are unpaginated.
+class BatchLoader {
+
+    private static final int IN_BATCH = 500;
+
+    private final MovieStore movieStore;
+    private final ActorRepository actorRepository;
+    private final GenreRepository genreRepository;
+    private final int maxMovies;
+
+    private final Set<Long> movieIds = new HashSet<>();
+    private final Set<Long> actorIds = new HashSet<>();
+    private final Set<Long> genreIds = new HashSet<>();
+    private final Set<Long> filmographyActorIds = new HashSet<>();
+    private final Set<Long> genreMovieGenreIds = new HashSet<>();
+    private boolean allGenresRequested;
+
+    private final Map<Long, Movie> movies = new HashMap<>();
+    private final Map<Long, Actor> actors = new HashMap<>();
+    private final Map<Long, Genre> genres = new HashMap<>();
+    private final Map<Long, List<Long>> movieIdsByActor = new HashMap<>();
+    private final Map<Long, List<Long>> movieIdsByGenre = new HashMap<>();
+    private List<Genre> allGenres = List.of();
+
+    BatchLoader(MovieStore movieStore, ActorRepository actorRepository, GenreRepository genreRepository,
+                int maxMovies) {
+        this.movieStore = movieStore;
+        this.actorRepository = actorRepository;
+        this.genreRepository = genreRepository;
+        this.maxMovies = maxMovies;
+    }
+
+    void requestMovie(long id) {
+        movieIds.add(id);
+    }
+
+    void requestActor(long id) {
+        actorIds.add(id);
+    }
+
+    void requestGenre(long id) {
+        genreIds.add(id);
+    }
+
+    void requestMoviesByActor(long actorId) {
+        actorIds.add(actorId);
+        filmographyActorIds.add(actorId);
+    }
+
+    void requestMoviesByGenre(long genreId) {
+        genreIds.add(genreId);
+        genreMovieGenreIds.add(genreId);
+    }
+
+    void requestAllGenres() {
+        allGenresRequested = true;
+    }
+
+    void load() {
+        groupMovieIds(movieStore::findMovieIdsByActorIds, filmographyActorIds, movieIdsByActor);
+        groupMovieIds(movieStore::findMovieIdsByGenreIds, genreMovieGenreIds, movieIdsByGenre);
+        // checked on the ids, before any movie is loaded
+        if (movieIds.size() > maxMovies) {
+            throw new IllegalArgumentException("Batch would load " + movieIds.size() + " movies, at most " + maxMovies
+                    + " are allowed; page large genres and filmographies through /api/movies instead");
+        }
+
+        load(movieIds, movieStore::findAllByIdWithAssociations, Movie::getId, movies);
+        load(actorIds, batch -> actorRepository.findAllById(batch), Actor::getId, actors);
+        if (allGenresRequested) {
+            // the full list answers the single-genre lookups as well
+            allGenres = genreRepository.findAll();
+            allGenres.forEach(genre -> genres.put(genre.getId(), genre));
+        } else {
+            load(genreIds, batch -> genreRepository.findAllById(batch), Genre::getId, genres);
+        }
+    }
+
+    Optional<Movie> movie(long id) {
+        return Optional.ofNullable(movies.get(id));
+    }
+
+    Optional<Actor> actor(long id) {
+        return Optional.ofNullable(actors.get(id));
+    }
+
+    Optional<Genre> genre(long id) {
+        return Optional.ofNullable(genres.get(id));
+    }
+
+    List<Movie> moviesByActor(long actorId) {
+        return resolve(movieIdsByActor.getOrDefault(actorId, List.of()));
+    }
+
+    List<Movie> moviesByGenre(long genreId) {
+        return resolve(movieIdsByGenre.getOrDefault(genreId, List.of()));
+    }
+
+    List<Genre> allGenres() {
+        return allGenres;
+    }
+
+    private List<Movie> resolve(List<Long> ids) {
+        return ids.stream().map(movies::get).filter(Objects::nonNull).toList();
+    }
+
+    // join rows (key, movie_id) grouped by key; their movies join the movie lookup
+    private void groupMovieIds(Function<Collection<Long>, List<Object[]>> query, Set<Long> keys,
+                               Map<Long, List<Long>> target) {
+        for (List<Long> batch : batches(keys)) {
+            for (Object[] row : query.apply(batch)) {
+                long key = ((Number) row[0]).longValue();
+                long movieId = ((Number) row[1]).longValue();
+                target.computeIfAbsent(key, k -> new ArrayList<>()).add(movieId);
+                movieIds.add(movieId);
+            }
+        }
+    }
+
+    private static <T> void load(Set<Long> ids, Function<Collection<Long>, List<T>> query, Function<T, Long> idOf,
+                                 Map<Long, T> target) {
+        for (List<Long> batch : batches(ids)) {
+            for (T entity : query.apply(batch)) {
+                target.put(idOf.apply(entity), entity);
+            }
+        }
+    }
+
+    private static List<List<Long>> batches(Set<Long> ids) {
+        List<Long> sorted = new ArrayList<>(ids);
+        Collections.sort(sorted);
+        List<List<Long>> batches = new ArrayList<>();
+        for (int from = 0; from < sorted.size(); from += IN_BATCH) {
+            batches.add(sorted.subList(from, Math.min(from + IN_BATCH, sorted.size())));
+        }
+        return batches;
+    }
+}
@@ -0,0 +1,6 @@
+package com.koodjohvi.movieapi.batch;
+
+import java.util.Map;
+
+// sub-requests keyed by a caller-chosen name, e.g. {"requests": {"movie": "/api/movies/7"}}
+public record BatchRequest(Map<String, String> requests) {}
@@ -0,0 +1,17 @@
+package com.koodjohvi.movieapi.batch;
+
+// what the standalone endpoint would have answered: status code and body (error bodies are plain text)
+public record BatchResult(int status, Object body) {
+
+    static BatchResult ok(Object body) {
+        return new BatchResult(200, body);
+    }
+
+    static BatchResult notFound(String message) {
+        return new BatchResult(404, message);
+    }
+
+    static BatchResult badRequest(String message) {
+        return new BatchResult(400, message);
+    }
+}
@@ -0,0 +1,150 @@
+package com.koodjohvi.movieapi.batch;
+
+import com.koodjohvi.movieapi.repositories.ActorRepository;
+import com.koodjohvi.movieapi.repositories.GenreRepository;
+import com.koodjohvi.movieapi.repositories.MovieStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Several read-only sub-requests in one call and one read transaction. Each supported GET is
+// parsed into a lookup that registers its ids with a BatchLoader; after one round of IN
+// queries every lookup answers from the loaded rows, with the status and body the standalone
+// endpoint would have returned. Only unpaginated reads of these paths are supported:
+//   /api/movies/{id}, /api/movies/{id}/actors, /api/movies?actor={id}, /api/movies?genre={id},
+//   /api/actors/{id}, /api/genres, /api/genres/{id}
+@Service
+public class BatchService {
+
+    private final MovieStore movieStore;
+    private final ActorRepository actorRepository;
+    private final GenreRepository genreRepository;
+    private final int maxRequests;
+    private final int maxMovies;
+
+    public BatchService(MovieStore movieStore, ActorRepository actorRepository, GenreRepository genreRepository,
+                        @Value("${batch.max-requests:50}") int maxRequests,
+                        @Value("${batch.max-movies:5000}") int maxMovies) {
+        this.movieStore = movieStore;
+        this.actorRepository = actorRepository;
+        this.genreRepository = genreRepository;
+        this.maxRequests = maxRequests;
+        this.maxMovies = maxMovies;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, BatchResult> execute(Map<String, String> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("At least one sub-request is required");
+        }
+        if (requests.size() > maxRequests) {
+            throw new IllegalArgumentException("At most " + maxRequests + " sub-requests are allowed");
+        }
+
+        BatchLoader loader = new BatchLoader(movieStore, actorRepository, genreRepository, maxMovies);
+        Map<String, Function<BatchLoader, BatchResult>> lookups = new LinkedHashMap<>();
+        requests.forEach((key, path) -> lookups.put(key, plan(path, loader)));
+        loader.load();
+
+        Map<String, BatchResult> results = new LinkedHashMap<>();
+        lookups.forEach((key, lookup) -> results.put(key, lookup.apply(loader)));
+        return results;
+    }
+
+    // registers the ids a sub-request needs and returns how to answer it once they are loaded
+    private static Function<BatchLoader, BatchResult> plan(String path, BatchLoader loader) {
+        if (path == null || path.isBlank()) {
+            return failed(BatchResult.badRequest("Sub-request path is required"));
+        }
+        try {
+            UriComponents uri = UriComponentsBuilder.fromUriString(path.trim()).build();
+            List<String> segments = new ArrayList<>(uri.getPathSegments());
+            MultiValueMap<String, String> params = uri.getQueryParams();
+            if (segments.size() < 2 || !"api".equals(segments.get(0))) {
+                return unsupported(path);
+            }
+            if (params.containsKey("page") || params.containsKey("size")) {
+                return failed(BatchResult.badRequest("Pagination is not supported in batch sub-requests"));
+            }
+            String resource = segments.get(1);
+            List<String> rest = segments.subList(2, segments.size());
+
+            if ("movies".equals(resource) && rest.isEmpty()) {
+                if (params.size() != 1) {
+                    return unsupported(path);
+                }
+                if (params.containsKey("actor")) {
+                    long actorId = id(params.getFirst("actor"));
+                    loader.requestMoviesByActor(actorId);
+                    return l -> l.actor(actorId).isEmpty()
+                            ? BatchResult.notFound("Actor not found with id: " + actorId)
+                            : BatchResult.ok(l.moviesByActor(actorId));
+                }
+                if (params.containsKey("genre")) {
+                    long genreId = id(params.getFirst("genre"));
+                    loader.requestMoviesByGenre(genreId);
+                    return l -> l.genre(genreId).isEmpty()
+                            ? BatchResult.notFound("Genre not found with id: " + genreId)
+                            : BatchResult.ok(l.moviesByGenre(genreId));
+                }
+                return unsupported(path);
+            }
+            if ("movies".equals(resource) && rest.size() == 1) {
+                long movieId = id(rest.get(0));
+                loader.requestMovie(movieId);
+                return l -> l.movie(movieId).<BatchResult>map(BatchResult::ok)
+                        .orElseGet(() -> BatchResult.notFound("No movie found with ID: " + movieId));
+            }
+            if ("movies".equals(resource) && rest.size() == 2 && "actors".equals(rest.get(1))) {
+                long movieId = id(rest.get(0));
+                loader.requestMovie(movieId);
+                return l -> l.movie(movieId).<BatchResult>map(movie -> BatchResult.ok(List.copyOf(movie.getActors())))
+                        .orElseGet(() -> BatchResult.notFound("Movie not found with ID: " + movieId));
+            }
+            if ("actors".equals(resource) && rest.size() == 1) {
+                long actorId = id(rest.get(0));
+                loader.requestActor(actorId);
+                return l -> l.actor(actorId).<BatchResult>map(BatchResult::ok)
+                        .orElseGet(() -> BatchResult.notFound("No actor found with ID: " + actorId));
+            }
+            if ("genres".equals(resource) && rest.isEmpty()) {
+                loader.requestAllGenres();
+                return l -> BatchResult.ok(l.allGenres());
+            }
+            if ("genres".equals(resource) && rest.size() == 1) {
+                long genreId = id(rest.get(0));
+                loader.requestGenre(genreId);
+                return l -> l.genre(genreId).<BatchResult>map(BatchResult::ok)
+                        .orElseGet(() -> BatchResult.notFound("No genre found with ID: " + genreId));
+            }
+        } catch (IllegalArgumentException e) {
+            return failed(BatchResult.badRequest(e.getMessage()));
+        }
+        return unsupported(path);
+    }
+
+    private static long id(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value '" + value + "' for ID. Expected a valid number");
+        }
+    }
+
+    private static Function<BatchLoader, BatchResult> unsupported(String path) {
+        return failed(BatchResult.badRequest("Unsupported sub-request: GET " + path));
+    }
+
+    private static Function<BatchLoader, BatchResult> failed(BatchResult result) {
+        return l -> result;
+    }
+}
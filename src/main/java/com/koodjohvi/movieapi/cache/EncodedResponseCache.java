@@ -0,0 +1,65 @@
+package com.koodjohvi.movieapi.cache;
+
+import com.koodjohvi.movieapi.events.CatalogBulkChangeEvent;
+import com.koodjohvi.movieapi.events.CatalogChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Already-serialized (and gzipped) bodies of large list responses, keyed by request path and
+// query. Any committed catalog change drops every entry, since a genre or actor rename shows
+// up inside movie payloads too.
+@Component
+public class EncodedResponseCache {
+
+    public record Entry(String contentType, byte[] identity, byte[] gzip) {}
+
+    private final int maxEntries;
+    // guarded by "this"
+    private final Map<String, Entry> entries;
+    private long generation;
+
+    public EncodedResponseCache(@Value("${cache.responses.max-entries:64}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > EncodedResponseCache.this.maxEntries;
+            }
+        };
+    }
+
+    public synchronized Entry get(String key) {
+        return entries.get(key);
+    }
+
+    // taken before computing a response; put() is ignored if the catalog changed in between
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized void put(String key, long generation, Entry entry) {
+        if (generation == this.generation) {
+            entries.put(key, entry);
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    @TransactionalEventListener
+    public void onCatalogChange(CatalogChangeEvent event) {
+        invalidateAll();
+    }
+
+    @EventListener
+    public void onBulkChange(CatalogBulkChangeEvent event) {
+        invalidateAll();
+    }
+}
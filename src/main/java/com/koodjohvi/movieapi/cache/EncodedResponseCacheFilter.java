@@ -0,0 +1,127 @@
+package com.koodjohvi.movieapi.cache;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
+
+// Serves repeat full-collection and popular filter reads (GET /api/movies, ?genre=, ?year=,
+// GET /api/actors) from EncodedResponseCache. Responses we encode ourselves carry a
+// Content-Encoding header, so Tomcat's own compression leaves them alone.
+@Component
+@ConditionalOnProperty(name = "cache.responses.enabled", havingValue = "true", matchIfMissing = true)
+public class EncodedResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final Map<String, Set<String>> CACHEABLE_PARAMS = Map.of(
+            "/api/movies", Set.of("genre", "year"),
+            "/api/actors", Set.of()
+    );
+
+    private final EncodedResponseCache cache;
+
+    public EncodedResponseCacheFilter(EncodedResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) {
+            return true;
+        }
+        Set<String> allowed = CACHEABLE_PARAMS.get(request.getRequestURI());
+        if (allowed == null) {
+            return true;
+        }
+        // paginated, sorted or otherwise filtered requests are not cached
+        for (String name : request.getParameterMap().keySet()) {
+            if (!allowed.contains(name)) {
+                return true;
+            }
+        }
+        // one filter at a time, like the controller
+        return request.getParameterMap().size() > 1;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = cacheKey(request);
+        boolean gzip = acceptsGzip(request);
+
+        EncodedResponseCache.Entry cached = cache.get(key);
+        if (cached != null) {
+            write(response, cached, gzip);
+            return;
+        }
+
+        long generation = cache.generation();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+        byte[] body = wrapper.getContentAsByteArray();
+        EncodedResponseCache.Entry entry = new EncodedResponseCache.Entry(wrapper.getContentType(), body, gzip(body));
+        cache.put(key, generation, entry);
+        write(response, entry, gzip);
+    }
+
+    private static void write(HttpServletResponse response, EncodedResponseCache.Entry entry, boolean gzip)
+            throws IOException {
+        byte[] body = gzip ? entry.gzip() : entry.identity();
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(entry.contentType());
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+        response.flushBuffer();
+    }
+
+    private static String cacheKey(HttpServletRequest request) {
+        // sorted so that parameter order does not split entries
+        Map<String, String[]> params = new TreeMap<>(request.getParameterMap());
+        StringBuilder key = new StringBuilder(request.getRequestURI());
+        params.forEach((name, values) -> key.append(key.indexOf("?") < 0 ? '?' : '&')
+                .append(name).append('=').append(String.join(",", values)));
+        return key.toString();
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (accept == null) {
+            return false;
+        }
+        for (String coding : accept.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,4 @@
+package com.koodjohvi.movieapi.changelog;
+
+// published inside the writing transaction once its change log entry has a sequence number
+public record ChangeLogAppendedEvent(long seq) {}
@@ -0,0 +1,126 @@
+package com.koodjohvi.movieapi.changelog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.koodjohvi.movieapi.entities.ChangeLogEntry;
+import com.koodjohvi.movieapi.entities.ChangeLogLock;
+import com.koodjohvi.movieapi.events.CatalogChangeEvent;
+import com.koodjohvi.movieapi.events.CatalogChangeType;
+import com.koodjohvi.movieapi.events.CatalogEntityType;
+import com.koodjohvi.movieapi.repositories.ActorRepository;
+import com.koodjohvi.movieapi.repositories.ChangeLogLockRepository;
+import com.koodjohvi.movieapi.repositories.ChangeLogRepository;
+import com.koodjohvi.movieapi.repositories.GenreRepository;
+import com.koodjohvi.movieapi.repositories.MovieRepository;
+import com.koodjohvi.movieapi.storage.CatalogStorage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// Ordered, durable log of catalog mutations. Entries are appended by a plain (synchronous)
+// @EventListener, so they commit or roll back together with the change itself. Sequence
+// numbers must follow commit order: SQLite guarantees that with its single writer, other
+// engines take a row lock on change_log_lock before appending.
+@Service
+public class ChangeLogService {
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final ChangeLogRepository changeLogRepository;
+    private final ChangeLogLockRepository changeLogLockRepository;
+    private final MovieRepository movieRepository;
+    private final ActorRepository actorRepository;
+    private final GenreRepository genreRepository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogStorage storage;
+    // followers receive the leader's log through replication instead
+    private final boolean follower;
+
+    public ChangeLogService(ChangeLogRepository changeLogRepository, ChangeLogLockRepository changeLogLockRepository,
+                            MovieRepository movieRepository, ActorRepository actorRepository,
+                            GenreRepository genreRepository, ObjectMapper objectMapper,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${catalog.storage:sqlite}") String storage,
+                            @Value("${replication.role:leader}") String role) {
+        this.changeLogRepository = changeLogRepository;
+        this.changeLogLockRepository = changeLogLockRepository;
+        this.movieRepository = movieRepository;
+        this.actorRepository = actorRepository;
+        this.genreRepository = genreRepository;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.storage = CatalogStorage.of(storage);
+        this.follower = "follower".equalsIgnoreCase(role);
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        if (follower) {
+            return;
+        }
+        lock();
+
+        Object state = event.after() != null ? event.after() : event.before();
+        ChangeLogEntry entry = changeLogRepository.save(new ChangeLogEntry(event.entityType(), event.entityId(),
+                event.changeType(), toJson(state)));
+
+        // the row remembers its latest sequence so delta sync can range-scan by it
+        if (event.changeType() == CatalogChangeType.CREATED || event.changeType() == CatalogChangeType.UPDATED) {
+            switch (event.entityType()) {
+                case MOVIE -> movieRepository.updateModSeq(event.entityId(), entry.getSeq());
+                case ACTOR -> actorRepository.updateModSeq(event.entityId(), entry.getSeq());
+                case GENRE -> genreRepository.updateModSeq(event.entityId(), entry.getSeq());
+            }
+        }
+        eventPublisher.publishEvent(new ChangeLogAppendedEvent(entry.getSeq()));
+    }
+
+    // one entry standing for rows written in bulk without per-entity events; returns its sequence
+    // so the caller can stamp those rows' mod_seq in the same transaction
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long appendBulkLoad(Object payload) {
+        lock();
+        ChangeLogEntry entry = changeLogRepository.save(new ChangeLogEntry(CatalogEntityType.MOVIE, 0L,
+                CatalogChangeType.BULK_LOADED, toJson(payload)));
+        eventPublisher.publishEvent(new ChangeLogAppendedEvent(entry.getSeq()));
+        return entry.getSeq();
+    }
+
+    // sequence numbers follow commit order: SQLite has one writer, other engines serialize appends here
+    private void lock() {
+        if (!storage.isSingleWriter() && changeLogLockRepository.acquire() == 0) {
+            changeLogLockRepository.saveAndFlush(new ChangeLogLock(1L));
+            changeLogLockRepository.acquire();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public ChangePage getChanges(long after, int limit) {
+        if (after < 0) {
+            throw new IllegalArgumentException("'after' must not be negative");
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        long head = changeLogRepository.findHeadSeq();
+        List<ChangeLogEntry> entries = changeLogRepository.findBySeqGreaterThanOrderBySeqAsc(after, Limit.of(limit));
+        long next = entries.isEmpty() ? after : entries.get(entries.size() - 1).getSeq();
+        return new ChangePage(entries, next, Math.max(head, next));
+    }
+
+    private String toJson(Object state) {
+        try {
+            return objectMapper.writeValueAsString(state);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize change log payload", e);
+        }
+    }
+}
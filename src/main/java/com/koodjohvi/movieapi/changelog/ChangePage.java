@@ -0,0 +1,8 @@
+package com.koodjohvi.movieapi.changelog;
+
+import com.koodjohvi.movieapi.entities.ChangeLogEntry;
+
+import java.util.List;
+
+// nextSeq is the "after" value for the following page; headSeq is the newest committed entry
+public record ChangePage(List<ChangeLogEntry> entries, long nextSeq, long headSeq) {}
@@ -0,0 +1,124 @@
+package com.koodjohvi.movieapi.changelog;
+
+import com.koodjohvi.movieapi.entities.ChangeLogEntry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Pushes change log entries to Server-Sent Events subscribers. Every subscriber has its own
+// cursor; a single poller reads one bounded batch per distinct cursor (up-to-date subscribers
+// share one) and hands it to those subscribers, so new subscribers catch up from their "after"
+// position with the same code path and one far behind never holds back the rest. Writes to the
+// connections happen on a separate pool, at most one task per subscriber at a time, so a slow
+// client delays only itself and never the poller (or other jobs on the scheduler).
+@Service
+public class ChangeStreamService {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final ChangeLogService changeLogService;
+    private final long timeoutMillis;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService senders;
+
+    public ChangeStreamService(ChangeLogService changeLogService,
+                               @Value("${changes.stream.timeout-ms:1800000}") long timeoutMillis,
+                               @Value("${changes.stream.send-threads:4}") int sendThreads) {
+        this.changeLogService = changeLogService;
+        this.timeoutMillis = timeoutMillis;
+        this.senders = Executors.newFixedThreadPool(sendThreads, runnable -> {
+            Thread thread = new Thread(runnable, "change-stream-send");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public SseEmitter subscribe(long after) {
+        if (after < 0) {
+            throw new IllegalArgumentException("'after' must not be negative");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, after);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${changes.stream.poll-interval-ms:500}")
+    public void publishNewEntries() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        // one still busy with an earlier batch is picked up on a later poll; an idle one's cursor
+        // only moves in its own send task, so it is stable here
+        Map<Long, List<Subscriber>> byCursor = new HashMap<>();
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.sending.get()) {
+                byCursor.computeIfAbsent(subscriber.cursor, cursor -> new ArrayList<>()).add(subscriber);
+            }
+        }
+        byCursor.forEach((cursor, group) -> {
+            List<ChangeLogEntry> entries = changeLogService.getChanges(cursor, BATCH_SIZE).entries();
+            if (entries.isEmpty()) {
+                return;
+            }
+            for (Subscriber subscriber : group) {
+                if (subscriber.sending.compareAndSet(false, true)) {
+                    senders.execute(() -> send(subscriber, entries));
+                }
+            }
+        });
+    }
+
+    private void send(Subscriber subscriber, List<ChangeLogEntry> entries) {
+        try {
+            for (ChangeLogEntry entry : entries) {
+                if (entry.getSeq() > subscriber.cursor) {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(entry.getSeq().toString())
+                            .name("change")
+                            .data(entry, MediaType.APPLICATION_JSON));
+                    subscriber.cursor = entry.getSeq();
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // client went away; onError/onCompletion may not fire for a broken pipe
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            subscriber.sending.set(false);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        senders.shutdownNow();
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        // written by the one send task running for this subscriber, read by the poller
+        volatile long cursor;
+        final AtomicBoolean sending = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+    }
+}
@@ -1,15 +1,16 @@
 package com.koodjohvi.movieapi.controllers;
 
 import com.koodjohvi.movieapi.entities.Actor;
+import com.koodjohvi.movieapi.events.CatalogEntityType;
+import com.koodjohvi.movieapi.popularity.PopularityService;
 import com.koodjohvi.movieapi.services.ActorService;
-import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import jakarta.validation.Valid;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/actors")
@@ -17,9 +18,11 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 public class ActorController {
 
     private final ActorService actorService;
+    private final PopularityService popularityService;
 
-    public ActorController(ActorService actorService) {
+    public ActorController(ActorService actorService, PopularityService popularityService) {
         this.actorService = actorService;
+        this.popularityService = popularityService;
     }
 
     // create actor (POST /api/actors)
@@ -29,41 +32,58 @@ public class ActorController {
         return ResponseEntity.status(201).body(saved);
     }
 
-    // get actor(s) by name or with pagination(GET /api/actors?name or GET /api/actors?page=0&size=10)
+    // get actor(s) by name or with pagination(GET /api/actors?name or GET /api/actors?page=0&size=10),
+    // most viewed first with sort=popularity,desc
     @GetMapping
     public ResponseEntity<?> getAllActors(@RequestParam(required = false) String name, Pageable pageable) {
-        try {
-            boolean isUnpaginated = !isPaginationRequested();
+        // bad page/size values are a 400
+        boolean isUnpaginated = !Pagination.requested();
+        // a page sorted by popularity is ranked by the database; the unpaginated list is ranked here
+        boolean byPopularity = isUnpaginated && popularityService.isPopularitySort(pageable);
+        Pageable query = byPopularity ? popularityService.withoutPopularitySort(pageable) : pageable;
 
-            if (name != null) {
-                return ResponseEntity.ok(actorService.getActorsByNameContainingIgnoreCase(name, pageable, isUnpaginated));
-            } else {
-                return ResponseEntity.ok(actorService.getAllActors(pageable, isUnpaginated));
-            }
-        } catch (Exception e) {
-            if (e.getMessage() != null &&
-                    (e.getMessage().contains("Invalid page") || e.getMessage().contains("Invalid size"))) {
-                return ResponseEntity.badRequest().body("Invalid pagination parameters");
-            }
-            throw e;
+        Object actors;
+        if (name != null) {
+            actors = actorService.getActorsByNameContainingIgnoreCase(name, query, isUnpaginated);
+        } else {
+            actors = actorService.getAllActors(query, isUnpaginated);
         }
+        return ResponseEntity.ok(byPopularity ? byPopularity(actors, pageable) : actors);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object byPopularity(Object actors, Pageable pageable) {
+        return popularityService.sortByPopularity((List<Actor>) actors, Actor::getId, CatalogEntityType.ACTOR,
+                pageable);
     }
 
-    // Helper: detect if user provided page or size
-    private boolean isPaginationRequested() {
-        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
-        return request.getParameter("page") != null || request.getParameter("size") != null;
+    // get the most viewed actors, recent views weighing more (GET /api/actors/trending?limit=10)
+    @GetMapping("/trending")
+    public List<Actor> getTrendingActors(@RequestParam(defaultValue = "10") int limit) {
+        return actorService.getTrendingActors(limit);
     }
 
     // get actor by ID (GET /api/actors/{ID})
     @GetMapping("/{id}")
     public Actor getActorById(@PathVariable Long id) {
-        return actorService.getActorById(id);
+        Actor actor = actorService.getActorById(id);
+        popularityService.recordView(CatalogEntityType.ACTOR, id);
+        return actor;
     }
 
     @GetMapping("/search")
-    public Object searchActors(@RequestParam String name, Pageable pageable) {
-        boolean isUnpaginated = !isPaginationRequested();
+    public Object searchActors(@RequestParam String name,
+                               @RequestParam(defaultValue = "false") boolean fuzzy,
+                               @RequestParam(defaultValue = "10") int limit,
+                               Pageable pageable) {
+        if (fuzzy) {
+            return actorService.searchActorsFuzzy(name, limit);
+        }
+        boolean isUnpaginated = !Pagination.requested();
+        if (isUnpaginated && popularityService.isPopularitySort(pageable)) {
+            return byPopularity(actorService.getActorsByNameContainingIgnoreCase(name,
+                    popularityService.withoutPopularitySort(pageable), true), pageable);
+        }
         return actorService.getActorsByNameContainingIgnoreCase(name, pageable, isUnpaginated);
     }
 
@@ -0,0 +1,31 @@
+package com.koodjohvi.movieapi.controllers;
+
+import com.koodjohvi.movieapi.backup.SqliteBackupService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/backups")
+public class BackupController {
+
+    private final SqliteBackupService backupService;
+
+    public BackupController(SqliteBackupService backupService) {
+        this.backupService = backupService;
+    }
+
+    // get progress of a running backup, the last result and the backups on disk (GET /api/admin/backups)
+    @GetMapping
+    public ResponseEntity<?> getStatus() {
+        return ResponseEntity.ok(backupService.status());
+    }
+
+    // take an online backup in the background (POST /api/admin/backups)
+    @PostMapping
+    public ResponseEntity<?> startBackup() {
+        if (!backupService.start()) {
+            return ResponseEntity.status(409).body("A backup is already running");
+        }
+        return ResponseEntity.accepted().body(backupService.status());
+    }
+}
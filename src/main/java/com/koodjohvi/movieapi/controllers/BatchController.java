@@ -0,0 +1,25 @@
+package com.koodjohvi.movieapi.controllers;
+
+import com.koodjohvi.movieapi.batch.BatchRequest;
+import com.koodjohvi.movieapi.batch.BatchResult;
+import com.koodjohvi.movieapi.batch.BatchService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/batch")
+public class BatchController {
+
+    private final BatchService batchService;
+
+    public BatchController(BatchService batchService) {
+        this.batchService = batchService;
+    }
+
+    // run several GET sub-requests in one read transaction, results keyed like the request (POST /api/batch)
+    @PostMapping
+    public Map<String, BatchResult> execute(@RequestBody BatchRequest request) {
+        return batchService.execute(request.requests());
+    }
+}
@@ -0,0 +1,36 @@
+package com.koodjohvi.movieapi.controllers;
+
+import com.koodjohvi.movieapi.changelog.ChangeLogService;
+import com.koodjohvi.movieapi.changelog.ChangePage;
+import com.koodjohvi.movieapi.changelog.ChangeStreamService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/changes")
+public class ChangeController {
+
+    private final ChangeLogService changeLogService;
+    private final ChangeStreamService changeStreamService;
+
+    public ChangeController(ChangeLogService changeLogService, ChangeStreamService changeStreamService) {
+        this.changeLogService = changeLogService;
+        this.changeStreamService = changeStreamService;
+    }
+
+    // page through changes by sequence number (GET /api/changes?after=0&limit=100)
+    @GetMapping
+    public ChangePage getChanges(@RequestParam(defaultValue = "0") long after,
+                                 @RequestParam(defaultValue = "100") int limit) {
+        return changeLogService.getChanges(after, limit);
+    }
+
+    // stream changes as Server-Sent Events (GET /api/changes/stream?after=0)
+    // reconnecting clients resume from the Last-Event-ID header
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(defaultValue = "0") long after,
+                                    @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        return changeStreamService.subscribe(lastEventId != null ? lastEventId : after);
+    }
+}
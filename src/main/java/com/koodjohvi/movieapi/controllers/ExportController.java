@@ -0,0 +1,41 @@
+package com.koodjohvi.movieapi.controllers;
+
+import com.koodjohvi.movieapi.export.ExportService;
+import com.koodjohvi.movieapi.export.ExportStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/exports")
+public class ExportController {
+
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    // get progress of the current export, the last outcome and the exports on disk (GET /api/admin/exports)
+    @GetMapping
+    public ExportStatus getStatus() {
+        return exportService.status();
+    }
+
+    // export the whole catalog in the background (POST /api/admin/exports)
+    @PostMapping
+    public ResponseEntity<?> startExport() {
+        if (!exportService.start()) {
+            return ResponseEntity.status(409).body("An export is already running");
+        }
+        return ResponseEntity.accepted().body(exportService.status());
+    }
+
+    // write the parts an interrupted export is missing (POST /api/admin/exports/{id}/resume)
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<?> resumeExport(@PathVariable String id) {
+        if (!exportService.resume(id)) {
+            return ResponseEntity.status(409).body("An export is already running");
+        }
+        return ResponseEntity.accepted().body(exportService.status());
+    }
+}
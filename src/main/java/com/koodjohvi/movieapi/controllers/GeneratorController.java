@@ -0,0 +1,35 @@
+package com.koodjohvi.movieapi.controllers;
+
+import com.koodjohvi.movieapi.generator.GeneratorSpec;
+import com.koodjohvi.movieapi.generator.GeneratorStatus;
+import com.koodjohvi.movieapi.generator.SyntheticCatalogService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/generator")
+public class GeneratorController {
+
+    private final SyntheticCatalogService catalogService;
+
+    public GeneratorController(SyntheticCatalogService catalogService) {
+        this.catalogService = catalogService;
+    }
+
+    // get progress of a running generation or the outcome of the last one (GET /api/admin/generator)
+    @GetMapping
+    public GeneratorStatus getStatus() {
+        return catalogService.status();
+    }
+
+    // append a synthetic catalog in the background (POST /api/admin/generator?movies=1000000&seed=7)
+    @PostMapping
+    public ResponseEntity<?> generate(@RequestParam Map<String, String> params) {
+        if (!catalogService.start(GeneratorSpec.of(params))) {
+            return ResponseEntity.status(409).body("A generation is already running");
+        }
+        return ResponseEntity.accepted().body(catalogService.status());
+    }
+}
@@ -0,0 +1,31 @@
+package com.koodjohvi.movieapi.controllers;
+
+import com.koodjohvi.movieapi.integrity.IntegrityChecker;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/integrity")
+public class IntegrityController {
+
+    private final IntegrityChecker integrityChecker;
+
+    public IntegrityController(IntegrityChecker integrityChecker) {
+        this.integrityChecker = integrityChecker;
+    }
+
+    // get whether a check is running and the last report (GET /api/admin/integrity)
+    @GetMapping
+    public ResponseEntity<?> getStatus() {
+        return ResponseEntity.ok(integrityChecker.status());
+    }
+
+    // start a check in the background, repairing what it can with repair=true (POST /api/admin/integrity?repair=false)
+    @PostMapping
+    public ResponseEntity<?> startCheck(@RequestParam(defaultValue = "false") boolean repair) {
+        if (!integrityChecker.start(repair)) {
+            return ResponseEntity.status(409).body("An integrity check is already running");
+        }
+        return ResponseEntity.accepted().body(integrityChecker.status());
+    }
+}
@@ -0,0 +1,60 @@
+package com.koodjohvi.movieapi.controllers;
+
+import com.koodjohvi.movieapi.profiling.JfrRecordingService;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/admin/jfr")
+public class JfrController {
+
+    private final JfrRecordingService recordingService;
+
+    public JfrController(JfrRecordingService recordingService) {
+        this.recordingService = recordingService;
+    }
+
+    // get the state, limits and size of the current recording (GET /api/admin/jfr)
+    @GetMapping
+    public ResponseEntity<?> getStatus() {
+        return ResponseEntity.ok(recordingService.status());
+    }
+
+    // start a bounded recording (POST /api/admin/jfr/start?durationSeconds=60&jdkEvents=false)
+    @PostMapping("/start")
+    public ResponseEntity<?> start(@RequestParam(required = false) Long durationSeconds,
+                                   @RequestParam(defaultValue = "false") boolean jdkEvents) {
+        if (!recordingService.start(durationSeconds, jdkEvents)) {
+            return ResponseEntity.status(409).body("A recording is already running");
+        }
+        return ResponseEntity.ok(recordingService.status());
+    }
+
+    // stop the running recording, keeping it for download (POST /api/admin/jfr/stop)
+    @PostMapping("/stop")
+    public ResponseEntity<?> stop() {
+        if (!recordingService.stop()) {
+            return ResponseEntity.status(409).body("No recording is running");
+        }
+        return ResponseEntity.ok(recordingService.status());
+    }
+
+    // download the recording so far, open with JDK Mission Control or `jfr print` (GET /api/admin/jfr/recording)
+    @GetMapping("/recording")
+    public ResponseEntity<?> download() throws IOException {
+        InputStream recording = recordingService.download();
+        if (recording == null) {
+            return ResponseEntity.status(404).body("No recording to download");
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"movieapi.jfr\"")
+                .body(new InputStreamResource(recording));
+    }
+}
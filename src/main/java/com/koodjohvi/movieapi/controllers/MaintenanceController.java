@@ -0,0 +1,32 @@
+package com.koodjohvi.movieapi.controllers;
+
+import com.koodjohvi.movieapi.maintenance.MaintenanceStatus;
+import com.koodjohvi.movieapi.maintenance.SqliteMaintenanceScheduler;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/maintenance")
+public class MaintenanceController {
+
+    private final SqliteMaintenanceScheduler maintenanceScheduler;
+
+    public MaintenanceController(SqliteMaintenanceScheduler maintenanceScheduler) {
+        this.maintenanceScheduler = maintenanceScheduler;
+    }
+
+    // get recent request rate, last run and its before/after query timings (GET /api/admin/maintenance)
+    @GetMapping
+    public MaintenanceStatus getStatus() {
+        return maintenanceScheduler.status();
+    }
+
+    // run a maintenance pass now, in the background (POST /api/admin/maintenance)
+    @PostMapping
+    public ResponseEntity<?> runNow() {
+        if (!maintenanceScheduler.start("manual")) {
+            return ResponseEntity.status(409).body("Maintenance is disabled or already running");
+        }
+        return ResponseEntity.accepted().body(maintenanceScheduler.status());
+    }
+}
@@ -2,18 +2,14 @@ package com.koodjohvi.movieapi.controllers;
 
 import com.koodjohvi.movieapi.entities.Actor;
 import com.koodjohvi.movieapi.entities.Movie;
-import com.koodjohvi.movieapi.exception.ResourceNotFoundException;
-import com.koodjohvi.movieapi.repositories.ActorRepository;
-import com.koodjohvi.movieapi.repositories.GenreRepository;
+import com.koodjohvi.movieapi.events.CatalogEntityType;
+import com.koodjohvi.movieapi.popularity.PopularityService;
 import com.koodjohvi.movieapi.services.MovieService;
-import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.util.List;
 
@@ -22,15 +18,11 @@ import java.util.List;
 @Validated
 public class MovieController {
     private final MovieService movieService;
-    private final GenreRepository genreRepository;
-    private final ActorRepository actorRepository;
+    private final PopularityService popularityService;
 
-    public MovieController(MovieService movieService,
-                           GenreRepository genreRepository,
-                           ActorRepository actorRepository) {
+    public MovieController(MovieService movieService, PopularityService popularityService) {
         this.movieService = movieService;
-        this.genreRepository = genreRepository;
-        this.actorRepository = actorRepository;
+        this.popularityService = popularityService;
     }
 
     // create movie (POST /api/movies)
@@ -40,7 +32,7 @@ public class MovieController {
         return ResponseEntity.status(201).body(saved);
     }
 
-    // get movies by filter(genre, year, actor, title) (GET /api/movies)
+    // get movies by filter(genre, year, actor, title) (GET /api/movies), most viewed first with sort=popularity,desc
     @GetMapping
     public ResponseEntity<?> getAllMovies(
             @RequestParam(required = false) Long genre,
@@ -49,55 +41,64 @@ public class MovieController {
             @RequestParam(required = false) String title,
             Pageable pageable
     ) {
-        try {
-            // Check if pagination is NOT requested (i.e., user didn't provide page/size)
-            boolean isUnpaginated = !isPaginationRequested();
+        // Check if pagination is NOT requested (i.e., user didn't provide page/size); bad values are a 400
+        boolean isUnpaginated = !Pagination.requested();
+        // a page sorted by popularity is ranked by the database; the unpaginated list is ranked here
+        boolean byPopularity = isUnpaginated && popularityService.isPopularitySort(pageable);
+        Pageable query = byPopularity ? popularityService.withoutPopularitySort(pageable) : pageable;
 
-            if (genre != null) {
-                // Validates genre exists first
-                if (!genreRepository.existsById(genre)) {
-                    throw new ResourceNotFoundException("Genre not found with id: " + genre);
-                }
-                return ResponseEntity.ok(movieService.getMoviesByGenre(genre, pageable, isUnpaginated));
-            } else if (year != null) {
-                return ResponseEntity.ok(movieService.getMoviesByYear(year, pageable, isUnpaginated));
-            } else if (actor != null) {
-                // Validates actor exists first
-                if (!actorRepository.existsById(actor)) {
-                    throw new ResourceNotFoundException("Actor not found with id: " + actor);
-                }
-                return ResponseEntity.ok(movieService.getMoviesByActor(actor, pageable, isUnpaginated));
-            } else if (title != null) {
-                return ResponseEntity.ok(movieService.getMoviesByTitleContainingIgnoreCase(title, pageable, isUnpaginated));
-            } else {
-                return ResponseEntity.ok(movieService.getAllMovies(pageable, isUnpaginated));
-            }
-        } catch (Exception e) {
-            if (e.getMessage() != null &&
-                    (e.getMessage().contains("Invalid page") || e.getMessage().contains("Invalid size"))) {
-                return ResponseEntity.badRequest().body("Invalid pagination parameters");
-            }
-            throw e;
+        // the genre and actor filters 404 from the service when the genre or actor does not exist
+        Object movies;
+        if (genre != null) {
+            movies = movieService.getMoviesByGenre(genre, query, isUnpaginated);
+        } else if (year != null) {
+            movies = movieService.getMoviesByYear(year, query, isUnpaginated);
+        } else if (actor != null) {
+            movies = movieService.getMoviesByActor(actor, query, isUnpaginated);
+        } else if (title != null) {
+            movies = movieService.getMoviesByTitleContainingIgnoreCase(title, query, isUnpaginated);
+        } else {
+            movies = movieService.getAllMovies(query, isUnpaginated);
         }
+        return ResponseEntity.ok(byPopularity ? byPopularity(movies, pageable) : movies);
     }
 
-    // Helper: detect if user explicitly asked for pagination
-    private boolean isPaginationRequested() {
-        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
-        return request.getParameter("page") != null || request.getParameter("size") != null;
+    @SuppressWarnings("unchecked")
+    private Object byPopularity(Object movies, Pageable pageable) {
+        return popularityService.sortByPopularity((List<Movie>) movies, Movie::getId, CatalogEntityType.MOVIE,
+                pageable);
     }
 
-    // search for movies (GET /api/movies/search?title=)
+    // search for movies (GET /api/movies/search?title=), or ranked typo-tolerant matches with fuzzy=true&limit=
+    // (sort=popularity,desc orders the non-fuzzy matches by views)
     @GetMapping("/search")
-    public Object searchMovies(@RequestParam String title, Pageable pageable) {
-        boolean isUnpaginated = !isPaginationRequested();
+    public Object searchMovies(@RequestParam String title,
+                               @RequestParam(defaultValue = "false") boolean fuzzy,
+                               @RequestParam(defaultValue = "10") int limit,
+                               Pageable pageable) {
+        if (fuzzy) {
+            return movieService.searchMoviesFuzzy(title, limit);
+        }
+        boolean isUnpaginated = !Pagination.requested();
+        if (isUnpaginated && popularityService.isPopularitySort(pageable)) {
+            return byPopularity(movieService.getMoviesByTitleContainingIgnoreCase(title,
+                    popularityService.withoutPopularitySort(pageable), true), pageable);
+        }
         return movieService.getMoviesByTitleContainingIgnoreCase(title, pageable, isUnpaginated);
     }
 
+    // get the most viewed movies, recent views weighing more (GET /api/movies/trending?limit=10)
+    @GetMapping("/trending")
+    public List<Movie> getTrendingMovies(@RequestParam(defaultValue = "10") int limit) {
+        return movieService.getTrendingMovies(limit);
+    }
+
     // get movie by ID (GET /api/movies/{id})
     @GetMapping("/{id}")
     public Movie getMovieById(@PathVariable Long id) {
-        return movieService.getMovieById(id);
+        Movie movie = movieService.getMovieById(id);
+        popularityService.recordView(CatalogEntityType.MOVIE, id);
+        return movie;
     }
 
     // get actors in movie by ID(GET /api/movies/{id}/actors)
@@ -107,6 +108,12 @@ public class MovieController {
         return ResponseEntity.ok(actors);
     }
 
+    // get movies most like this one by shared actors and genres (GET /api/movies/{id}/similar?limit=10)
+    @GetMapping("/{id}/similar")
+    public List<Movie> getSimilarMovies(@PathVariable Long id, @RequestParam(defaultValue = "10") int limit) {
+        return movieService.getSimilarMovies(id, limit);
+    }
+
     // update movie by ID(PATCH /api/movies/{id})
     @PatchMapping("/{id}")
     public ResponseEntity<Movie> updateMovie(@PathVariable Long id, @Valid @RequestBody Movie movie) {
@@ -0,0 +1,33 @@
+package com.koodjohvi.movieapi.controllers;
+
+import com.koodjohvi.movieapi.exception.InvalidPaginationException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+// Explicit page/size query parameters. The Pageable resolver quietly falls back to defaults for
+// malformed or negative values; list endpoints reject them with a 400 instead.
+final class Pagination {
+
+    private Pagination() {
+    }
+
+    // true if the client asked for a page (page or size given), after checking both are valid
+    static boolean requested() {
+        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
+        String page = request.getParameter("page");
+        String size = request.getParameter("size");
+        if (page != null && parse(page) < 0 || size != null && parse(size) < 1) {
+            throw InvalidPaginationException.INSTANCE;
+        }
+        return page != null || size != null;
+    }
+
+    private static int parse(String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw InvalidPaginationException.INSTANCE;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.koodjohvi.movieapi.controllers;
+
+import com.koodjohvi.movieapi.replication.ReplicaState;
+import com.koodjohvi.movieapi.replication.ReplicationStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/replication")
+public class ReplicationController {
+
+    private final ReplicaState replicaState;
+
+    public ReplicationController(ReplicaState replicaState) {
+        this.replicaState = replicaState;
+    }
+
+    // get role, applied sequence and replication lag of this node (GET /api/replication/status)
+    @GetMapping("/status")
+    public ReplicationStatus getStatus() {
+        return replicaState.status();
+    }
+}
@@ -0,0 +1,57 @@
+package com.koodjohvi.movieapi.controllers;
+
+import com.koodjohvi.movieapi.stats.CatalogStats;
+import com.koodjohvi.movieapi.stats.CatalogStatsService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/stats")
+public class StatsController {
+
+    private final CatalogStatsService statsService;
+
+    public StatsController(CatalogStatsService statsService) {
+        this.statsService = statsService;
+    }
+
+    // get all catalog statistics (GET /api/stats?topActors=10)
+    @GetMapping
+    public CatalogStats getStats(@RequestParam(defaultValue = "10") int topActors) {
+        return statsService.getStats(clampLimit(topActors));
+    }
+
+    // get movie count per release year (GET /api/stats/movies-per-year)
+    @GetMapping("/movies-per-year")
+    public List<CatalogStats.YearCount> getMoviesPerYear() {
+        return statsService.getStats(0).moviesPerYear();
+    }
+
+    // get movie count and average duration per genre (GET /api/stats/genres)
+    @GetMapping("/genres")
+    public List<CatalogStats.GenreStats> getGenreStats() {
+        return statsService.getStats(0).genreStats();
+    }
+
+    // get most prolific actors (GET /api/stats/actors/top?limit=10)
+    @GetMapping("/actors/top")
+    public List<CatalogStats.ActorStats> getTopActors(@RequestParam(defaultValue = "10") int limit) {
+        return statsService.getTopActors(clampLimit(limit));
+    }
+
+    // rebuild all statistics from the database (POST /api/stats/recompute)
+    @PostMapping("/recompute")
+    public ResponseEntity<CatalogStats> recompute() {
+        statsService.recompute();
+        return ResponseEntity.ok(statsService.getStats(10));
+    }
+
+    private int clampLimit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative");
+        }
+        return Math.min(limit, CatalogStatsService.MAX_TOP_ACTORS);
+    }
+}
@@ -0,0 +1,52 @@
+package com.koodjohvi.movieapi.controllers;
+
+import com.koodjohvi.movieapi.events.CatalogEntityType;
+import com.koodjohvi.movieapi.search.SuggestService;
+import com.koodjohvi.movieapi.search.SuggestTrie;
+import com.koodjohvi.movieapi.search.Suggestion;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/suggest")
+public class SuggestController {
+
+    private final SuggestService suggestService;
+
+    public SuggestController(SuggestService suggestService) {
+        this.suggestService = suggestService;
+    }
+
+    // typeahead over titles, actor names and genre names (GET /api/suggest?q=dar&types=movie,actor&limit=10)
+    @GetMapping
+    public List<Suggestion> suggest(@RequestParam String q,
+                                    @RequestParam(required = false) List<String> types,
+                                    @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > SuggestTrie.TOP_K) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + SuggestTrie.TOP_K);
+        }
+        return suggestService.suggest(q, parseTypes(types), limit);
+    }
+
+    private static Set<CatalogEntityType> parseTypes(List<String> types) {
+        if (types == null || types.isEmpty()) {
+            return EnumSet.allOf(CatalogEntityType.class);
+        }
+        Set<CatalogEntityType> parsed = EnumSet.noneOf(CatalogEntityType.class);
+        for (String type : types) {
+            try {
+                parsed.add(CatalogEntityType.valueOf(type.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown suggestion type: " + type);
+            }
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,26 @@
+package com.koodjohvi.movieapi.controllers;
+
+import com.koodjohvi.movieapi.sync.SyncResponse;
+import com.koodjohvi.movieapi.sync.SyncService;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/sync")
+public class SyncController {
+
+    private final SyncService syncService;
+
+    public SyncController(SyncService syncService) {
+        this.syncService = syncService;
+    }
+
+    // get entities changed or deleted since a sequence number (GET /api/sync?since=0&limit=1000)
+    // since=0 pages through the full catalog (pass back the returned cursor until it is null);
+    // afterwards pass the returned highWaterMark
+    @GetMapping
+    public SyncResponse sync(@RequestParam(defaultValue = "0") long since,
+                             @RequestParam(defaultValue = "1000") int limit,
+                             @RequestParam(required = false) String cursor) {
+        return syncService.sync(since, limit, cursor);
+    }
+}
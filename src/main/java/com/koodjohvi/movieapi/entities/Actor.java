@@ -10,7 +10,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 
 @Entity
-@Table(name = "actor")
+@Table(name = "actor", indexes = @Index(name = "idx_actor_mod_seq", columnList = "mod_seq"))
 public class Actor {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -29,6 +29,11 @@ public class Actor {
     @JsonIgnore
     private Set<Movie> movies = new HashSet<>();
 
+    // change log sequence of the latest change to this row, used by delta sync
+    @Column(name = "mod_seq")
+    @JsonIgnore
+    private Long modSeq;
+
     public Actor() {}
     public Actor(String name, LocalDate birthDate) {
         this.name = name;
@@ -67,6 +72,14 @@ public class Actor {
         this.movies = movies;
     }
 
+    public Long getModSeq() {
+        return this.modSeq;
+    }
+
+    public void setModSeq(Long modSeq) {
+        this.modSeq = modSeq;
+    }
+
     @Override
     public boolean equals(Object o){
         if(this == o) return true;
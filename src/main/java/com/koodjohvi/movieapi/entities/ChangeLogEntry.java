@@ -0,0 +1,79 @@
+package com.koodjohvi.movieapi.entities;
+
+import com.koodjohvi.movieapi.events.CatalogChangeType;
+import com.koodjohvi.movieapi.events.CatalogEntityType;
+import jakarta.persistence.*;
+
+// outbox row written in the same transaction as the catalog change it describes
+@Entity
+@Table(name = "change_log")
+public class ChangeLogEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CatalogEntityType entityType;
+
+    @Column(nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CatalogChangeType changeType;
+
+    // JSON of the entity after the change (before it, for deletes)
+    @Column(length = 65535)
+    private String payload;
+
+    // epoch millis
+    @Column(nullable = false)
+    private Long createdAt;
+
+    public ChangeLogEntry() {}
+    public ChangeLogEntry(CatalogEntityType entityType, Long entityId, CatalogChangeType changeType, String payload) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.changeType = changeType;
+        this.payload = payload;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    public Long getSeq() {
+        return this.seq;
+    }
+
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+
+    public CatalogEntityType getEntityType() {
+        return this.entityType;
+    }
+
+    public Long getEntityId() {
+        return this.entityId;
+    }
+
+    public CatalogChangeType getChangeType() {
+        return this.changeType;
+    }
+
+    public String getPayload() {
+        return this.payload;
+    }
+
+    public Long getCreatedAt() {
+        return this.createdAt;
+    }
+
+    public void setCreatedAt(Long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String toString() {
+        return "ChangeLogEntry{" + "seq=" + this.seq + ", entityType=" + this.entityType + ", entityId=" + this.entityId
+                + ", changeType=" + this.changeType + '}';
+    }
+}
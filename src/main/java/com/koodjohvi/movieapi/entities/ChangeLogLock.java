@@ -0,0 +1,27 @@
+package com.koodjohvi.movieapi.entities;
+
+import jakarta.persistence.*;
+
+// Single-row table whose update serializes change log appends on multi-writer engines,
+// so that sequence numbers are committed in order.
+@Entity
+@Table(name = "change_log_lock")
+public class ChangeLogLock {
+    @Id
+    private Long id;
+
+    private Long appends = 0L;
+
+    public ChangeLogLock() {}
+    public ChangeLogLock(Long id) {
+        this.id = id;
+    }
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public Long getAppends() {
+        return this.appends;
+    }
+}
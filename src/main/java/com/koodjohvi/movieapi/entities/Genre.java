@@ -11,7 +11,7 @@ import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
 @Entity
-@Table(name = "genre")
+@Table(name = "genre", indexes = @Index(name = "idx_genre_mod_seq", columnList = "mod_seq"))
 public class Genre {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -27,6 +27,11 @@ public class Genre {
     @JsonIgnore
     private Set<Movie> movies = new HashSet<>();
 
+    // change log sequence of the latest change to this row, used by delta sync
+    @Column(name = "mod_seq")
+    @JsonIgnore
+    private Long modSeq;
+
     public Genre() {}
     public Genre(String name) {
         this.name = name;
@@ -56,6 +61,14 @@ public class Genre {
         this.movies = movies;
     }
 
+    public Long getModSeq() {
+        return this.modSeq;
+    }
+
+    public void setModSeq(Long modSeq) {
+        this.modSeq = modSeq;
+    }
+
     @Override
     public boolean equals(Object o){
         if(this == o) return true;
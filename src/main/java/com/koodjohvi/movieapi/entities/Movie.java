@@ -3,11 +3,12 @@ package com.koodjohvi.movieapi.entities;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 
 @Entity
-@Table(name = "movie")
+@Table(name = "movie", indexes = @Index(name = "idx_movie_mod_seq", columnList = "mod_seq"))
 public class Movie {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -45,6 +46,11 @@ public class Movie {
     )
     private Set<Actor> actors =  new HashSet<>();
 
+    // change log sequence of the latest change to this row, used by delta sync
+    @Column(name = "mod_seq")
+    @JsonIgnore
+    private Long modSeq;
+
     public Movie() {}
     public Movie(String title, Integer releaseYear, Integer duration) {
         this.title = title;
@@ -100,6 +106,14 @@ public class Movie {
         this.actors = actors;
     }
 
+    public Long getModSeq() {
+        return this.modSeq;
+    }
+
+    public void setModSeq(Long modSeq) {
+        this.modSeq = modSeq;
+    }
+
     @Override
     public boolean equals(Object o){
         if(this == o) return true;
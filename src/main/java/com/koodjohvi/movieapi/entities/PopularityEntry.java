@@ -0,0 +1,71 @@
+package com.koodjohvi.movieapi.entities;
+
+import com.koodjohvi.movieapi.events.CatalogEntityType;
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+// View count and forward-decayed popularity of a movie or actor. Written in batches by
+// PopularityService; log_score is ln(sum over views of e^(lambda * view time)), so it only
+// grows and orders entities the same way as their decayed view counts at any moment.
+@Entity
+@Table(name = "popularity")
+@IdClass(PopularityEntry.Key.class)
+public class PopularityEntry {
+    @Id
+    @Enumerated(EnumType.STRING)
+    private CatalogEntityType entityType;
+
+    @Id
+    private Long entityId;
+
+    @Column(nullable = false)
+    private Long views;
+
+    @Column(nullable = false)
+    private Double logScore;
+
+    // epoch millis of the last flush that changed this row
+    @Column(nullable = false)
+    private Long updatedAt;
+
+    public PopularityEntry() {}
+
+    public CatalogEntityType getEntityType() {
+        return this.entityType;
+    }
+
+    public Long getEntityId() {
+        return this.entityId;
+    }
+
+    public Long getViews() {
+        return this.views;
+    }
+
+    public Double getLogScore() {
+        return this.logScore;
+    }
+
+    public Long getUpdatedAt() {
+        return this.updatedAt;
+    }
+
+    public static class Key implements Serializable {
+        private CatalogEntityType entityType;
+        private Long entityId;
+
+        public Key() {}
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && entityType == key.entityType && Objects.equals(entityId, key.entityId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(entityType, entityId);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.koodjohvi.movieapi.events;
+
+import com.koodjohvi.movieapi.entities.Actor;
+
+import java.time.LocalDate;
+
+public record ActorSnapshot(Long id, String name, LocalDate birthDate) implements CatalogSnapshot {
+
+    public static ActorSnapshot of(Actor actor) {
+        return new ActorSnapshot(actor.getId(), actor.getName(), actor.getBirthDate());
+    }
+
+    @Override
+    public CatalogEntityType entityType() {
+        return CatalogEntityType.ACTOR;
+    }
+}
@@ -0,0 +1,5 @@
+package com.koodjohvi.movieapi.events;
+
+// published after rows were changed outside the services (integrity repairs, bulk loads), with
+// no per-entity events; listeners that keep derived state rebuild it from the database
+public record CatalogBulkChangeEvent(String source) {}
@@ -0,0 +1,24 @@
+package com.koodjohvi.movieapi.events;
+
+// published by the services for every create, update and delete
+// listeners that keep derived state should use @TransactionalEventListener so they only see committed changes
+public record CatalogChangeEvent(CatalogEntityType entityType, CatalogChangeType changeType, Long entityId,
+                                 CatalogSnapshot before, CatalogSnapshot after) {
+
+    public static CatalogChangeEvent created(CatalogSnapshot after) {
+        return new CatalogChangeEvent(after.entityType(), CatalogChangeType.CREATED, after.id(), null, after);
+    }
+
+    public static CatalogChangeEvent updated(CatalogSnapshot before, CatalogSnapshot after) {
+        return new CatalogChangeEvent(after.entityType(), CatalogChangeType.UPDATED, after.id(), before, after);
+    }
+
+    public static CatalogChangeEvent deleted(CatalogSnapshot before) {
+        return new CatalogChangeEvent(before.entityType(), CatalogChangeType.DELETED, before.id(), before, null);
+    }
+
+    public static CatalogChangeEvent relationshipsCleared(CatalogEntityType entityType, Long id, String joinTable) {
+        return new CatalogChangeEvent(entityType, CatalogChangeType.RELATIONSHIPS_CLEARED, id, null,
+                new ClearedRelationships(entityType, id, joinTable));
+    }
+}
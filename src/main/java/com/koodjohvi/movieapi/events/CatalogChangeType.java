@@ -0,0 +1,13 @@
+package com.koodjohvi.movieapi.events;
+
+public enum CatalogChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    // join rows removed by a native clear*Relationships query during a force-delete
+    RELATIONSHIPS_CLEARED,
+    // rows written in bulk outside the services (the synthetic generator); the payload names the id
+    // ranges, the rows carry this entry's sequence as mod_seq. Sync clients re-snapshot from it;
+    // followers cannot replay it and stop until they are re-copied from the leader
+    BULK_LOADED
+}
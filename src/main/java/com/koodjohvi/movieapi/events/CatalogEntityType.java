@@ -0,0 +1,7 @@
+package com.koodjohvi.movieapi.events;
+
+public enum CatalogEntityType {
+    MOVIE,
+    ACTOR,
+    GENRE
+}
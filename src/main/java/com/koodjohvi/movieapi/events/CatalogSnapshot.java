@@ -0,0 +1,7 @@
+package com.koodjohvi.movieapi.events;
+
+// immutable copy of an entity's state, taken inside the service transaction
+public sealed interface CatalogSnapshot permits MovieSnapshot, ActorSnapshot, GenreSnapshot, ClearedRelationships {
+    Long id();
+    CatalogEntityType entityType();
+}
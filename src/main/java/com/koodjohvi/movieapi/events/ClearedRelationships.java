@@ -0,0 +1,5 @@
+package com.koodjohvi.movieapi.events;
+
+// which join table rows were removed, and for which entity
+public record ClearedRelationships(CatalogEntityType entityType, Long id, String joinTable) implements CatalogSnapshot {
+}
@@ -0,0 +1,15 @@
+package com.koodjohvi.movieapi.events;
+
+import com.koodjohvi.movieapi.entities.Genre;
+
+public record GenreSnapshot(Long id, String name) implements CatalogSnapshot {
+
+    public static GenreSnapshot of(Genre genre) {
+        return new GenreSnapshot(genre.getId(), genre.getName());
+    }
+
+    @Override
+    public CatalogEntityType entityType() {
+        return CatalogEntityType.GENRE;
+    }
+}
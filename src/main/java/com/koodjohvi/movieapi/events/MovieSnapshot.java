@@ -0,0 +1,26 @@
+package com.koodjohvi.movieapi.events;
+
+import com.koodjohvi.movieapi.entities.Actor;
+import com.koodjohvi.movieapi.entities.Genre;
+import com.koodjohvi.movieapi.entities.Movie;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public record MovieSnapshot(Long id, String title, Integer releaseYear, Integer duration,
+                            Set<Long> genreIds, Set<Long> actorIds) implements CatalogSnapshot {
+
+    public static MovieSnapshot of(Movie movie) {
+        Set<Long> genreIds = movie.getGenres() == null ? Set.of()
+                : movie.getGenres().stream().map(Genre::getId).collect(Collectors.toUnmodifiableSet());
+        Set<Long> actorIds = movie.getActors() == null ? Set.of()
+                : movie.getActors().stream().map(Actor::getId).collect(Collectors.toUnmodifiableSet());
+        return new MovieSnapshot(movie.getId(), movie.getTitle(), movie.getReleaseYear(), movie.getDuration(),
+                genreIds, actorIds);
+    }
+
+    @Override
+    public CatalogEntityType entityType() {
+        return CatalogEntityType.MOVIE;
+    }
+}
@@ -1,7 +1,8 @@
 package com.koodjohvi.movieapi.exception;
 
+// stackless, like ResourceNotFoundException: always answered with a 400
 public class DeletionNotAllowedException extends RuntimeException {
     public DeletionNotAllowedException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -28,6 +28,12 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
     }
 
+    // Handle malformed page/size parameters (400)
+    @ExceptionHandler(InvalidPaginationException.class)
+    public ResponseEntity<String> handleInvalidPagination(InvalidPaginationException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
     // Handle validation errors like @NotBlank, @NotNull, etc. (400)
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidationExceptions(MethodArgumentNotValidException ex) {
@@ -0,0 +1,12 @@
+package com.koodjohvi.movieapi.exception;
+
+// malformed page or size query parameter; the 400 body never varies, so one stackless
+// instance is shared
+public class InvalidPaginationException extends RuntimeException {
+
+    public static final InvalidPaginationException INSTANCE = new InvalidPaginationException();
+
+    private InvalidPaginationException() {
+        super("Invalid pagination parameters", null, false, false);
+    }
+}
@@ -1,7 +1,9 @@
 package com.koodjohvi.movieapi.exception;
 
+// stackless: a miss is an expected outcome mapped to a 404, and bad-id traffic would otherwise
+// pay for a stack walk on every request
 public class ResourceNotFoundException extends RuntimeException {
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
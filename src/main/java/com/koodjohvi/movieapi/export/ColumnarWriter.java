@@ -0,0 +1,95 @@
+package com.koodjohvi.movieapi.export;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.List;
+
+// Buffers one part column by column and writes it as a gzipped "mcol" file:
+//
+//   "MCOL" version(1) rowCount(varint) columnCount(varint)
+//   per column: name(string) type(byte, ExportColumn.Type ordinal) length(varint) block
+//
+// A block is a null bitmap (rowCount bits, LSB first) followed by the non-null values:
+// LONG, INT and DATE (epoch day) as zigzag varint deltas from the previous value, STRING as
+// varint length plus UTF-8. Sorted ids and years shrink to a byte or two per row before gzip.
+class ColumnarWriter {
+
+    static final String FORMAT = "mcol-1 (gzip; per column: null bitmap, zigzag varint deltas or length-prefixed UTF-8)";
+
+    private final List<ExportColumn> columns;
+    private final Column[] buffers;
+    private int rows;
+
+    ColumnarWriter(List<ExportColumn> columns) {
+        this.columns = columns;
+        this.buffers = new Column[columns.size()];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = new Column();
+        }
+    }
+
+    // values in column order: Long for LONG, INT and DATE (epoch day), String for STRING, null allowed
+    void addRow(Object[] values) {
+        for (int i = 0; i < buffers.length; i++) {
+            Column column = buffers[i];
+            column.nulls.set(rows, values[i] == null);
+            if (values[i] == null) {
+                continue;
+            }
+            if (columns.get(i).type() == ExportColumn.Type.STRING) {
+                byte[] bytes = ((String) values[i]).getBytes(StandardCharsets.UTF_8);
+                writeVarint(column.values, bytes.length);
+                column.values.writeBytes(bytes);
+            } else {
+                long value = (Long) values[i];
+                long delta = value - column.previous;
+                writeVarint(column.values, (delta << 1) ^ (delta >> 63));
+                column.previous = value;
+            }
+        }
+        rows++;
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeBytes("MCOL");
+        data.writeByte(1);
+        writeVarint(data, rows);
+        writeVarint(data, columns.size());
+        for (int i = 0; i < buffers.length; i++) {
+            byte[] name = columns.get(i).name().getBytes(StandardCharsets.UTF_8);
+            writeVarint(data, name.length);
+            data.write(name);
+            data.writeByte(columns.get(i).type().ordinal());
+            byte[] bitmap = buffers[i].nulls.toByteArray();
+            byte[] block = new byte[(rows + 7) / 8];
+            System.arraycopy(bitmap, 0, block, 0, bitmap.length);
+            writeVarint(data, block.length + buffers[i].values.size());
+            data.write(block);
+            buffers[i].values.writeTo(data);
+        }
+        data.flush();
+    }
+
+    private static void writeVarint(OutputStream out, long value) {
+        try {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Column {
+        final BitSet nulls = new BitSet();
+        final ByteArrayOutputStream values = new ByteArrayOutputStream();
+        long previous;
+    }
+}
@@ -0,0 +1,12 @@
+package com.koodjohvi.movieapi.export;
+
+public record ExportColumn(String name, Type type) {
+
+    public enum Type {
+        LONG, INT, STRING, DATE
+    }
+
+    static ExportColumn of(String name, Type type) {
+        return new ExportColumn(name, type);
+    }
+}
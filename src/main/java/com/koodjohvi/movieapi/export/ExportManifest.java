@@ -0,0 +1,17 @@
+package com.koodjohvi.movieapi.export;
+
+import java.util.List;
+
+// manifest.json of an export directory: the schema, the fixed plan of parts and which of them
+// are written, so an interrupted export resumes with the parts still missing
+public record ExportManifest(String jobId, long createdAt, String columnarFormat, List<ExportTable> tables,
+                             List<ExportPart> parts) {
+
+    long partsDone() {
+        return parts.stream().filter(ExportPart::done).count();
+    }
+
+    boolean complete() {
+        return partsDone() == parts.size();
+    }
+}
@@ -0,0 +1,18 @@
+package com.koodjohvi.movieapi.export;
+
+// rows with fromId <= key < toId of one table; rows and the byte counts are null until written
+public record ExportPart(String table, int index, long fromId, long toId, Long rows, Long csvBytes,
+                         Long columnarBytes) {
+
+    boolean done() {
+        return rows != null;
+    }
+
+    String fileName() {
+        return String.format("part-%05d", index);
+    }
+
+    ExportPart completed(long rows, long csvBytes, long columnarBytes) {
+        return new ExportPart(table, index, fromId, toId, rows, csvBytes, columnarBytes);
+    }
+}
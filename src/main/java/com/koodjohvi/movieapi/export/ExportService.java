@@ -0,0 +1,403 @@
+package com.koodjohvi.movieapi.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.koodjohvi.movieapi.admission.BackgroundThrottle;
+import com.koodjohvi.movieapi.exception.ResourceNotFoundException;
+import com.koodjohvi.movieapi.storage.CatalogStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sqlite.SQLiteConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+// Full-catalog export for analytics, off the request path. The id space of each table is cut
+// into fixed ranges when the export is planned; export.threads workers, each on its own
+// read-only connection outside the application pool, take ranges from a queue and write each as
+// a CSV part and a gzipped columnar part. A part is written to a temp file, renamed, then
+// recorded in manifest.json, so a resumed export only redoes the parts that were missing.
+// Workers read in separate transactions: the export is consistent per part, not as a whole.
+@Service
+public class ExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportService.class);
+
+    private static final String MANIFEST = "manifest.json";
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final ObjectMapper objectMapper;
+    private final BackgroundThrottle throttle;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final boolean sqlite;
+    private final boolean sharded;
+    private final Path directory;
+    private final int threads;
+    private final int chunkSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile ExportManifest manifest;
+    private volatile Long startedAt;
+    private volatile Long finishedAt;
+    private volatile String lastError;
+
+    public ExportService(ObjectMapper objectMapper, BackgroundThrottle throttle,
+                         @Value("${spring.datasource.url}") String url,
+                         @Value("${spring.datasource.username:}") String username,
+                         @Value("${spring.datasource.password:}") String password,
+                         @Value("${catalog.storage:sqlite}") String storage,
+                         @Value("${sharding.enabled:false}") boolean sharded,
+                         @Value("${export.directory:./exports}") String directory,
+                         @Value("${export.threads:4}") int threads,
+                         @Value("${export.chunk-size:50000}") int chunkSize) {
+        if (threads < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("export.threads and export.chunk-size must be positive");
+        }
+        this.objectMapper = objectMapper;
+        this.throttle = throttle;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.sqlite = CatalogStorage.of(storage) == CatalogStorage.SQLITE;
+        this.sharded = sharded;
+        this.directory = Path.of(directory);
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    public ExportStatus status() {
+        ExportManifest current = manifest;
+        Map<String, Long> rows = new LinkedHashMap<>();
+        long bytes = 0;
+        if (current != null) {
+            for (ExportPart part : current.parts()) {
+                if (part.done()) {
+                    rows.merge(part.table(), part.rows(), Long::sum);
+                    bytes += part.csvBytes() + part.columnarBytes();
+                }
+            }
+        }
+        return new ExportStatus(running.get(), current == null ? null : current.jobId(),
+                current == null ? 0 : current.partsDone(), current == null ? 0 : current.parts().size(),
+                rows, bytes, startedAt, finishedAt, lastError, listJobs());
+    }
+
+    // plans a new export and runs it in the background; false if an export is already running
+    public boolean start() {
+        checkAvailable();
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            String jobId = LocalDateTime.now().format(STAMP);
+            Files.createDirectories(directory.resolve(jobId));
+            ExportManifest planned = plan(jobId);
+            writeManifest(planned);
+            launch(planned);
+            return true;
+        } catch (IOException | SQLException | RuntimeException e) {
+            running.set(false);
+            throw new IllegalStateException("Could not plan the export: " + e.getMessage(), e);
+        }
+    }
+
+    // continues an interrupted export with the parts its manifest does not list as written
+    public boolean resume(String jobId) {
+        checkAvailable();
+        Path file = jobDirectory(jobId).resolve(MANIFEST);
+        if (!Files.isRegularFile(file)) {
+            throw new ResourceNotFoundException("No export found with ID: " + jobId);
+        }
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            ExportManifest existing = objectMapper.readValue(file.toFile(), ExportManifest.class);
+            if (existing.complete()) {
+                throw new IllegalArgumentException("Export " + jobId + " is already complete");
+            }
+            launch(existing);
+            return true;
+        } catch (IOException e) {
+            running.set(false);
+            throw new IllegalStateException("Could not read the export manifest: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    private void checkAvailable() {
+        if (sharded) {
+            // movies live in the shard files
+            throw new IllegalArgumentException("Exports are not available in sharded mode");
+        }
+    }
+
+    private Path jobDirectory(String jobId) {
+        if (!jobId.matches("[0-9-]+")) {
+            throw new IllegalArgumentException("Invalid export ID: " + jobId);
+        }
+        return directory.resolve(jobId);
+    }
+
+    private ExportManifest plan(String jobId) throws SQLException {
+        Map<String, long[]> idRanges = new HashMap<>();
+        try (Connection connection = openReadOnly();
+             Statement statement = connection.createStatement()) {
+            for (String table : List.of("movie", "actor", "genre")) {
+                try (ResultSet rs = statement.executeQuery("SELECT MIN(id), MAX(id) FROM " + table)) {
+                    rs.next();
+                    idRanges.put(table, new long[] {rs.getLong(1), rs.getLong(2)});
+                }
+            }
+        }
+        List<ExportPart> parts = new ArrayList<>();
+        for (ExportTable table : ExportTable.ALL) {
+            long[] range = idRanges.get(table.rangeTable());
+            int index = 0;
+            // ids from MIN to MAX at planning time; rows inserted later with higher ids are not part of this export
+            for (long from = range[0]; from <= range[1] && range[1] > 0; from += chunkSize) {
+                parts.add(new ExportPart(table.name(), index++, from, Math.min(from + chunkSize, range[1] + 1),
+                        null, null, null));
+            }
+        }
+        return new ExportManifest(jobId, System.currentTimeMillis(), ColumnarWriter.FORMAT, ExportTable.ALL, parts);
+    }
+
+    private void launch(ExportManifest planned) {
+        manifest = planned;
+        startedAt = System.currentTimeMillis();
+        finishedAt = null;
+        lastError = null;
+        Thread coordinator = new Thread(() -> {
+            try {
+                export(planned);
+                log.info("Export {} finished: {} parts in {}", planned.jobId(), manifest.parts().size(),
+                        jobDirectory(planned.jobId()));
+            } catch (RuntimeException | SQLException | IOException e) {
+                lastError = e.getMessage();
+                log.error("Export {} failed; resume it with POST /api/admin/exports/{}/resume", planned.jobId(),
+                        planned.jobId(), e);
+            } catch (InterruptedException e) {
+                lastError = "Interrupted";
+                Thread.currentThread().interrupt();
+            } finally {
+                finishedAt = System.currentTimeMillis();
+                running.set(false);
+            }
+        }, "catalog-export");
+        coordinator.setDaemon(true);
+        coordinator.start();
+    }
+
+    private void export(ExportManifest planned) throws SQLException, IOException, InterruptedException {
+        Path root = jobDirectory(planned.jobId());
+        Map<String, ExportTable> tables = new HashMap<>();
+        for (ExportTable table : planned.tables()) {
+            tables.put(table.name(), table);
+            Files.createDirectories(root.resolve("csv").resolve(table.name()));
+            Files.createDirectories(root.resolve("columnar").resolve(table.name()));
+        }
+        Queue<ExportPart> pending = new ConcurrentLinkedQueue<>(
+                planned.parts().stream().filter(part -> !part.done()).toList());
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Thread> workers = new ArrayList<>();
+        Exception[] firstError = new Exception[1];
+        for (int t = 0; t < Math.min(threads, Math.max(1, pending.size())); t++) {
+            Thread worker = new Thread(() -> {
+                try (Connection connection = openReadOnly()) {
+                    ExportPart part;
+                    while (!failed.get() && (part = pending.poll()) != null) {
+                        completed(exportPart(connection, tables.get(part.table()), part, root));
+                        throttle.pause();
+                    }
+                } catch (Exception e) {
+                    synchronized (firstError) {
+                        if (firstError[0] == null) {
+                            firstError[0] = e;
+                        }
+                    }
+                    failed.set(true);
+                }
+            }, "catalog-export-" + t);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        Exception error = firstError[0];
+        if (error instanceof SQLException sql) {
+            throw sql;
+        }
+        if (error instanceof IOException io) {
+            throw io;
+        }
+        if (error instanceof InterruptedException interrupted) {
+            throw interrupted;
+        }
+        if (error != null) {
+            throw (RuntimeException) error;
+        }
+    }
+
+    private ExportPart exportPart(Connection connection, ExportTable table, ExportPart part, Path root)
+            throws SQLException, IOException {
+        Path csv = root.resolve("csv").resolve(table.name()).resolve(part.fileName() + ".csv");
+        Path columnar = root.resolve("columnar").resolve(table.name()).resolve(part.fileName() + ".mcol.gz");
+        Path csvTemp = csv.resolveSibling(csv.getFileName() + ".tmp");
+        Path columnarTemp = columnar.resolveSibling(columnar.getFileName() + ".tmp");
+        List<ExportColumn> columns = table.columns();
+        ColumnarWriter columnarWriter = new ColumnarWriter(columns);
+        long rows = 0;
+
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(csvTemp), StandardCharsets.UTF_8), 1 << 16);
+             PreparedStatement statement = connection.prepareStatement(table.rangeQuery())) {
+            out.write(String.join(",", columns.stream().map(ExportColumn::name).toList()));
+            out.write('\n');
+            statement.setLong(1, part.fromId());
+            statement.setLong(2, part.toId());
+            statement.setFetchSize(1000);
+            Object[] values = new Object[columns.size()];
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = read(rs, i + 1, columns.get(i).type());
+                        if (i > 0) {
+                            out.write(',');
+                        }
+                        writeCsvValue(out, values[i], columns.get(i).type());
+                    }
+                    out.write('\n');
+                    columnarWriter.addRow(values);
+                    rows++;
+                }
+            }
+        }
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(columnarTemp), 1 << 16)) {
+            columnarWriter.writeTo(out);
+        }
+        Files.move(csvTemp, csv, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        Files.move(columnarTemp, columnar, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return part.completed(rows, Files.size(csv), Files.size(columnar));
+    }
+
+    // LONG, INT and DATE (as epoch day) come back as Long, STRING as String
+    private static Object read(ResultSet rs, int index, ExportColumn.Type type) throws SQLException {
+        return switch (type) {
+            case STRING -> rs.getString(index);
+            case DATE -> {
+                Date date = rs.getDate(index);
+                yield date == null ? null : date.toLocalDate().toEpochDay();
+            }
+            default -> {
+                long value = rs.getLong(index);
+                yield rs.wasNull() ? null : value;
+            }
+        };
+    }
+
+    private static void writeCsvValue(Writer out, Object value, ExportColumn.Type type) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (type == ExportColumn.Type.DATE) {
+            out.write(LocalDate.ofEpochDay((Long) value).toString());
+        } else if (type == ExportColumn.Type.STRING) {
+            String text = (String) value;
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                out.write('"');
+                out.write(text.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(text);
+            }
+        } else {
+            out.write(value.toString());
+        }
+    }
+
+    // records a written part in the manifest; the manifest file is replaced atomically
+    private synchronized void completed(ExportPart part) throws IOException {
+        List<ExportPart> parts = new ArrayList<>(manifest.parts());
+        for (int i = 0; i < parts.size(); i++) {
+            ExportPart existing = parts.get(i);
+            if (existing.table().equals(part.table()) && existing.index() == part.index()) {
+                parts.set(i, part);
+            }
+        }
+        ExportManifest updated = new ExportManifest(manifest.jobId(), manifest.createdAt(), manifest.columnarFormat(),
+                manifest.tables(), List.copyOf(parts));
+        writeManifest(updated);
+        manifest = updated;
+    }
+
+    private void writeManifest(ExportManifest updated) throws IOException {
+        Path file = jobDirectory(updated.jobId()).resolve(MANIFEST);
+        Path temp = file.resolveSibling(MANIFEST + ".tmp");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), updated);
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // a connection of its own, so a long export never holds one of the request pool's
+    private Connection openReadOnly() throws SQLException {
+        Properties properties = sqlite ? readOnlySqlite() : new Properties();
+        if (!username.isEmpty()) {
+            properties.setProperty("user", username);
+            properties.setProperty("password", password);
+        }
+        Connection connection = DriverManager.getConnection(url, properties);
+        if (!sqlite) {
+            connection.setReadOnly(true);
+        }
+        return connection;
+    }
+
+    private static Properties readOnlySqlite() {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setReadOnly(true);
+        config.setBusyTimeout(5000);
+        return config.toProperties();
+    }
+
+    private List<String> listJobs() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> Files.isRegularFile(p.resolve(MANIFEST)))
+                    .map(p -> p.getFileName().toString())
+                    .sorted(Comparator.reverseOrder())
+                    .toList();
+        } catch (IOException e) {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.koodjohvi.movieapi.export;
+
+import java.util.List;
+import java.util.Map;
+
+// the current export, or the last one when idle; jobs are the export directories on disk
+public record ExportStatus(boolean running, String jobId, long partsDone, long partsTotal, Map<String, Long> rows,
+                           long bytes, Long startedAt, Long finishedAt, String error, List<String> jobs) {}
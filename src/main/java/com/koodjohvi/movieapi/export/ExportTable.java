@@ -0,0 +1,31 @@
+package com.koodjohvi.movieapi.export;
+
+import com.koodjohvi.movieapi.export.ExportColumn.Type;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+// One exported table. Parts are ranges of keyColumn over the ids of rangeTable, so the link
+// tables are cut along the same movie id ranges as the movies.
+public record ExportTable(String name, String keyColumn, String rangeTable, List<ExportColumn> columns) {
+
+    static final List<ExportTable> ALL = List.of(
+            new ExportTable("movie", "id", "movie", List.of(ExportColumn.of("id", Type.LONG),
+                    ExportColumn.of("title", Type.STRING), ExportColumn.of("release_year", Type.INT),
+                    ExportColumn.of("duration", Type.INT))),
+            new ExportTable("actor", "id", "actor", List.of(ExportColumn.of("id", Type.LONG),
+                    ExportColumn.of("name", Type.STRING), ExportColumn.of("birth_date", Type.DATE))),
+            new ExportTable("genre", "id", "genre", List.of(ExportColumn.of("id", Type.LONG),
+                    ExportColumn.of("name", Type.STRING))),
+            new ExportTable("movie_genres", "movie_id", "movie", List.of(ExportColumn.of("movie_id", Type.LONG),
+                    ExportColumn.of("genre_id", Type.LONG))),
+            new ExportTable("movie_actors", "movie_id", "movie", List.of(ExportColumn.of("movie_id", Type.LONG),
+                    ExportColumn.of("actor_id", Type.LONG))));
+
+    // in primary key order, which is how the rows are read from the index
+    String rangeQuery() {
+        String names = columns.stream().map(ExportColumn::name).collect(Collectors.joining(", "));
+        String order = keyColumn.equals("id") ? "id" : names;
+        return "SELECT " + names + " FROM " + name + " WHERE " + keyColumn + " >= ? AND " + keyColumn + " < ? ORDER BY " + order;
+    }
+}
@@ -0,0 +1,518 @@
+package com.koodjohvi.movieapi.generator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+// Seeded synthetic catalog, appended after the current max ids. The id ranges are reserved up
+// front by a placeholder row at the top id of each, committed before generation starts, so
+// inserts from elsewhere take ids above the range while it is being filled; the chunk holding
+// the top id replaces its placeholder. Rows are generated in chunks
+// on `threads` threads, each chunk from its own random stream (seed, kind, chunk index), so the
+// output does not depend on scheduling. Writers take finished chunks from a bounded queue and
+// insert each with batched prepared statements in one transaction: a single writer for SQLite,
+// whose file lock would serialize them anyway, several for engines with concurrent writers.
+public class CatalogGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogGenerator.class);
+
+    @FunctionalInterface
+    public interface ConnectionSource {
+        Connection get() throws SQLException;
+    }
+
+    private static final List<String> GENRE_NAMES = List.of("Drama", "Comedy", "Action", "Thriller", "Romance",
+            "Horror", "Documentary", "Adventure", "Crime", "Science Fiction", "Animation", "Family", "Fantasy",
+            "Mystery", "War", "History", "Music", "Western", "Biography", "Sport");
+    private static final String[] ADJECTIVES = {"Silent", "Last", "Broken", "Golden", "Hidden", "Lost", "Dark",
+            "Endless", "Crimson", "Frozen", "Wild", "Secret", "Burning", "Distant", "Final", "Hollow", "Iron",
+            "Midnight", "Restless", "Scarlet", "Shattered", "Silver", "Stolen", "Velvet", "Wandering", "Quiet",
+            "Savage", "Electric", "Fading", "Northern"};
+    private static final String[] NOUNS = {"River", "Kingdom", "Promise", "Garden", "Horizon", "Empire", "Shadow",
+            "Summer", "Station", "Letter", "Island", "Voyage", "Harbor", "Signal", "Frontier", "Mirror", "Orchard",
+            "Storm", "Crown", "Road", "Winter", "Machine", "Witness", "Tide", "Canyon", "Lantern", "Republic",
+            "Circus", "Engine", "Heart", "Valley", "Verdict", "Memory", "Desert", "Symphony", "Harvest"};
+    private static final String[] SUFFIXES = {"", "", "", "", " II", " III", " Returns", " Reborn", ": The Beginning",
+            ": Redemption", " of the North", " in the Dark"};
+    private static final String[] FIRST_NAMES = {"James", "Mary", "John", "Patricia", "Robert", "Jennifer",
+            "Michael", "Linda", "David", "Elizabeth", "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica",
+            "Thomas", "Sarah", "Charles", "Karen", "Daniel", "Nancy", "Matthew", "Lisa", "Anthony", "Betty", "Mark",
+            "Sandra", "Paul", "Ashley", "Steven", "Emily", "Andrew", "Olivia", "Kenneth", "Chloe", "Joshua", "Maria",
+            "Kevin", "Laura", "Brian", "Amelia", "Oskar", "Liisa", "Mateo", "Ingrid", "Kenji", "Amara"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia",
+            "Miller", "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Wilson", "Anderson", "Thomas",
+            "Taylor", "Moore", "Jackson", "Martin", "Lee", "Thompson", "White", "Harris", "Clark", "Lewis",
+            "Robinson", "Walker", "Young", "Allen", "King", "Wright", "Scott", "Green", "Baker", "Adams", "Nelson",
+            "Hill", "Campbell", "Mitchell", "Carter", "Virtanen", "Korhonen", "Tanaka", "Okafor", "Dubois",
+            "Rossi", "Novak", "O'Brien", "Van der Berg", "Lindqvist"};
+    private static final String[] NAME_SUFFIXES = {"", "", "", "", "", "", "", "", " Jr.", " Sr."};
+    private static final String PLACEHOLDER = "(reserved by the catalog generator)";
+
+    private final GeneratorSpec spec;
+    private final ConnectionSource connections;
+    private final int writers;
+    private final boolean fastPragmas;
+    private final Runnable afterChunk;
+
+    private final AtomicLong moviesWritten = new AtomicLong();
+    private final AtomicLong actorsWritten = new AtomicLong();
+    private final AtomicLong linksWritten = new AtomicLong();
+    // reserved ranges are (base, top]; set once the reservation has committed
+    private volatile long movieBase;
+    private volatile long movieTop;
+    private volatile long actorBase;
+    private volatile long actorTop;
+
+    // fastPragmas turns off syncing and keeps the rollback journal in memory on the writer
+    // connections: only for a database file nobody else is using
+    public CatalogGenerator(GeneratorSpec spec, ConnectionSource connections, int writers, boolean fastPragmas,
+                            Runnable afterChunk) {
+        this.spec = spec;
+        this.connections = connections;
+        this.writers = Math.max(1, writers);
+        this.fastPragmas = fastPragmas;
+        this.afterChunk = afterChunk;
+    }
+
+    public long moviesWritten() {
+        return moviesWritten.get();
+    }
+
+    public long actorsWritten() {
+        return actorsWritten.get();
+    }
+
+    public long linksWritten() {
+        return linksWritten.get();
+    }
+
+    // the reserved id ranges as {first, last}, or null before the reservation (and for no movies)
+    public long[] movieIds() {
+        return movieTop == 0 ? null : new long[] {movieBase + 1, movieTop};
+    }
+
+    public long[] actorIds() {
+        return actorTop == 0 ? null : new long[] {actorBase + 1, actorTop};
+    }
+
+    public void run() throws SQLException, InterruptedException {
+        long started = System.nanoTime();
+        long[] genreIds;
+        try (Connection connection = connections.get()) {
+            genreIds = ensureGenres(connection);
+            reserve(connection);
+        }
+
+        try {
+            long actors = actorBase;
+            pipeline(chunks(spec.actors()), chunk -> actorChunk(chunk, actors), this::writeActors);
+            ZipfSampler castSizes = new ZipfSampler(spec.maxCast(), spec.castExponent());
+            ZipfSampler actorRanks = new ZipfSampler(spec.actors(), spec.actorExponent());
+            ZipfSampler genreCounts = new ZipfSampler(spec.maxGenres(), spec.genreExponent());
+            ZipfSampler genreRanks = new ZipfSampler(genreIds.length, spec.genreExponent());
+            long stride = coprimeStride(spec.actors());
+            long movies = movieBase;
+            pipeline(chunks(spec.movies()), chunk -> movieChunk(chunk, movies, actors, stride, genreIds,
+                    castSizes, actorRanks, genreCounts, genreRanks), this::writeMovies);
+        } catch (SQLException | InterruptedException | RuntimeException e) {
+            releasePlaceholders();
+            throw e;
+        }
+
+        double seconds = (System.nanoTime() - started) / 1e9;
+        long rows = moviesWritten.get() + actorsWritten.get() + linksWritten.get();
+        log.info("Generated {} movies, {} actors and {} join rows in {} s ({} rows/s)", moviesWritten.get(),
+                actorsWritten.get(), linksWritten.get(), String.format("%.1f", seconds), (long) (rows / seconds));
+    }
+
+    // the first `genres` names (real ones, then "Genre N"); existing genres with those names are reused
+    private long[] ensureGenres(Connection connection) throws SQLException {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < spec.genres(); i++) {
+            names.add(i < GENRE_NAMES.size() ? GENRE_NAMES.get(i) : "Genre " + (i + 1));
+        }
+        long[] ids = new long[names.size()];
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO genre (name) SELECT ? WHERE NOT EXISTS (SELECT 1 FROM genre WHERE LOWER(name) = LOWER(?))");
+             PreparedStatement select = connection.prepareStatement("SELECT id FROM genre WHERE LOWER(name) = LOWER(?)")) {
+            for (int i = 0; i < names.size(); i++) {
+                insert.setString(1, names.get(i));
+                insert.setString(2, names.get(i));
+                insert.executeUpdate();
+                select.setString(1, names.get(i));
+                try (ResultSet rs = select.executeQuery()) {
+                    rs.next();
+                    ids[i] = rs.getLong(1);
+                }
+            }
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        return ids;
+    }
+
+    // one transaction: a placeholder at MAX(id) + count in each table, in a single statement so no
+    // other insert can slip in between reading the max and claiming the range
+    private void reserve(Connection connection) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            long[] movies = spec.movies() == 0 ? null
+                    : reserve(connection, "movie", "title, release_year, duration", spec.movies(), PLACEHOLDER, 1900, 1);
+            long[] actors = reserve(connection, "actor", "name, birth_date", spec.actors(), PLACEHOLDER,
+                    Date.valueOf(LocalDate.EPOCH));
+            connection.commit();
+            if (movies != null) {
+                movieBase = movies[0];
+                movieTop = movies[1];
+            }
+            actorBase = actors[0];
+            actorTop = actors[1];
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    // {base, top} of the reserved range (base, top]; values fill the placeholder's other columns,
+    // valid for every NOT NULL and CHECK constraint of the Hibernate schema
+    private static long[] reserve(Connection connection, String table, String columns, int count, Object... values)
+            throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + table + " (id, " + columns
+                + ") SELECT COALESCE(MAX(id), 0) + ?" + ", ?".repeat(values.length) + " FROM " + table)) {
+            insert.setLong(1, count);
+            for (int i = 0; i < values.length; i++) {
+                insert.setObject(i + 2, values[i]);
+            }
+            insert.executeUpdate();
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT MAX(id) FROM " + table)) {
+            rs.next();
+            long top = rs.getLong(1);
+            return new long[] {top - count, top};
+        }
+    }
+
+    // after a failed run: placeholders whose chunk was never written would show up as rows
+    private void releasePlaceholders() {
+        try (Connection connection = connections.get()) {
+            connection.setAutoCommit(true);
+            try (PreparedStatement movie = connection.prepareStatement("DELETE FROM movie WHERE id = ? AND title = ?");
+                 PreparedStatement actor = connection.prepareStatement("DELETE FROM actor WHERE id = ? AND name = ?")) {
+                if (movieTop != 0) {
+                    movie.setLong(1, movieTop);
+                    movie.setString(2, PLACEHOLDER);
+                    movie.executeUpdate();
+                }
+                if (actorTop != 0) {
+                    actor.setLong(1, actorTop);
+                    actor.setString(2, PLACEHOLDER);
+                    actor.executeUpdate();
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("Could not remove the generator's placeholder rows (movie {}, actor {}): {}", movieTop, actorTop,
+                    e.getMessage());
+        }
+    }
+
+    // the chunk that ends at the top of a reserved range takes over the placeholder's id
+    private static void replacePlaceholder(Connection connection, String table, long[] ids, long top)
+            throws SQLException {
+        if (ids.length == 0 || ids[ids.length - 1] != top) {
+            return;
+        }
+        try (PreparedStatement delete = connection.prepareStatement("DELETE FROM " + table + " WHERE id = ?")) {
+            delete.setLong(1, top);
+            delete.executeUpdate();
+        }
+    }
+
+    private int chunks(int rows) {
+        return (int) ((rows + (long) spec.chunkSize() - 1) / spec.chunkSize());
+    }
+
+    private SplittableRandom random(int kind, int chunk) {
+        // distinct, well-mixed stream per (seed, kind, chunk)
+        long z = spec.seed() * 0x9E3779B97F4A7C15L + kind * 0xBF58476D1CE4E5B9L + chunk * 0x94D049BB133111EBL;
+        return new SplittableRandom(z ^ (z >>> 31));
+    }
+
+    private ActorChunk actorChunk(int chunk, long actorBase) {
+        SplittableRandom random = random(1, chunk);
+        int from = chunk * spec.chunkSize();
+        int size = Math.min(spec.chunkSize(), spec.actors() - from);
+        ActorChunk rows = new ActorChunk(size);
+        for (int i = 0; i < size; i++) {
+            rows.ids[i] = actorBase + from + i + 1;
+            rows.names[i] = pick(FIRST_NAMES, random) + " " + pick(LAST_NAMES, random) + pick(NAME_SUFFIXES, random);
+            rows.birthDates[i] = LocalDate.of(1920, 1, 1).plusDays(random.nextInt(85 * 365));
+        }
+        return rows;
+    }
+
+    private MovieChunk movieChunk(int chunk, long movieBase, long actorBase, long stride, long[] genreIds,
+                                  ZipfSampler castSizes, ZipfSampler actorRanks, ZipfSampler genreCounts,
+                                  ZipfSampler genreRanks) {
+        SplittableRandom random = random(2, chunk);
+        int from = chunk * spec.chunkSize();
+        int size = Math.min(spec.chunkSize(), spec.movies() - from);
+        MovieChunk rows = new MovieChunk(size);
+        Set<Long> picked = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            long id = movieBase + from + i + 1;
+            rows.ids[i] = id;
+            rows.titles[i] = "The " + pick(ADJECTIVES, random) + " " + pick(NOUNS, random) + pick(SUFFIXES, random);
+            // skewed towards recent years
+            double u = random.nextDouble();
+            rows.years[i] = 2025 - (int) (105 * u * u);
+            rows.durations[i] = Math.max(60, Math.min(240, 70 + random.nextInt(40) + random.nextInt(40) + random.nextInt(40)));
+
+            picked.clear();
+            int genres = genreCounts.sample(random);
+            while (picked.size() < genres) {
+                picked.add(genreIds[genreRanks.sample(random) - 1]);
+            }
+            for (long genreId : picked) {
+                rows.genreLinks.add(id, genreId);
+            }
+
+            // popular actors (low Zipf ranks) are spread over the id range by a fixed permutation
+            picked.clear();
+            int cast = castSizes.sample(random);
+            while (picked.size() < cast) {
+                long rank = actorRanks.sample(random) - 1;
+                picked.add(actorBase + 1 + (rank * stride) % spec.actors());
+            }
+            for (long actorId : picked) {
+                rows.actorLinks.add(id, actorId);
+            }
+        }
+        return rows;
+    }
+
+    private static long coprimeStride(long n) {
+        long stride = 2_654_435_761L % n;
+        while (stride < 1 || gcd(stride, n) != 1) {
+            stride = stride % n + 1;
+        }
+        return stride;
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    private static String pick(String[] values, SplittableRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private void writeActors(Connection connection, ActorChunk rows) throws SQLException {
+        replacePlaceholder(connection, "actor", rows.ids, actorTop);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO actor (id, name, birth_date) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < rows.ids.length; i++) {
+                insert.setLong(1, rows.ids[i]);
+                insert.setString(2, rows.names[i]);
+                insert.setDate(3, Date.valueOf(rows.birthDates[i]));
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        actorsWritten.addAndGet(rows.ids.length);
+    }
+
+    private void writeMovies(Connection connection, MovieChunk rows) throws SQLException {
+        replacePlaceholder(connection, "movie", rows.ids, movieTop);
+        try (PreparedStatement movie = connection.prepareStatement(
+                "INSERT INTO movie (id, title, release_year, duration) VALUES (?, ?, ?, ?)");
+             PreparedStatement genre = connection.prepareStatement(
+                     "INSERT INTO movie_genres (movie_id, genre_id) VALUES (?, ?)");
+             PreparedStatement actor = connection.prepareStatement(
+                     "INSERT INTO movie_actors (movie_id, actor_id) VALUES (?, ?)")) {
+            for (int i = 0; i < rows.ids.length; i++) {
+                movie.setLong(1, rows.ids[i]);
+                movie.setString(2, rows.titles[i]);
+                movie.setInt(3, rows.years[i]);
+                movie.setInt(4, rows.durations[i]);
+                movie.addBatch();
+            }
+            movie.executeBatch();
+            rows.genreLinks.insert(genre);
+            rows.actorLinks.insert(actor);
+        }
+        moviesWritten.addAndGet(rows.ids.length);
+        linksWritten.addAndGet(rows.genreLinks.size + rows.actorLinks.size);
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter<T> {
+        void write(Connection connection, T chunk) throws SQLException;
+    }
+
+    // generate `chunks` chunks on spec.threads() threads into a bounded queue drained by the writers
+    private <T> void pipeline(int chunks, IntFunction<T> generate, ChunkWriter<T> writer)
+            throws SQLException, InterruptedException {
+        if (chunks == 0) {
+            return;
+        }
+        BlockingQueue<Object> queue = new ArrayBlockingQueue<>(Math.max(2, writers * 2));
+        Object done = new Object();
+        ExecutorService pool = Executors.newFixedThreadPool(spec.threads() + writers, runnable -> {
+            Thread thread = new Thread(runnable, "catalog-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> generators = new ArrayList<>();
+            for (int t = 0; t < spec.threads(); t++) {
+                int first = t;
+                generators.add(pool.submit(() -> {
+                    for (int chunk = first; chunk < chunks; chunk += spec.threads()) {
+                        queue.put(generate.apply(chunk));
+                    }
+                    return null;
+                }));
+            }
+            List<Future<?>> writerTasks = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                writerTasks.add(pool.submit(() -> {
+                    try (Connection connection = connections.get()) {
+                        prepare(connection);
+                        while (true) {
+                            Object chunk = queue.take();
+                            if (chunk == done) {
+                                return null;
+                            }
+                            @SuppressWarnings("unchecked")
+                            T rows = (T) chunk;
+                            writer.write(connection, rows);
+                            connection.commit();
+                            afterChunk.run();
+                        }
+                    } catch (Exception e) {
+                        // nobody drains the queue any more: stop the generators blocked on it
+                        generators.forEach(generator -> generator.cancel(true));
+                        throw e;
+                    }
+                }));
+            }
+            for (Future<?> generator : generators) {
+                await(generator);
+            }
+            for (int w = 0; w < writers; w++) {
+                while (!queue.offer(done, 100, TimeUnit.MILLISECONDS)) {
+                    if (writerTasks.stream().allMatch(Future::isDone)) {
+                        break;
+                    }
+                }
+            }
+            for (Future<?> writerTask : writerTasks) {
+                await(writerTask);
+            }
+        } finally {
+            pool.shutdownNow();
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private void prepare(Connection connection) throws SQLException {
+        if (fastPragmas) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA synchronous = OFF");
+                statement.execute("PRAGMA journal_mode = MEMORY");
+            }
+        }
+        connection.setAutoCommit(false);
+    }
+
+    // a cancelled generator means a writer failed; that writer's future carries the error
+    private static void await(Future<?> future) throws SQLException, InterruptedException {
+        try {
+            future.get();
+        } catch (CancellationException e) {
+            // reported by the writer
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException sql) {
+                throw sql;
+            }
+            throw new IllegalStateException("Catalog generation failed", e.getCause());
+        }
+    }
+
+    private static final class ActorChunk {
+        final long[] ids;
+        final String[] names;
+        final LocalDate[] birthDates;
+
+        ActorChunk(int size) {
+            ids = new long[size];
+            names = new String[size];
+            birthDates = new LocalDate[size];
+        }
+    }
+
+    private static final class MovieChunk {
+        final long[] ids;
+        final String[] titles;
+        final int[] years;
+        final int[] durations;
+        final Links genreLinks = new Links();
+        final Links actorLinks = new Links();
+
+        MovieChunk(int size) {
+            ids = new long[size];
+            titles = new String[size];
+            years = new int[size];
+            durations = new int[size];
+        }
+    }
+
+    // (movie_id, other_id) pairs in a growable primitive array
+    private static final class Links {
+        long[] pairs = new long[1024];
+        int size;
+
+        void add(long movieId, long otherId) {
+            if (size * 2 == pairs.length) {
+                pairs = Arrays.copyOf(pairs, pairs.length * 2);
+            }
+            pairs[size * 2] = movieId;
+            pairs[size * 2 + 1] = otherId;
+            size++;
+        }
+
+        void insert(PreparedStatement statement) throws SQLException {
+            for (int i = 0; i < size; i++) {
+                statement.setLong(1, pairs[i * 2]);
+                statement.setLong(2, pairs[i * 2 + 1]);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+}
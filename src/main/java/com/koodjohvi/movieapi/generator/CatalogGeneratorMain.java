@@ -0,0 +1,103 @@
+package com.koodjohvi.movieapi.generator;
+
+import com.koodjohvi.movieapi.storage.V1_1__Change_tracking;
+import org.flywaydb.core.Flyway;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+// Standalone entry point for ./gradlew generateCatalog: fills a database file without starting
+// the application. Arguments are --key=value; url and writers are read here, the rest make up
+// the GeneratorSpec. A SQLite database is brought to the current schema with the migrations
+// first, and written with syncing off, so it must not be in use by a running server. Like the
+// in-app generator, the run ends with a BULK_LOADED change log entry stamped on the new rows.
+public final class CatalogGeneratorMain {
+
+    private CatalogGeneratorMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value, got " + arg);
+            }
+            values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        String url = values.getOrDefault("url", "jdbc:sqlite:build/generated.db");
+        boolean sqlite = url.startsWith("jdbc:sqlite:");
+        // more than one writer only helps engines that allow concurrent write transactions
+        int writers = Integer.parseInt(values.getOrDefault("writers", "1"));
+        GeneratorSpec spec = GeneratorSpec.of(values);
+
+        if (sqlite) {
+            Flyway.configure()
+                    .dataSource(url, null, null)
+                    .locations("classpath:db/migration/sqlite")
+                    .baselineOnMigrate(true)
+                    .baselineVersion("0")
+                    .javaMigrations(new V1_1__Change_tracking())
+                    .load()
+                    .migrate();
+        }
+        CatalogGenerator generator = new CatalogGenerator(spec, () -> DriverManager.getConnection(url), writers,
+                sqlite, () -> { });
+        generator.run();
+        if (sqlite) {
+            try (Connection connection = DriverManager.getConnection(url)) {
+                recordBulkLoad(connection, generator);
+            }
+        }
+    }
+
+    private static void recordBulkLoad(Connection connection, CatalogGenerator generator) throws SQLException {
+        long[] movies = generator.movieIds();
+        long[] actors = generator.actorIds();
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO change_log (entity_type, entity_id, "
+                + "change_type, payload, created_at) VALUES ('MOVIE', 0, 'BULK_LOADED', ?, ?)")) {
+            insert.setString(1, "{\"source\":\"generateCatalog\",\"movies\":" + range(movies)
+                    + ",\"actors\":" + range(actors) + "}");
+            insert.setLong(2, System.currentTimeMillis());
+            insert.executeUpdate();
+            long seq;
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT MAX(seq) FROM change_log")) {
+                rs.next();
+                seq = rs.getLong(1);
+            }
+            stamp(connection, "UPDATE movie SET mod_seq = ? WHERE id BETWEEN ? AND ? AND mod_seq IS NULL", seq, movies);
+            stamp(connection, "UPDATE actor SET mod_seq = ? WHERE id BETWEEN ? AND ? AND mod_seq IS NULL", seq, actors);
+            try (PreparedStatement genres = connection.prepareStatement("UPDATE genre SET mod_seq = ? WHERE mod_seq IS NULL")) {
+                genres.setLong(1, seq);
+                genres.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        }
+    }
+
+    private static void stamp(Connection connection, String sql, long seq, long[] ids) throws SQLException {
+        if (ids == null) {
+            return;
+        }
+        try (PreparedStatement update = connection.prepareStatement(sql)) {
+            update.setLong(1, seq);
+            update.setLong(2, ids[0]);
+            update.setLong(3, ids[1]);
+            update.executeUpdate();
+        }
+    }
+
+    private static String range(long[] ids) {
+        return ids == null ? "[]" : "[" + ids[0] + "," + ids[1] + "]";
+    }
+}
@@ -0,0 +1,38 @@
+package com.koodjohvi.movieapi.generator;
+
+import java.util.Map;
+
+// What to generate. Cast sizes, the actors in a cast and the genres of a movie are Zipf
+// distributed with the given exponents; the same spec and seed always produce the same rows.
+public record GeneratorSpec(long seed, int movies, int actors, int genres, int maxCast, double castExponent,
+                            double actorExponent, int maxGenres, double genreExponent, int chunkSize, int threads) {
+
+    public GeneratorSpec {
+        if (movies < 0 || actors < 1 || genres < 1 || maxCast < 1 || maxGenres < 1 || chunkSize < 1 || threads < 1) {
+            throw new IllegalArgumentException("Counts, chunk size and threads must be positive");
+        }
+        if (castExponent <= 0 || actorExponent <= 0 || genreExponent <= 0) {
+            throw new IllegalArgumentException("Zipf exponents must be positive");
+        }
+        maxCast = Math.min(maxCast, actors);
+        maxGenres = Math.min(maxGenres, genres);
+    }
+
+    // generator.* style keys (movies, actors, seed, ...); anything missing takes its default
+    public static GeneratorSpec of(Map<String, String> values) {
+        int movies = Integer.parseInt(values.getOrDefault("movies", "100000"));
+        return new GeneratorSpec(
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                movies,
+                Integer.parseInt(values.getOrDefault("actors", Integer.toString(Math.max(1, movies / 5)))),
+                Integer.parseInt(values.getOrDefault("genres", "20")),
+                Integer.parseInt(values.getOrDefault("max-cast", "50")),
+                Double.parseDouble(values.getOrDefault("cast-exponent", "1.0")),
+                Double.parseDouble(values.getOrDefault("actor-exponent", "1.0")),
+                Integer.parseInt(values.getOrDefault("max-genres", "3")),
+                Double.parseDouble(values.getOrDefault("genre-exponent", "1.2")),
+                Integer.parseInt(values.getOrDefault("chunk-size", "10000")),
+                Integer.parseInt(values.getOrDefault("threads",
+                        Integer.toString(Runtime.getRuntime().availableProcessors()))));
+    }
+}
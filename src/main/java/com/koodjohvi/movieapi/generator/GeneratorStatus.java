@@ -0,0 +1,5 @@
+package com.koodjohvi.movieapi.generator;
+
+// counts are rows written so far by the current run, or by the last one when idle
+public record GeneratorStatus(boolean running, GeneratorSpec spec, long movies, long actors, long links,
+                              Long startedAt, Long finishedAt, String error) {}
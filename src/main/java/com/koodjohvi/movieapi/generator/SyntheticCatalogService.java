@@ -0,0 +1,162 @@
+package com.koodjohvi.movieapi.generator;
+
+import com.koodjohvi.movieapi.admission.BackgroundThrottle;
+import com.koodjohvi.movieapi.changelog.ChangeLogService;
+import com.koodjohvi.movieapi.events.CatalogBulkChangeEvent;
+import com.koodjohvi.movieapi.replication.ReplicationRole;
+import com.koodjohvi.movieapi.storage.CatalogStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Runs the synthetic catalog generator against the live database. Generation is spread over
+// the spec's threads, but the rows go through a single writer connection (SQLite has one
+// writer anyway) and each chunk's transaction is followed by a throttle pause, so requests get
+// the write lock between chunks. The rows bypass the services and the change log, so afterwards
+// one BULK_LOADED entry is appended and its sequence stamped as the new rows' mod_seq (sync
+// clients re-snapshot on it), and derived state is rebuilt through a bulk change event.
+@Service
+public class SyntheticCatalogService {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticCatalogService.class);
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ChangeLogService changeLogService;
+    private final BackgroundThrottle throttle;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final boolean sharded;
+    private final boolean follower;
+    private final int maxRows;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile CatalogGenerator generator;
+    private volatile GeneratorSpec spec;
+    private volatile Long startedAt;
+    private volatile Long finishedAt;
+    private volatile String lastError;
+
+    public SyntheticCatalogService(DataSource dataSource, JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager, ChangeLogService changeLogService,
+                                   BackgroundThrottle throttle, ApplicationEventPublisher eventPublisher,
+                                   @Value("${catalog.storage:sqlite}") String storage,
+                                   @Value("${sharding.enabled:false}") boolean sharded,
+                                   @Value("${replication.role:leader}") String replicationRole,
+                                   @Value("${generator.max-rows:20000000}") int maxRows) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.changeLogService = changeLogService;
+        this.throttle = throttle;
+        this.eventPublisher = eventPublisher;
+        this.enabled = CatalogStorage.of(storage) == CatalogStorage.SQLITE;
+        this.sharded = sharded;
+        this.follower = ReplicationRole.of(replicationRole) == ReplicationRole.FOLLOWER;
+        this.maxRows = maxRows;
+    }
+
+    public GeneratorStatus status() {
+        CatalogGenerator current = generator;
+        return new GeneratorStatus(running.get(), spec,
+                current == null ? 0 : current.moviesWritten(),
+                current == null ? 0 : current.actorsWritten(),
+                current == null ? 0 : current.linksWritten(),
+                startedAt, finishedAt, lastError);
+    }
+
+    // starts a run in the background; false if one is already running
+    public boolean start(GeneratorSpec spec) {
+        if (!enabled) {
+            throw new IllegalArgumentException("The generator is only available for the SQLite storage engine");
+        }
+        if (sharded) {
+            // movies would have to be routed to the shard files
+            throw new IllegalArgumentException("The generator is not available in sharded mode");
+        }
+        if (follower) {
+            throw new IllegalArgumentException("The generator cannot write to a replication follower");
+        }
+        if ((long) spec.movies() + spec.actors() > maxRows) {
+            throw new IllegalArgumentException("At most " + maxRows + " movies and actors per run");
+        }
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        CatalogGenerator run = new CatalogGenerator(spec, dataSource::getConnection, 1, false, this::pause);
+        this.generator = run;
+        this.spec = spec;
+        this.startedAt = System.currentTimeMillis();
+        this.finishedAt = null;
+        this.lastError = null;
+        Thread worker = new Thread(() -> {
+            try {
+                run.run();
+            } catch (RuntimeException | SQLException e) {
+                lastError = e.getMessage();
+                log.error("Synthetic catalog generation failed", e);
+            } catch (InterruptedException e) {
+                lastError = "Interrupted";
+                Thread.currentThread().interrupt();
+            } finally {
+                // partial runs leave committed chunks behind, so rebuild either way
+                if (run.moviesWritten() + run.actorsWritten() > 0) {
+                    try {
+                        recordBulkLoad(run);
+                    } catch (RuntimeException e) {
+                        log.error("Could not record the generated rows in the change log", e);
+                    }
+                    eventPublisher.publishEvent(new CatalogBulkChangeEvent("generator"));
+                }
+                finishedAt = System.currentTimeMillis();
+                running.set(false);
+            }
+        }, "catalog-generator");
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    private void recordBulkLoad(CatalogGenerator run) {
+        long[] movies = run.movieIds();
+        long[] actors = run.actorIds();
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("source", "generator");
+        payload.put("movies", movies == null ? List.of() : List.of(movies[0], movies[1]));
+        payload.put("actors", actors == null ? List.of() : List.of(actors[0], actors[1]));
+        transactionTemplate.executeWithoutResult(tx -> {
+            long seq = changeLogService.appendBulkLoad(payload);
+            if (movies != null) {
+                jdbcTemplate.update("UPDATE movie SET mod_seq = ? WHERE id BETWEEN ? AND ? AND mod_seq IS NULL",
+                        seq, movies[0], movies[1]);
+            }
+            if (actors != null) {
+                jdbcTemplate.update("UPDATE actor SET mod_seq = ? WHERE id BETWEEN ? AND ? AND mod_seq IS NULL",
+                        seq, actors[0], actors[1]);
+            }
+            // genres the run added
+            jdbcTemplate.update("UPDATE genre SET mod_seq = ? WHERE mod_seq IS NULL", seq);
+        });
+    }
+
+    private void pause() {
+        try {
+            throttle.pause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.koodjohvi.movieapi.integrity;
+
+import com.koodjohvi.movieapi.admission.BackgroundThrottle;
+import com.koodjohvi.movieapi.entities.Genre;
+import com.koodjohvi.movieapi.entities.Movie;
+import com.koodjohvi.movieapi.events.CatalogBulkChangeEvent;
+import com.koodjohvi.movieapi.events.CatalogChangeEvent;
+import com.koodjohvi.movieapi.events.MovieSnapshot;
+import com.koodjohvi.movieapi.replication.ReplicationRole;
+import com.koodjohvi.movieapi.services.GenreService;
+import com.koodjohvi.movieapi.services.MovieService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Background consistency checks over the catalog tables. The movie and join tables are scanned
+// by movie id range, split fork-join style into chunks that run a few at a time on a small
+// pool, pausing between chunks behind live traffic. Repairs run in batched transactions:
+// orphaned join rows are deleted directly, with an update of each affected movie published in
+// the same transaction so the change log, followers and sync clients see the new cast and
+// genres; duplicate genres are merged through the services.
+@Service
+public class IntegrityChecker {
+
+    private static final Logger log = LoggerFactory.getLogger(IntegrityChecker.class);
+
+    private static final int REPAIR_BATCH = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MovieService movieService;
+    private final GenreService genreService;
+    private final BackgroundThrottle throttle;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long chunkSize;
+    private final boolean sharded;
+    private final boolean follower;
+    private final ForkJoinPool pool;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile IntegrityReport lastReport;
+
+    public IntegrityChecker(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                            MovieService movieService, GenreService genreService, BackgroundThrottle throttle,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${integrity.chunk-size:5000}") long chunkSize,
+                            @Value("${integrity.parallelism:2}") int parallelism,
+                            @Value("${sharding.enabled:false}") boolean sharded,
+                            @Value("${replication.role:leader}") String replicationRole) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.movieService = movieService;
+        this.genreService = genreService;
+        this.throttle = throttle;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.sharded = sharded;
+        this.follower = ReplicationRole.of(replicationRole) == ReplicationRole.FOLLOWER;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    public IntegrityStatus status() {
+        return new IntegrityStatus(running.get(), lastReport);
+    }
+
+    // starts a run in the background; false if one is already running
+    public boolean start(boolean repair) {
+        if (sharded) {
+            // movies and join rows live in the shard files, which these queries do not cover
+            throw new IllegalArgumentException("Integrity checks are not available in sharded mode");
+        }
+        if (repair && follower) {
+            // a follower's catalog only changes through replication; repair the leader instead
+            throw new IllegalArgumentException("Repairs cannot run on a replication follower");
+        }
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread worker = new Thread(() -> {
+            try {
+                lastReport = run(repair);
+            } catch (RuntimeException e) {
+                log.error("Integrity check failed", e);
+            } finally {
+                running.set(false);
+            }
+        }, "integrity-check");
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    // report only; repairs are always asked for explicitly
+    @Scheduled(cron = "${integrity.check-cron:-}")
+    public void scheduledCheck() {
+        if (!sharded && !start(false)) {
+            log.info("Skipping scheduled integrity check, one is already running");
+        }
+    }
+
+    IntegrityReport run(boolean repair) {
+        long startedAt = System.currentTimeMillis();
+        long started = System.nanoTime();
+
+        List<IntegrityViolation> violations = new ArrayList<>();
+        violations.addAll(scanJoinTable("movie_genres", "genre_id", "genre", ViolationType.ORPHAN_MOVIE_GENRE));
+        violations.addAll(scanJoinTable("movie_actors", "actor_id", "actor", ViolationType.ORPHAN_MOVIE_ACTOR));
+        violations.addAll(scanMoviesWithoutGenre());
+        violations.addAll(findDuplicateGenreNames());
+
+        Map<ViolationType, Integer> counts = new EnumMap<>(ViolationType.class);
+        for (IntegrityViolation violation : violations) {
+            counts.merge(violation.type(), 1, Integer::sum);
+        }
+        Map<ViolationType, Integer> repaired = repair ? repair(violations) : Map.of();
+
+        long durationMillis = (System.nanoTime() - started) / 1_000_000;
+        log.info("Integrity check found {} in {} ms{}", counts, durationMillis, repair ? ", repaired " + repaired : "");
+        boolean truncated = violations.size() > IntegrityReport.MAX_REPORTED;
+        return new IntegrityReport(repair, startedAt, durationMillis, counts, repaired,
+                List.copyOf(truncated ? violations.subList(0, IntegrityReport.MAX_REPORTED) : violations), truncated);
+    }
+
+    private List<IntegrityViolation> scanJoinTable(String table, String otherColumn, String otherTable,
+                                                   ViolationType type) {
+        String sql = "SELECT j.movie_id, j." + otherColumn + ", m.id IS NULL, o.id IS NULL FROM " + table + " j"
+                + " LEFT JOIN movie m ON m.id = j.movie_id"
+                + " LEFT JOIN " + otherTable + " o ON o.id = j." + otherColumn
+                + " WHERE j.movie_id BETWEEN ? AND ? AND (m.id IS NULL OR o.id IS NULL)";
+        return scan("SELECT MIN(movie_id), MAX(movie_id) FROM " + table, (from, to) ->
+                jdbcTemplate.query(sql, (rs, rowNum) -> {
+                    boolean movieMissing = rs.getBoolean(3);
+                    boolean otherMissing = rs.getBoolean(4);
+                    String detail = movieMissing && otherMissing ? "movie and " + otherTable + " missing"
+                            : movieMissing ? "movie missing" : otherTable + " missing";
+                    return new IntegrityViolation(type, table, rs.getLong(1), rs.getLong(2), detail);
+                }, from, to));
+    }
+
+    private List<IntegrityViolation> scanMoviesWithoutGenre() {
+        String sql = "SELECT m.id, m.title FROM movie m WHERE m.id BETWEEN ? AND ?"
+                + " AND NOT EXISTS (SELECT 1 FROM movie_genres mg WHERE mg.movie_id = m.id)";
+        return scan("SELECT MIN(id), MAX(id) FROM movie", (from, to) ->
+                jdbcTemplate.query(sql, (rs, rowNum) -> new IntegrityViolation(ViolationType.MOVIE_WITHOUT_GENRE,
+                        "movie", rs.getLong(1), null, "'" + rs.getString(2) + "' has no genre"), from, to));
+    }
+
+    // genres are few, so this is one pass in memory; the lowest id of each name is kept
+    private List<IntegrityViolation> findDuplicateGenreNames() {
+        List<IntegrityViolation> duplicates = new ArrayList<>();
+        Map<String, Long> firstByName = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM genre ORDER BY id", rs -> {
+            long id = rs.getLong(1);
+            String name = rs.getString(2);
+            Long first = firstByName.putIfAbsent(name.trim().toLowerCase(Locale.ROOT), id);
+            if (first != null) {
+                duplicates.add(new IntegrityViolation(ViolationType.DUPLICATE_GENRE_NAME, "genre", id, first,
+                        "'" + name + "' duplicates genre " + first));
+            }
+        });
+        return duplicates;
+    }
+
+    private Map<ViolationType, Integer> repair(List<IntegrityViolation> violations) {
+        Map<ViolationType, Integer> repaired = new EnumMap<>(ViolationType.class);
+        int orphanGenres = deleteJoinRows("movie_genres", "genre_id", ofType(violations, ViolationType.ORPHAN_MOVIE_GENRE));
+        int orphanActors = deleteJoinRows("movie_actors", "actor_id", ofType(violations, ViolationType.ORPHAN_MOVIE_ACTOR));
+        repaired.put(ViolationType.ORPHAN_MOVIE_GENRE, orphanGenres);
+        repaired.put(ViolationType.ORPHAN_MOVIE_ACTOR, orphanActors);
+        if (orphanGenres + orphanActors > 0) {
+            // rows of movies that no longer exist had no entity to publish; rebuild derived state
+            eventPublisher.publishEvent(new CatalogBulkChangeEvent("integrity-repair"));
+        }
+        repaired.put(ViolationType.DUPLICATE_GENRE_NAME,
+                mergeDuplicateGenres(ofType(violations, ViolationType.DUPLICATE_GENRE_NAME)));
+        return repaired;
+    }
+
+    private int deleteJoinRows(String table, String otherColumn, List<IntegrityViolation> rows) {
+        String sql = "DELETE FROM " + table + " WHERE movie_id = ? AND " + otherColumn + " = ?";
+        int deleted = 0;
+        for (List<IntegrityViolation> batch : batches(rows)) {
+            pause();
+            int[][] counts = transactionTemplate.execute(status -> {
+                // movies that still exist, as they were before the repair
+                Map<Long, MovieSnapshot> before = new LinkedHashMap<>();
+                for (IntegrityViolation violation : batch) {
+                    if (!before.containsKey(violation.entityId())) {
+                        before.put(violation.entityId(), readMovie(violation.entityId()));
+                    }
+                }
+                int[][] batchCounts = jdbcTemplate.batchUpdate(sql, batch, batch.size(), (ps, violation) -> {
+                    ps.setLong(1, violation.entityId());
+                    ps.setLong(2, violation.relatedId());
+                });
+                for (MovieSnapshot movie : before.values()) {
+                    if (movie != null) {
+                        eventPublisher.publishEvent(CatalogChangeEvent.updated(movie, readMovie(movie.id())));
+                    }
+                }
+                return batchCounts;
+            });
+            for (int[] batchCounts : counts) {
+                for (int count : batchCounts) {
+                    deleted += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+                }
+            }
+        }
+        return deleted;
+    }
+
+    // the movie with its current genres and cast, null if it does not exist
+    private MovieSnapshot readMovie(long id) {
+        List<MovieSnapshot> movies = jdbcTemplate.query("SELECT title, release_year, duration FROM movie WHERE id = ?",
+                (rs, rowNum) -> new MovieSnapshot(id, rs.getString(1), rs.getObject(2, Integer.class),
+                        rs.getObject(3, Integer.class), Set.of(), Set.of()), id);
+        if (movies.isEmpty()) {
+            return null;
+        }
+        MovieSnapshot movie = movies.get(0);
+        return new MovieSnapshot(id, movie.title(), movie.releaseYear(), movie.duration(),
+                Set.copyOf(jdbcTemplate.queryForList("SELECT genre_id FROM movie_genres WHERE movie_id = ?", Long.class, id)),
+                Set.copyOf(jdbcTemplate.queryForList("SELECT actor_id FROM movie_actors WHERE movie_id = ?", Long.class, id)));
+    }
+
+    // points every movie of the duplicate at the kept genre, then deletes the duplicate
+    private int mergeDuplicateGenres(List<IntegrityViolation> duplicates) {
+        int merged = 0;
+        for (IntegrityViolation duplicate : duplicates) {
+            long duplicateId = duplicate.entityId();
+            long keptId = duplicate.relatedId();
+            try {
+                List<Long> movieIds = jdbcTemplate.queryForList(
+                        "SELECT movie_id FROM movie_genres WHERE genre_id = ?", Long.class, duplicateId);
+                for (List<Long> batch : batches(movieIds)) {
+                    pause();
+                    transactionTemplate.executeWithoutResult(status -> {
+                        for (Long movieId : batch) {
+                            Set<Long> genreIds = new HashSet<>(jdbcTemplate.queryForList(
+                                    "SELECT genre_id FROM movie_genres WHERE movie_id = ?", Long.class, movieId));
+                            genreIds.remove(duplicateId);
+                            genreIds.add(keptId);
+
+                            Movie patch = new Movie();
+                            patch.setActors(null);
+                            Set<Genre> genres = new HashSet<>();
+                            for (Long genreId : genreIds) {
+                                Genre genre = new Genre();
+                                genre.setId(genreId);
+                                genres.add(genre);
+                            }
+                            patch.setGenres(genres);
+                            movieService.updateMovie(movieId, patch);
+                        }
+                    });
+                }
+                transactionTemplate.executeWithoutResult(status -> genreService.deleteGenre(duplicateId, false));
+                merged++;
+            } catch (RuntimeException e) {
+                log.warn("Could not merge genre {} into {}: {}", duplicateId, keptId, e.getMessage());
+            }
+        }
+        return merged;
+    }
+
+    private <T> List<T> scan(String rangeSql, ChunkQuery<T> query) {
+        long[] range = jdbcTemplate.queryForObject(rangeSql, (rs, rowNum) ->
+                rs.getObject(1) == null ? null : new long[] {rs.getLong(1), rs.getLong(2)});
+        if (range == null) {
+            return List.of();
+        }
+        return pool.invoke(new ChunkScan<>(range[0], range[1], query));
+    }
+
+    private void pause() {
+        try {
+            throttle.pause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Integrity check interrupted", e);
+        }
+    }
+
+    private static List<IntegrityViolation> ofType(List<IntegrityViolation> violations, ViolationType type) {
+        return violations.stream().filter(violation -> violation.type() == type).toList();
+    }
+
+    private static <T> List<List<T>> batches(List<T> items) {
+        List<List<T>> batches = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += REPAIR_BATCH) {
+            batches.add(items.subList(from, Math.min(items.size(), from + REPAIR_BATCH)));
+        }
+        return batches;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @FunctionalInterface
+    private interface ChunkQuery<T> {
+        List<T> run(long from, long to);
+    }
+
+    // splits an inclusive id range in halves down to chunkSize; results keep id order
+    private final class ChunkScan<T> extends RecursiveTask<List<T>> {
+        private final long from;
+        private final long to;
+        private final ChunkQuery<T> query;
+
+        ChunkScan(long from, long to, ChunkQuery<T> query) {
+            this.from = from;
+            this.to = to;
+            this.query = query;
+        }
+
+        @Override
+        protected List<T> compute() {
+            if (to - from < chunkSize) {
+                pause();
+                return query.run(from, to);
+            }
+            long middle = from + (to - from) / 2;
+            ChunkScan<T> left = new ChunkScan<>(from, middle, query);
+            left.fork();
+            List<T> right = new ChunkScan<>(middle + 1, to, query).compute();
+            List<T> results = new ArrayList<>(left.join());
+            results.addAll(right);
+            return results;
+        }
+    }
+}
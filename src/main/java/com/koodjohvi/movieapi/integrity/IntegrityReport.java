@@ -0,0 +1,12 @@
+package com.koodjohvi.movieapi.integrity;
+
+import java.util.List;
+import java.util.Map;
+
+// violations lists at most MAX_REPORTED entries; counts are always complete
+public record IntegrityReport(boolean repair, long startedAt, long durationMillis,
+                              Map<ViolationType, Integer> counts, Map<ViolationType, Integer> repaired,
+                              List<IntegrityViolation> violations, boolean truncated) {
+
+    public static final int MAX_REPORTED = 1000;
+}
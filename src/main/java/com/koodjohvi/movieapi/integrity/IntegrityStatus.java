@@ -0,0 +1,3 @@
+package com.koodjohvi.movieapi.integrity;
+
+public record IntegrityStatus(boolean running, IntegrityReport lastReport) {}
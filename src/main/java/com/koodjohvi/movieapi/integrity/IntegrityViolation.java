@@ -0,0 +1,4 @@
+package com.koodjohvi.movieapi.integrity;
+
+// entityId is the row's own id (movie_id for join rows), relatedId the other side if any
+public record IntegrityViolation(ViolationType type, String table, long entityId, Long relatedId, String detail) {}
@@ -0,0 +1,12 @@
+package com.koodjohvi.movieapi.integrity;
+
+public enum ViolationType {
+    // movie_genres row whose movie or genre no longer exists
+    ORPHAN_MOVIE_GENRE,
+    // movie_actors row whose movie or actor no longer exists
+    ORPHAN_MOVIE_ACTOR,
+    // movie with no genre at all; reported only, a genre has to be picked by hand
+    MOVIE_WITHOUT_GENRE,
+    // genre whose name equals another genre's ignoring case; repaired by merging into the older one
+    DUPLICATE_GENRE_NAME
+}
@@ -0,0 +1,131 @@
+package com.koodjohvi.movieapi.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.koodjohvi.movieapi.entities.Actor;
+import com.koodjohvi.movieapi.entities.Genre;
+import com.koodjohvi.movieapi.entities.Movie;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Hand-written serializer for the hot movie read paths. Writes the same fields in the same
+// order as the reflective bean serializer, but skips property introspection and reuses
+// pre-encoded field names, genre names and birth-date strings.
+@JsonComponent
+public class MovieJsonSerializer extends JsonSerializer<Movie> {
+
+    // caches are only for low-cardinality values; cleared when full rather than evicted
+    private static final int MAX_CACHED_VALUES = 50_000;
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString TITLE = new SerializedString("title");
+    private static final SerializedString RELEASE_YEAR = new SerializedString("releaseYear");
+    private static final SerializedString DURATION = new SerializedString("duration");
+    private static final SerializedString GENRES = new SerializedString("genres");
+    private static final SerializedString ACTORS = new SerializedString("actors");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString BIRTH_DATE = new SerializedString("birthDate");
+
+    private final Map<String, SerializedString> genreNames = new ConcurrentHashMap<>();
+    private final Map<LocalDate, SerializedString> dates = new ConcurrentHashMap<>();
+
+    @Override
+    public void serialize(Movie movie, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(movie);
+        writeNumberField(gen, ID, movie.getId());
+        writeStringField(gen, TITLE, movie.getTitle());
+        writeNumberField(gen, RELEASE_YEAR, movie.getReleaseYear());
+        writeNumberField(gen, DURATION, movie.getDuration());
+
+        gen.writeFieldName(GENRES);
+        Set<Genre> genres = movie.getGenres();
+        if (genres == null) {
+            gen.writeNull();
+        } else {
+            gen.writeStartArray(genres, genres.size());
+            for (Genre genre : genres) {
+                gen.writeStartObject(genre);
+                writeNumberField(gen, ID, genre.getId());
+                gen.writeFieldName(NAME);
+                writeCached(gen, genreNames, genre.getName());
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+        }
+
+        gen.writeFieldName(ACTORS);
+        Set<Actor> actors = movie.getActors();
+        if (actors == null) {
+            gen.writeNull();
+        } else {
+            gen.writeStartArray(actors, actors.size());
+            for (Actor actor : actors) {
+                gen.writeStartObject(actor);
+                writeNumberField(gen, ID, actor.getId());
+                writeStringField(gen, NAME, actor.getName());
+                gen.writeFieldName(BIRTH_DATE);
+                writeCached(gen, dates, actor.getBirthDate());
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndObject();
+    }
+
+    @Override
+    public Class<Movie> handledType() {
+        return Movie.class;
+    }
+
+    private static void writeNumberField(JsonGenerator gen, SerializableString name, Long value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    private static void writeNumberField(JsonGenerator gen, SerializableString name, Integer value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    private static void writeStringField(JsonGenerator gen, SerializableString name, String value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(value);
+        }
+    }
+
+    // LocalDate.toString() is ISO-8601, which is what the JavaTimeModule writes with timestamps disabled
+    private static <K> void writeCached(JsonGenerator gen, Map<K, SerializedString> cache, K value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+            return;
+        }
+        SerializedString encoded = cache.get(value);
+        if (encoded == null) {
+            if (cache.size() >= MAX_CACHED_VALUES) {
+                cache.clear();
+            }
+            encoded = new SerializedString(value.toString());
+            cache.put(value, encoded);
+        }
+        gen.writeString(encoded);
+    }
+}
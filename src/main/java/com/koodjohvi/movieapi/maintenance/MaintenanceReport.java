@@ -0,0 +1,13 @@
+package com.koodjohvi.movieapi.maintenance;
+
+import java.util.List;
+
+// one maintenance pass: what ran, how long each step took, and representative query timings
+// (median microseconds) measured right before and right after
+public record MaintenanceReport(String trigger, long startedAt, long durationMillis,
+                                List<Step> steps, List<QueryTiming> queries) {
+
+    public record Step(String name, long durationMillis, String outcome) {}
+
+    public record QueryTiming(String query, long beforeMicros, long afterMicros) {}
+}
@@ -0,0 +1,4 @@
+package com.koodjohvi.movieapi.maintenance;
+
+public record MaintenanceStatus(boolean enabled, boolean running, double recentRequestsPerSecond,
+                                Long lastRunAt, MaintenanceReport lastReport) {}
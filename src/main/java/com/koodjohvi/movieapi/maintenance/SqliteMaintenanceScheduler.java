@@ -0,0 +1,297 @@
+package com.koodjohvi.movieapi.maintenance;
+
+import com.koodjohvi.movieapi.admission.BackgroundThrottle;
+import com.koodjohvi.movieapi.repositories.MovieRepository;
+import com.koodjohvi.movieapi.storage.CatalogStorage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+// Periodic SQLite upkeep: WAL checkpoint, ANALYZE, incremental vacuum and PRAGMA optimize.
+// A pass starts once it is due and the request rate (from the http.server.requests timers) has
+// been low for a whole check interval, or unconditionally once it is long overdue. Every step runs
+// with a short busy timeout, so a live write makes the step give up instead of queueing behind it.
+// Writers arriving during a step do wait for it, so the steps are kept small (ANALYZE per index,
+// vacuum in a few pages at a time) and the throttle spaces them out.
+@Service
+public class SqliteMaintenanceScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(SqliteMaintenanceScheduler.class);
+
+    private static final List<String> TABLES = List.of("movie", "actor", "genre", "movie_genres", "movie_actors",
+            "change_log");
+    private static final int BUSY_TIMEOUT_MILLIS = 250;
+    private static final int VACUUM_PAGES_PER_STEP = 256;
+    private static final int MAX_VACUUM_STEPS = 400;
+    private static final int PROBE_RUNS = 5;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MovieRepository movieRepository;
+    private final MeterRegistry meterRegistry;
+    private final BackgroundThrottle throttle;
+    private final boolean enabled;
+    private final boolean sharded;
+    private final double quietRequestsPerSecond;
+    private final Duration minInterval;
+    private final Duration maxInterval;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    // request-rate sampling, touched only by the scheduled check
+    private long lastRequestCount = -1;
+    private long lastSampleNanos;
+    private volatile double recentRequestsPerSecond;
+    private volatile Long lastRunAt;
+    private volatile MaintenanceReport lastReport;
+
+    public SqliteMaintenanceScheduler(JdbcTemplate jdbcTemplate, MovieRepository movieRepository,
+                                      MeterRegistry meterRegistry, BackgroundThrottle throttle,
+                                      @Value("${maintenance.enabled:true}") boolean enabled,
+                                      @Value("${catalog.storage:sqlite}") String storage,
+                                      @Value("${sharding.enabled:false}") boolean sharded,
+                                      @Value("${maintenance.quiet-requests-per-second:1}") double quietRequestsPerSecond,
+                                      @Value("${maintenance.min-interval-hours:6}") long minIntervalHours,
+                                      @Value("${maintenance.max-interval-hours:48}") long maxIntervalHours) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.movieRepository = movieRepository;
+        this.meterRegistry = meterRegistry;
+        this.throttle = throttle;
+        this.enabled = enabled && CatalogStorage.of(storage) == CatalogStorage.SQLITE;
+        this.sharded = sharded;
+        this.quietRequestsPerSecond = quietRequestsPerSecond;
+        this.minInterval = Duration.ofHours(minIntervalHours);
+        this.maxInterval = Duration.ofHours(maxIntervalHours);
+        // due once the first interval after startup has passed
+        this.lastRunAt = System.currentTimeMillis();
+    }
+
+    public MaintenanceStatus status() {
+        return new MaintenanceStatus(enabled, running.get(), recentRequestsPerSecond, lastRunAt, lastReport);
+    }
+
+    @Scheduled(fixedDelayString = "${maintenance.check-interval-ms:60000}")
+    public void checkForQuietPeriod() {
+        if (!enabled) {
+            return;
+        }
+        double rate = sampleRequestRate();
+        if (rate < 0) {
+            return;
+        }
+        long sinceLastRun = System.currentTimeMillis() - lastRunAt;
+        if (sinceLastRun >= maxInterval.toMillis()) {
+            start("overdue");
+        } else if (sinceLastRun >= minInterval.toMillis() && rate <= quietRequestsPerSecond) {
+            start("quiet");
+        }
+    }
+
+    // starts a pass in the background; false if one is running or the engine is not SQLite
+    public boolean start(String trigger) {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread worker = new Thread(() -> {
+            try {
+                lastReport = runMaintenance(trigger);
+                lastRunAt = System.currentTimeMillis();
+            } catch (RuntimeException e) {
+                log.error("SQLite maintenance failed", e);
+            } finally {
+                running.set(false);
+            }
+        }, "sqlite-maintenance");
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    MaintenanceReport runMaintenance(String trigger) {
+        long startedAt = System.currentTimeMillis();
+        long started = System.nanoTime();
+        List<Probe> probes = sharded ? List.of() : probes();
+        long[] before = probes.stream().mapToLong(Probe::medianMicros).toArray();
+
+        List<MaintenanceReport.Step> steps = new ArrayList<>();
+        steps.add(step("wal_checkpoint(PASSIVE)", statement -> {
+            try (ResultSet rs = statement.executeQuery("PRAGMA wal_checkpoint(PASSIVE)")) {
+                return rs.next() ? "busy=" + rs.getInt(1) + " log=" + rs.getInt(2) + " checkpointed=" + rs.getInt(3)
+                        : "done";
+            }
+        }));
+        for (String target : analyzeTargets()) {
+            steps.add(step("ANALYZE " + target, statement -> {
+                statement.execute("ANALYZE " + target);
+                return "done";
+            }));
+        }
+        steps.add(step("incremental_vacuum", this::incrementalVacuum));
+        steps.add(step("optimize", statement -> {
+            statement.execute("PRAGMA optimize");
+            return "done";
+        }));
+
+        List<MaintenanceReport.QueryTiming> timings = new ArrayList<>();
+        for (int i = 0; i < probes.size(); i++) {
+            timings.add(new MaintenanceReport.QueryTiming(probes.get(i).name(), before[i], probes.get(i).medianMicros()));
+        }
+        MaintenanceReport report = new MaintenanceReport(trigger, startedAt,
+                (System.nanoTime() - started) / 1_000_000, steps, timings);
+        log.info("SQLite maintenance ({}) finished in {} ms: {}", trigger, report.durationMillis(), steps);
+        return report;
+    }
+
+    // ANALYZE holds the write lock while it scans, so it goes index by index (a pause between
+    // each) rather than a table at a time; a table without indexes is one scan for its row count.
+    // PRAGMA analysis_limit would bound each scan further but needs SQLite 3.32.
+    private List<String> analyzeTargets() {
+        List<String> targets = new ArrayList<>();
+        for (String table : TABLES) {
+            List<String> indexes = jdbcTemplate.queryForList(
+                    "SELECT name FROM sqlite_master WHERE type = 'index' AND tbl_name = ? ORDER BY name", String.class, table);
+            if (indexes.isEmpty()) {
+                targets.add(table);
+            } else {
+                targets.addAll(indexes);
+            }
+        }
+        return targets;
+    }
+
+    // frees pages in small steps; a no-op unless the database was created with auto_vacuum=INCREMENTAL
+    private String incrementalVacuum(Statement statement) throws SQLException {
+        if (pragmaInt(statement, "auto_vacuum") != 2) {
+            return "skipped: auto_vacuum is not INCREMENTAL (freelist " + pragmaInt(statement, "freelist_count") + " pages)";
+        }
+        int freed = 0;
+        for (int i = 0; i < MAX_VACUUM_STEPS; i++) {
+            int free = pragmaInt(statement, "freelist_count");
+            if (free == 0) {
+                break;
+            }
+            if (statement.execute("PRAGMA incremental_vacuum(" + VACUUM_PAGES_PER_STEP + ")")) {
+                try (ResultSet rs = statement.getResultSet()) {
+                    while (rs.next()) {
+                        // each row is one freed page
+                    }
+                }
+            }
+            freed += free - pragmaInt(statement, "freelist_count");
+            pause();
+        }
+        return "freed " + freed + " pages";
+    }
+
+    // runs one step on its own connection; a busy database skips the step rather than waiting on writers
+    private MaintenanceReport.Step step(String name, SqlStep step) {
+        pause();
+        long started = System.nanoTime();
+        String outcome;
+        try {
+            outcome = jdbcTemplate.execute((ConnectionCallback<String>) connection -> runWithBusyTimeout(connection, step));
+        } catch (RuntimeException e) {
+            outcome = "skipped: " + e.getMessage();
+        }
+        return new MaintenanceReport.Step(name, (System.nanoTime() - started) / 1_000_000, outcome);
+    }
+
+    private static String runWithBusyTimeout(Connection connection, SqlStep step) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            int previous = pragmaInt(statement, "busy_timeout");
+            statement.execute("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MILLIS);
+            try {
+                return step.run(statement);
+            } finally {
+                statement.execute("PRAGMA busy_timeout = " + previous);
+            }
+        }
+    }
+
+    private static int pragmaInt(Statement statement, String pragma) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("PRAGMA " + pragma)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    // requests per second since the previous sample, or -1 on the first sample
+    private double sampleRequestRate() {
+        long count = meterRegistry.find("http.server.requests").timers().stream().mapToLong(Timer::count).sum();
+        long now = System.nanoTime();
+        double rate = -1;
+        if (lastRequestCount >= 0) {
+            rate = (count - lastRequestCount) / ((now - lastSampleNanos) / 1e9);
+            recentRequestsPerSecond = rate;
+        }
+        lastRequestCount = count;
+        lastSampleNanos = now;
+        return rate;
+    }
+
+    // representative MovieRepository reads, parameterised from the data that is there
+    private List<Probe> probes() {
+        Long genreId = jdbcTemplate.queryForObject("SELECT MIN(genre_id) FROM movie_genres", Long.class);
+        Long actorId = jdbcTemplate.queryForObject("SELECT MIN(actor_id) FROM movie_actors", Long.class);
+        Integer year = jdbcTemplate.queryForObject("SELECT MAX(release_year) FROM movie", Integer.class);
+        PageRequest page = PageRequest.of(0, 20);
+
+        List<Probe> probes = new ArrayList<>();
+        probes.add(new Probe("count", () -> movieRepository.count()));
+        probes.add(new Probe("findByTitleContainingIgnoreCase", () ->
+                movieRepository.findByTitleContainingIgnoreCase("the", page)));
+        if (genreId != null) {
+            probes.add(new Probe("findByGenresId", () -> movieRepository.findByGenresId(genreId, page)));
+        }
+        if (actorId != null) {
+            probes.add(new Probe("findByActorsId", () -> movieRepository.findByActorsId(actorId, page)));
+        }
+        if (year != null) {
+            probes.add(new Probe("findByReleaseYear", () -> movieRepository.findByReleaseYear(year, page)));
+        }
+        return probes;
+    }
+
+    private void pause() {
+        try {
+            throttle.pause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("SQLite maintenance interrupted", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlStep {
+        String run(Statement statement) throws SQLException;
+    }
+
+    private record Probe(String name, Supplier<?> query) {
+        long medianMicros() {
+            query.get();
+            long[] runs = new long[PROBE_RUNS];
+            for (int i = 0; i < runs.length; i++) {
+                long started = System.nanoTime();
+                query.get();
+                runs[i] = (System.nanoTime() - started) / 1_000;
+            }
+            Arrays.sort(runs);
+            return runs[runs.length / 2];
+        }
+    }
+}
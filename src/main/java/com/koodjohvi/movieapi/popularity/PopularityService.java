@@ -0,0 +1,287 @@
+package com.koodjohvi.movieapi.popularity;
+
+import com.koodjohvi.movieapi.events.CatalogChangeEvent;
+import com.koodjohvi.movieapi.events.CatalogChangeType;
+import com.koodjohvi.movieapi.events.CatalogEntityType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.JpaSort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// View counters for movies and actors. A read only bumps a LongAdder for the entity, so hot
+// entities don't contend on one counter and nothing touches the database on the read path.
+// On a schedule the adders are drained and the changed rows written to the popularity table
+// in one batched transaction, keeping the single SQLite writer busy once per interval.
+//
+// Popularity is forward-decayed: a view at time t weighs e^(lambda * t) with lambda = ln 2 /
+// half-life, and the score is kept as a log so the weights never overflow. Scores never
+// need rewriting as time passes; ordering by log score is ordering by the decayed view count.
+@Service
+public class PopularityService {
+
+    private static final Logger log = LoggerFactory.getLogger(PopularityService.class);
+
+    public static final String SORT_PROPERTY = "popularity";
+    public static final int MAX_TRENDING = 100;
+    private static final int WRITE_BATCH = 500;
+    private static final List<CatalogEntityType> COUNTED = List.of(CatalogEntityType.MOVIE, CatalogEntityType.ACTOR);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final double lambdaPerMilli;
+
+    private final Map<CatalogEntityType, Counts> counts = new EnumMap<>(CatalogEntityType.class);
+    // one flush or reload at a time; held across the database work, unlike the service lock
+    private final Object flushLock = new Object();
+    // false until the table has been read, so the first flush knows which rows exist
+    private volatile boolean loaded;
+
+    public PopularityService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             @Value("${popularity.half-life-hours:24}") double halfLifeHours) {
+        if (halfLifeHours <= 0) {
+            throw new IllegalArgumentException("popularity.half-life-hours must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lambdaPerMilli = Math.log(2) / (halfLifeHours * 3_600_000);
+        for (CatalogEntityType type : COUNTED) {
+            counts.put(type, new Counts());
+        }
+    }
+
+    public void recordView(CatalogEntityType type, long id) {
+        counts.get(type).pending.computeIfAbsent(id, k -> new LongAdder()).increment();
+    }
+
+    // ids by current popularity, most popular first
+    public List<Long> trending(CatalogEntityType type, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        List<Long> trending = counts.get(type).trending;
+        return trending.subList(0, Math.min(limit, trending.size()));
+    }
+
+    public boolean isPopularitySort(Pageable pageable) {
+        return pageable.getSort().getOrderFor(SORT_PROPERTY) != null;
+    }
+
+    // the same page without the popularity order, for fetching the rows to rank
+    public Pageable withoutPopularitySort(Pageable pageable) {
+        Sort rest = Sort.by(pageable.getSort().stream().filter(order -> !SORT_PROPERTY.equals(order.getProperty())).toList());
+        return pageable.isPaged() ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), rest)
+                : Pageable.unpaged(rest);
+    }
+
+    // The same page sorted by the popularity row the repositories' *OrderByPopularity queries join
+    // as "p", ties by id. A never viewed entity has no row and its NULL score sorts as the least
+    // popular, as in sortByPopularity.
+    public Pageable scoreSorted(Pageable pageable) {
+        Sort.Direction direction = pageable.getSort().getOrderFor(SORT_PROPERTY).getDirection();
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                JpaSort.unsafe(direction, "p.logScore").and(Sort.by("id")));
+    }
+
+    // Orders a full, unpaginated result list by popularity (as of the last flush; never viewed
+    // counts as least popular, ties by id). Pages are ordered by the database instead.
+    public <T> List<T> sortByPopularity(List<T> items, Function<T, Long> idOf, CatalogEntityType type,
+                                        Pageable pageable) {
+        Map<Long, Double> scores = counts.get(type).logScores;
+        Comparator<T> byScore = Comparator.comparingDouble(item -> scores.getOrDefault(idOf.apply(item), Double.NEGATIVE_INFINITY));
+        if (pageable.getSort().getOrderFor(SORT_PROPERTY).isDescending()) {
+            byScore = byScore.reversed();
+        }
+        List<T> sorted = new ArrayList<>(items);
+        sorted.sort(byScore.thenComparing(idOf));
+        return sorted;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        synchronized (flushLock) {
+            Map<CatalogEntityType, Map<Long, Long>> views = new EnumMap<>(CatalogEntityType.class);
+            Map<CatalogEntityType, Map<Long, Double>> logScores = new EnumMap<>(CatalogEntityType.class);
+            for (CatalogEntityType type : COUNTED) {
+                views.put(type, new HashMap<>());
+                logScores.put(type, new HashMap<>());
+            }
+            jdbcTemplate.query("SELECT entity_type, entity_id, views, log_score FROM popularity", rs -> {
+                CatalogEntityType type = CatalogEntityType.valueOf(rs.getString(1));
+                if (views.containsKey(type)) {
+                    views.get(type).put(rs.getLong(2), rs.getLong(3));
+                    logScores.get(type).put(rs.getLong(2), rs.getDouble(4));
+                }
+            });
+            synchronized (this) {
+                for (CatalogEntityType type : COUNTED) {
+                    Counts typeCounts = counts.get(type);
+                    typeCounts.views.clear();
+                    typeCounts.views.putAll(views.get(type));
+                    typeCounts.logScores.clear();
+                    typeCounts.logScores.putAll(logScores.get(type));
+                    // rows still waiting to be deleted stay out of the rankings
+                    for (Long id : typeCounts.deleted) {
+                        typeCounts.views.remove(id);
+                        typeCounts.logScores.remove(id);
+                    }
+                    typeCounts.rank();
+                }
+            }
+            loaded = true;
+        }
+    }
+
+    // deleted entities leave the rankings; their rows are removed with the next flush
+    @TransactionalEventListener
+    public synchronized void onCatalogChange(CatalogChangeEvent event) {
+        Counts typeCounts = counts.get(event.entityType());
+        if (event.changeType() != CatalogChangeType.DELETED || typeCounts == null) {
+            return;
+        }
+        typeCounts.pending.remove(event.entityId());
+        typeCounts.deleted.add(event.entityId());
+    }
+
+    // The rows to write are worked out and the mirror updated under the service lock; the
+    // transaction runs outside it, so deletes arriving meanwhile don't wait on the database.
+    @Scheduled(fixedDelayString = "${popularity.flush-interval-ms:10000}")
+    public void flush() {
+        synchronized (flushLock) {
+            if (!loaded) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            List<Object[]> inserts = new ArrayList<>();
+            List<Object[]> updates = new ArrayList<>();
+            Map<CatalogEntityType, Set<Long>> deleted = new EnumMap<>(CatalogEntityType.class);
+            synchronized (this) {
+                collect(now, inserts, updates, deleted);
+            }
+            List<Object[]> deletes = new ArrayList<>();
+            deleted.forEach((type, ids) -> ids.forEach(id -> deletes.add(new Object[] {type.name(), id})));
+            if (inserts.isEmpty() && updates.isEmpty() && deletes.isEmpty()) {
+                return;
+            }
+
+            long started = System.nanoTime();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    write("INSERT INTO popularity (entity_type, entity_id, views, log_score, updated_at) VALUES (?, ?, ?, ?, ?)",
+                            inserts);
+                    write("UPDATE popularity SET views = ?, log_score = ?, updated_at = ? WHERE entity_type = ? AND entity_id = ?",
+                            updates);
+                    write("DELETE FROM popularity WHERE entity_type = ? AND entity_id = ?", deletes);
+                });
+            } catch (RuntimeException e) {
+                // this interval's views are dropped and the mirror goes back to what the table
+                // holds; the deletes are queued again for the next flush
+                log.warn("Popularity flush failed, reloading from the table", e);
+                synchronized (this) {
+                    deleted.forEach((type, ids) -> counts.get(type).deleted.addAll(ids));
+                }
+                load();
+                return;
+            }
+            log.debug("Flushed popularity: {} new, {} updated, {} deleted in {} ms", inserts.size(), updates.size(),
+                    deletes.size(), (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    // drains the pending views and deletes into rows to write, applying them to the mirror
+    private void collect(long now, List<Object[]> inserts, List<Object[]> updates,
+                         Map<CatalogEntityType, Set<Long>> deleted) {
+        double logWeightNow = lambdaPerMilli * now;
+        for (CatalogEntityType type : COUNTED) {
+            Counts typeCounts = counts.get(type);
+            boolean changed = !typeCounts.deleted.isEmpty();
+            for (Long id : typeCounts.deleted) {
+                typeCounts.views.remove(id);
+                typeCounts.logScores.remove(id);
+            }
+            deleted.put(type, new HashSet<>(typeCounts.deleted));
+            typeCounts.deleted.clear();
+
+            for (Map.Entry<Long, LongAdder> entry : typeCounts.pending.entrySet()) {
+                long added = entry.getValue().sumThenReset();
+                if (added == 0) {
+                    // idle since the last flush; a view racing with this removal is lost
+                    typeCounts.pending.remove(entry.getKey(), entry.getValue());
+                    continue;
+                }
+                long id = entry.getKey();
+                Long views = typeCounts.views.get(id);
+                double logScore = logAdd(typeCounts.logScores.getOrDefault(id, Double.NEGATIVE_INFINITY),
+                        Math.log(added) + logWeightNow);
+                if (views == null) {
+                    inserts.add(new Object[] {type.name(), id, added, logScore, now});
+                    views = 0L;
+                } else {
+                    updates.add(new Object[] {views + added, logScore, now, type.name(), id});
+                }
+                typeCounts.views.put(id, views + added);
+                typeCounts.logScores.put(id, logScore);
+                changed = true;
+            }
+            if (changed) {
+                typeCounts.rank();
+            }
+        }
+    }
+
+    private void write(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += WRITE_BATCH) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + WRITE_BATCH, rows.size())));
+        }
+    }
+
+    // ln(e^a + e^b) without overflow
+    private static double logAdd(double a, double b) {
+        double max = Math.max(a, b);
+        if (max == Double.NEGATIVE_INFINITY) {
+            return max;
+        }
+        return max + Math.log1p(Math.exp(Math.min(a, b) - max));
+    }
+
+    private static final class Counts {
+        final ConcurrentHashMap<Long, LongAdder> pending = new ConcurrentHashMap<>();
+        // flushed state, mirrored from the table; written under the service lock
+        final Map<Long, Long> views = new HashMap<>();
+        final Map<Long, Double> logScores = new ConcurrentHashMap<>();
+        final Set<Long> deleted = new HashSet<>();
+        volatile List<Long> trending = List.of();
+
+        // top MAX_TRENDING by log score with a bounded min-heap
+        void rank() {
+            PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+            for (Map.Entry<Long, Double> entry : logScores.entrySet()) {
+                top.add(Map.entry(entry.getKey(), entry.getValue()));
+                if (top.size() > MAX_TRENDING) {
+                    top.poll();
+                }
+            }
+            List<Long> ranked = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                ranked.add(top.poll().getKey());
+            }
+            Collections.reverse(ranked);
+            trending = List.copyOf(ranked);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.koodjohvi.movieapi.profiling;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Optional;
+
+// JFR events around service methods and repository queries. When no recording has them
+// enabled, the advice is an isEnabled() check and a direct proceed.
+@Aspect
+@Component
+public class JfrAspect {
+
+    @Around("@within(org.springframework.stereotype.Service) && within(com.koodjohvi.movieapi..*)")
+    public Object serviceCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        ServiceCallEvent event = new ServiceCallEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        event.begin();
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            event.failed = true;
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.service = joinPoint.getSignature().getDeclaringType().getSimpleName();
+                event.method = joinPoint.getSignature().getName();
+                event.commit();
+            }
+        }
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object repositoryQuery(ProceedingJoinPoint joinPoint) throws Throwable {
+        RepositoryQueryEvent event = new RepositoryQueryEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        Object result = null;
+        event.begin();
+        try {
+            result = joinPoint.proceed();
+            return result;
+        } catch (Throwable e) {
+            event.failed = true;
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+                Query query = AnnotationUtils.findAnnotation(method, Query.class);
+                // the proxy's first interface is the application repository, also for inherited methods
+                Class<?>[] interfaces = joinPoint.getThis().getClass().getInterfaces();
+                event.repository = (interfaces.length > 0 ? interfaces[0] : method.getDeclaringClass()).getSimpleName();
+                event.method = method.getName();
+                event.statement = query != null ? query.value() : method.getName();
+                event.rows = event.failed ? -1 : rows(result);
+                event.commit();
+            }
+        }
+    }
+
+    private static int rows(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        return result != null ? 1 : -1;
+    }
+}
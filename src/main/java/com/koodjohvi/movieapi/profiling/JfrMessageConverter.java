@@ -0,0 +1,91 @@
+package com.koodjohvi.movieapi.profiling;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.koodjohvi.movieapi.entities.Movie;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+
+// The application's JSON converter (Boot backs off from its own when one is defined). Large
+// movie lists are written through a byte counter inside a movieapi.MovieSerialization event;
+// everything else, and everything while no recording is on, goes straight to Jackson.
+@Component
+public class JfrMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final int minMovies;
+
+    public JfrMessageConverter(ObjectMapper objectMapper,
+                               @Value("${jfr.serialization.min-movies:100}") int minMovies) {
+        super(objectMapper);
+        this.minMovies = minMovies;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        int movies = movieCount(object);
+        MovieSerializationEvent event = new MovieSerializationEvent();
+        if (movies < minMovies || !event.isEnabled()) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        CountingOutputStream body = new CountingOutputStream(outputMessage.getBody());
+        event.begin();
+        try {
+            super.writeInternal(object, type, new HttpOutputMessage() {
+                @Override
+                public OutputStream getBody() {
+                    return body;
+                }
+
+                @Override
+                public HttpHeaders getHeaders() {
+                    return outputMessage.getHeaders();
+                }
+            });
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.movies = movies;
+                event.bytes = body.count;
+                event.commit();
+            }
+        }
+    }
+
+    private static int movieCount(Object object) {
+        List<?> items = object instanceof List<?> list ? list
+                : object instanceof Slice<?> slice ? slice.getContent() : List.of();
+        return !items.isEmpty() && items.get(0) instanceof Movie ? items.size() : 0;
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.koodjohvi.movieapi.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+
+// One bounded JFR recording at a time: the application events at zero threshold, optionally
+// on top of the JDK "default" settings (GC, locks, I/O, sampled stacks). The recording stops
+// itself after its duration and keeps at most its size on disk, and stays downloadable after
+// stopping until the next one starts.
+@Service
+public class JfrRecordingService {
+
+    private static final List<Class<? extends Event>> EVENTS = List.of(RequestEvent.class, ServiceCallEvent.class,
+            RepositoryQueryEvent.class, MovieSerializationEvent.class);
+
+    private final Duration maxDuration;
+    private final long maxSizeBytes;
+
+    private Recording recording;
+    private boolean jdkEvents;
+
+    public JfrRecordingService(@Value("${jfr.max-duration-seconds:300}") long maxDurationSeconds,
+                               @Value("${jfr.max-size-mb:100}") long maxSizeMb) {
+        this.maxDuration = Duration.ofSeconds(maxDurationSeconds);
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+    }
+
+    public synchronized RecordingStatus status() {
+        if (recording == null) {
+            return new RecordingStatus("NONE", null, null, maxDuration.toSeconds(), maxSizeBytes, false, 0);
+        }
+        return new RecordingStatus(recording.getState().name(),
+                recording.getStartTime() != null ? recording.getStartTime().toEpochMilli() : null,
+                recording.getStopTime() != null ? recording.getStopTime().toEpochMilli() : null,
+                recording.getDuration().toSeconds(), recording.getMaxSize(), jdkEvents, recording.getSize());
+    }
+
+    // starts a new recording, discarding the previous one; false if one is still running
+    public synchronized boolean start(Long durationSeconds, boolean withJdkEvents) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return false;
+        }
+        Duration duration = durationSeconds == null ? maxDuration : Duration.ofSeconds(durationSeconds);
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(maxDuration) > 0) {
+            throw new IllegalArgumentException("Duration must be between 1 and " + maxDuration.toSeconds() + " seconds");
+        }
+        if (recording != null) {
+            recording.close();
+        }
+
+        Recording next;
+        try {
+            next = withJdkEvents ? new Recording(Configuration.getConfiguration("default")) : new Recording();
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Could not load the JDK default JFR configuration", e);
+        }
+        for (Class<? extends Event> event : EVENTS) {
+            next.enable(event).withThreshold(Duration.ZERO);
+        }
+        next.setName("movieapi");
+        next.setToDisk(true);
+        next.setDuration(duration);
+        next.setMaxSize(maxSizeBytes);
+        next.start();
+        recording = next;
+        jdkEvents = withJdkEvents;
+        return true;
+    }
+
+    // false if nothing is running
+    public synchronized boolean stop() {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            return false;
+        }
+        recording.stop();
+        return true;
+    }
+
+    // a snapshot of the current recording as a .jfr stream (the temp file goes away on close), or null
+    public synchronized InputStream download() throws IOException {
+        if (recording == null || recording.getState() == RecordingState.NEW
+                || recording.getState() == RecordingState.CLOSED) {
+            return null;
+        }
+        Path file = Files.createTempFile("movieapi-", ".jfr");
+        recording.dump(file);
+        return Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE);
+    }
+}
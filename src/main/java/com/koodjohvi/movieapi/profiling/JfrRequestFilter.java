@@ -0,0 +1,44 @@
+package com.koodjohvi.movieapi.profiling;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// outermost filter: one movieapi.Request event per request, covering admission, handler and serialization
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class JfrRequestFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestEvent event = new RequestEvent();
+        if (!event.isEnabled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        event.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                event.method = request.getMethod();
+                event.pathPattern = pattern != null ? pattern.toString() : null;
+                event.uri = request.getRequestURI();
+                event.query = request.getQueryString();
+                event.status = response.getStatus();
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.koodjohvi.movieapi.profiling;
+
+import jdk.jfr.*;
+
+@Name("movieapi.MovieSerialization")
+@Label("Movie List Serialization")
+@Category({"Movie API", "Web"})
+@StackTrace(false)
+class MovieSerializationEvent extends Event {
+    @Label("Movies")
+    int movies;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+}
@@ -0,0 +1,5 @@
+package com.koodjohvi.movieapi.profiling;
+
+// state is NEW, RUNNING, STOPPED or CLOSED (jdk.jfr.RecordingState), or NONE before the first start
+public record RecordingStatus(String state, Long startedAt, Long stoppedAt, long maxDurationSeconds,
+                              long maxSizeBytes, boolean jdkEvents, long sizeBytes) {}
@@ -0,0 +1,26 @@
+package com.koodjohvi.movieapi.profiling;
+
+import jdk.jfr.*;
+
+@Name("movieapi.RepositoryQuery")
+@Label("Repository Query")
+@Category({"Movie API", "Database"})
+@StackTrace(false)
+class RepositoryQueryEvent extends Event {
+    @Label("Repository")
+    String repository;
+
+    @Label("Method")
+    String method;
+
+    // the @Query text, or the derived query method name
+    @Label("Statement")
+    String statement;
+
+    // elements returned (page content for a Page, 0/1 for Optional), -1 when not a result set
+    @Label("Rows")
+    int rows;
+
+    @Label("Failed")
+    boolean failed;
+}
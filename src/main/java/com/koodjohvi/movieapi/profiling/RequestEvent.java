@@ -0,0 +1,25 @@
+package com.koodjohvi.movieapi.profiling;
+
+import jdk.jfr.*;
+
+@Name("movieapi.Request")
+@Label("HTTP Request")
+@Category({"Movie API", "Web"})
+@StackTrace(false)
+class RequestEvent extends Event {
+    @Label("Method")
+    String method;
+
+    // the matched mapping, e.g. /api/movies/{id}, so outliers group by endpoint
+    @Label("Path Pattern")
+    String pathPattern;
+
+    @Label("URI")
+    String uri;
+
+    @Label("Query")
+    String query;
+
+    @Label("Status")
+    int status;
+}
@@ -0,0 +1,18 @@
+package com.koodjohvi.movieapi.profiling;
+
+import jdk.jfr.*;
+
+@Name("movieapi.ServiceCall")
+@Label("Service Call")
+@Category({"Movie API", "Service"})
+@StackTrace(false)
+class ServiceCallEvent extends Event {
+    @Label("Service")
+    String service;
+
+    @Label("Method")
+    String method;
+
+    @Label("Failed")
+    boolean failed;
+}
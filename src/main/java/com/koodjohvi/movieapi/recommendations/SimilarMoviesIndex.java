@@ -0,0 +1,401 @@
+package com.koodjohvi.movieapi.recommendations;
+
+import com.koodjohvi.movieapi.events.CatalogBulkChangeEvent;
+import com.koodjohvi.movieapi.events.CatalogChangeEvent;
+import com.koodjohvi.movieapi.events.CatalogChangeType;
+import com.koodjohvi.movieapi.events.CatalogEntityType;
+import com.koodjohvi.movieapi.events.MovieSnapshot;
+import com.koodjohvi.movieapi.repositories.MovieStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// "More like this": movies ranked by weighted overlap of actors and genres with a given movie.
+// The movie_actors/movie_genres join tables are held as one bitset of movie slots per actor
+// and per genre. Scoring walks the bitsets of the movie's own actors (an actor is on few
+// movies) and scores those candidates' genre overlap directly; movies sharing only genres come
+// from a walk of the genre bitsets capped at MAX_GENRE_SCANNED, since a genre holds a large
+// share of the catalog.
+// Ranked lists are cached per movie; a change to one movie drops only the cached lists it
+// could enter or leave.
+@Service
+public class SimilarMoviesIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(SimilarMoviesIndex.class);
+
+    // ranked list length computed and cached per movie
+    public static final int MAX_SIMILAR = 50;
+    private static final long[] NONE = new long[0];
+    // genre bitset entries visited per ranking when filling in genre-only matches
+    private static final int MAX_GENRE_SCANNED = 20_000;
+
+    private final MovieStore movieStore;
+    private final int actorWeight;
+    private final int genreWeight;
+    private final int maxCachedMovies;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // all index state below is guarded by lock
+    private final Map<Long, Integer> slotsByMovie = new HashMap<>();
+    private final Map<Long, BitSet> moviesByActor = new HashMap<>();
+    private final Map<Long, BitSet> moviesByGenre = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private long[] movieIds = new long[16];
+    private long[][] actorsBySlot = new long[16][];
+    private long[][] genresBySlot = new long[16][];
+    private int slotCount;
+    // changes committed while a rebuild reads the database, replayed once it is done
+    private List<CatalogChangeEvent> pendingChanges;
+
+    // guarded by itself; written under the read lock, invalidated under the write lock
+    private final Map<Long, Ranked> cache;
+
+    private record Ranked(long[] movieIds, int lowestScore) {
+        boolean full() {
+            return movieIds.length == MAX_SIMILAR;
+        }
+    }
+
+    private record Candidate(int slot, int score) {}
+
+    public SimilarMoviesIndex(MovieStore movieStore,
+                              @Value("${similar.weight.actor:3}") int actorWeight,
+                              @Value("${similar.weight.genre:1}") int genreWeight,
+                              @Value("${similar.cache.max-movies:10000}") int maxCachedMovies) {
+        this.movieStore = movieStore;
+        this.actorWeight = actorWeight;
+        this.genreWeight = genreWeight;
+        this.maxCachedMovies = maxCachedMovies;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Ranked> eldest) {
+                return size() > SimilarMoviesIndex.this.maxCachedMovies;
+            }
+        };
+    }
+
+    // ids of the most similar movies, best first; empty if the movie is not indexed (yet)
+    public Optional<List<Long>> similarTo(long movieId, int limit) {
+        Ranked ranked;
+        synchronized (cache) {
+            ranked = cache.get(movieId);
+        }
+        if (ranked == null) {
+            lock.readLock().lock();
+            try {
+                Integer slot = slotsByMovie.get(movieId);
+                if (slot == null) {
+                    return Optional.empty();
+                }
+                ranked = rank(slot);
+                synchronized (cache) {
+                    cache.put(movieId, ranked);
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<Long> ids = new ArrayList<>(Math.min(limit, ranked.movieIds().length));
+        for (int i = 0; i < ranked.movieIds().length && ids.size() < limit; i++) {
+            ids.add(ranked.movieIds()[i]);
+        }
+        return Optional.of(ids);
+    }
+
+    @TransactionalEventListener
+    public void onCatalogChange(CatalogChangeEvent event) {
+        lock.writeLock().lock();
+        try {
+            apply(event);
+            if (pendingChanges != null) {
+                pendingChanges.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener({ApplicationReadyEvent.class, CatalogBulkChangeEvent.class})
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<Long, List<Long>> actors = new HashMap<>();
+        Map<Long, List<Long>> genres = new HashMap<>();
+        List<Long> movies = new ArrayList<>();
+        try {
+            for (Object[] row : movieStore.findAllIdsAndTitles()) {
+                movies.add(((Number) row[0]).longValue());
+            }
+            for (Object[] row : movieStore.findAllMovieActorIds()) {
+                actors.computeIfAbsent(((Number) row[0]).longValue(), id -> new ArrayList<>())
+                        .add(((Number) row[1]).longValue());
+            }
+            for (Object[] row : movieStore.findAllMovieGenreIds()) {
+                genres.computeIfAbsent(((Number) row[0]).longValue(), id -> new ArrayList<>())
+                        .add(((Number) row[1]).longValue());
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            clear();
+            for (Long movieId : movies) {
+                index(movieId, toArray(actors.get(movieId)), toArray(genres.get(movieId)));
+            }
+            for (CatalogChangeEvent event : pendingChanges) {
+                apply(event);
+            }
+            pendingChanges = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Indexed actors and genres of {} movies for similarity in {} ms", movies.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private Ranked rank(int slot) {
+        long[] genres = genresBySlot[slot];
+        // shared actors per candidate slot
+        Map<Integer, Integer> sharedActors = new HashMap<>();
+        for (long actor : actorsBySlot[slot]) {
+            BitSet movies = moviesByActor.get(actor);
+            if (movies == null) {
+                continue;
+            }
+            for (int candidate = movies.nextSetBit(0); candidate >= 0; candidate = movies.nextSetBit(candidate + 1)) {
+                if (candidate != slot) {
+                    sharedActors.merge(candidate, 1, Integer::sum);
+                }
+            }
+        }
+
+        // min-heap of the best MAX_SIMILAR, weakest on top; ties go to the lower id
+        PriorityQueue<Candidate> best = new PriorityQueue<>(Comparator.comparingInt(Candidate::score)
+                .thenComparing(Comparator.<Candidate>comparingLong(c -> movieIds[c.slot()]).reversed()));
+        for (Map.Entry<Integer, Integer> shared : sharedActors.entrySet()) {
+            int candidate = shared.getKey();
+            offer(best, new Candidate(candidate,
+                    actorWeight * shared.getValue() + genreWeight * overlap(genresBySlot[candidate], genres)));
+        }
+
+        // a genre-only match scores at most genreWeight per genre; skip the walk if that can't place
+        boolean genreOnlyCanPlace = best.size() < MAX_SIMILAR || best.peek().score() <= genreWeight * genres.length;
+        int scanned = 0;
+        for (int g = 0; g < genres.length && genreOnlyCanPlace && scanned < MAX_GENRE_SCANNED; g++) {
+            BitSet movies = moviesByGenre.get(genres[g]);
+            if (movies == null) {
+                continue;
+            }
+            for (int candidate = movies.nextSetBit(0); candidate >= 0 && scanned++ < MAX_GENRE_SCANNED;
+                 candidate = movies.nextSetBit(candidate + 1)) {
+                if (candidate != slot && !sharedActors.containsKey(candidate) && !inEarlierGenre(candidate, genres, g)) {
+                    offer(best, new Candidate(candidate, genreWeight * overlap(genresBySlot[candidate], genres)));
+                }
+            }
+        }
+
+        long[] ranked = new long[best.size()];
+        int lowestScore = best.isEmpty() ? 0 : best.peek().score();
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = movieIds[best.poll().slot()];
+        }
+        return new Ranked(ranked, lowestScore);
+    }
+
+    private static void offer(PriorityQueue<Candidate> best, Candidate candidate) {
+        best.add(candidate);
+        if (best.size() > MAX_SIMILAR) {
+            best.poll();
+        }
+    }
+
+    // a movie with several of the genres is scored once, from the first genre it is found under
+    private boolean inEarlierGenre(int candidate, long[] genres, int g) {
+        for (int i = 0; i < g; i++) {
+            BitSet movies = moviesByGenre.get(genres[i]);
+            if (movies != null && movies.get(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void apply(CatalogChangeEvent event) {
+        if (event.changeType() == CatalogChangeType.RELATIONSHIPS_CLEARED) {
+            // a force-deleted actor or genre leaves every movie it was on; the movie's own
+            // clears are followed by its DELETED event
+            if (event.entityType() == CatalogEntityType.ACTOR) {
+                dropFeature(moviesByActor.remove(event.entityId()), event.entityId(), true);
+            } else if (event.entityType() == CatalogEntityType.GENRE) {
+                dropFeature(moviesByGenre.remove(event.entityId()), event.entityId(), false);
+            }
+            return;
+        }
+        if (event.entityType() != CatalogEntityType.MOVIE) {
+            return;
+        }
+
+        MovieSnapshot before = (MovieSnapshot) event.before();
+        MovieSnapshot after = (MovieSnapshot) event.after();
+        long movieId = event.entityId();
+        long[] newActors = after == null ? NONE : toArray(after.actorIds());
+        long[] newGenres = after == null ? NONE : toArray(after.genreIds());
+        Integer slot = slotsByMovie.get(movieId);
+        long[] oldActors = slot == null ? NONE : actorsBySlot[slot];
+        long[] oldGenres = slot == null ? NONE : genresBySlot[slot];
+
+        if (before != null && after != null && Arrays.equals(oldActors, newActors) && Arrays.equals(oldGenres, newGenres)) {
+            // title, year or duration only: the rankings are unchanged
+            return;
+        }
+        invalidate(movieId, oldActors, oldGenres, newActors, newGenres);
+        unindex(movieId);
+        if (after != null) {
+            index(movieId, newActors, newGenres);
+        }
+    }
+
+    // a cached list can only change if the movie scores against it at least as high as its
+    // weakest entry (or the list has room), before or after the change
+    private void invalidate(long movieId, long[] oldActors, long[] oldGenres, long[] newActors, long[] newGenres) {
+        synchronized (cache) {
+            Iterator<Map.Entry<Long, Ranked>> entries = cache.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<Long, Ranked> entry = entries.next();
+                Integer cachedSlot = slotsByMovie.get(entry.getKey());
+                if (entry.getKey() == movieId || cachedSlot == null) {
+                    entries.remove();
+                    continue;
+                }
+                long[] actors = actorsBySlot[cachedSlot];
+                long[] genres = genresBySlot[cachedSlot];
+                int score = Math.max(
+                        actorWeight * overlap(actors, oldActors) + genreWeight * overlap(genres, oldGenres),
+                        actorWeight * overlap(actors, newActors) + genreWeight * overlap(genres, newGenres));
+                Ranked ranked = entry.getValue();
+                if (score > 0 && (!ranked.full() || score >= ranked.lowestScore())) {
+                    entries.remove();
+                }
+            }
+        }
+    }
+
+    private void dropFeature(BitSet movies, long featureId, boolean actor) {
+        if (movies == null) {
+            return;
+        }
+        for (int slot = movies.nextSetBit(0); slot >= 0; slot = movies.nextSetBit(slot + 1)) {
+            if (actor) {
+                actorsBySlot[slot] = Arrays.stream(actorsBySlot[slot]).filter(id -> id != featureId).toArray();
+            } else {
+                genresBySlot[slot] = Arrays.stream(genresBySlot[slot]).filter(id -> id != featureId).toArray();
+            }
+        }
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private void index(long movieId, long[] actors, long[] genres) {
+        int slot = freeSlots.isEmpty() ? slotCount++ : freeSlots.pop();
+        if (slot >= movieIds.length) {
+            int grown = Math.max(slot + 1, movieIds.length * 2);
+            movieIds = Arrays.copyOf(movieIds, grown);
+            actorsBySlot = Arrays.copyOf(actorsBySlot, grown);
+            genresBySlot = Arrays.copyOf(genresBySlot, grown);
+        }
+        movieIds[slot] = movieId;
+        actorsBySlot[slot] = actors;
+        genresBySlot[slot] = genres;
+        for (long actor : actors) {
+            moviesByActor.computeIfAbsent(actor, id -> new BitSet()).set(slot);
+        }
+        for (long genre : genres) {
+            moviesByGenre.computeIfAbsent(genre, id -> new BitSet()).set(slot);
+        }
+        slotsByMovie.put(movieId, slot);
+    }
+
+    private void unindex(long movieId) {
+        Integer slot = slotsByMovie.remove(movieId);
+        if (slot == null) {
+            return;
+        }
+        clearBits(actorsBySlot[slot], moviesByActor, slot);
+        clearBits(genresBySlot[slot], moviesByGenre, slot);
+        actorsBySlot[slot] = NONE;
+        genresBySlot[slot] = NONE;
+        freeSlots.push(slot);
+    }
+
+    private static void clearBits(long[] features, Map<Long, BitSet> postings, int slot) {
+        for (long feature : features) {
+            BitSet movies = postings.get(feature);
+            if (movies != null) {
+                movies.clear(slot);
+                if (movies.isEmpty()) {
+                    postings.remove(feature);
+                }
+            }
+        }
+    }
+
+    private void clear() {
+        slotsByMovie.clear();
+        moviesByActor.clear();
+        moviesByGenre.clear();
+        freeSlots.clear();
+        slotCount = 0;
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    // both sides sorted
+    private static int overlap(long[] a, long[] b) {
+        int shared = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return shared;
+    }
+
+    private static long[] toArray(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return NONE;
+        }
+        return ids.stream().mapToLong(Long::longValue).distinct().sorted().toArray();
+    }
+}
@@ -0,0 +1,30 @@
+package com.koodjohvi.movieapi.replication;
+
+import com.koodjohvi.movieapi.changelog.ChangeLogAppendedEvent;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+// Read-your-writes token: once a write commits, its response carries the change log sequence.
+// Clients send it back as X-Min-Catalog-Seq so a follower only answers once it has caught up.
+@Component
+public class ConsistencyTokenHeader {
+
+    public static final String CATALOG_SEQ = "X-Catalog-Seq";
+    public static final String MIN_CATALOG_SEQ = "X-Min-Catalog-Seq";
+
+    @TransactionalEventListener
+    public void onChangeLogAppended(ChangeLogAppendedEvent event) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletResponse response = servletAttributes.getResponse();
+            if (response != null && !response.isCommitted()) {
+                // force-deletes append several entries; the last one is the highest
+                response.setHeader(CATALOG_SEQ, Long.toString(event.seq()));
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.koodjohvi.movieapi.replication;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Follower side of the API: writes are redirected to the leader (307 keeps method and body),
+// every response reports the applied sequence, and a read carrying X-Min-Catalog-Seq waits
+// briefly for replication and otherwise answers 503 so the client can try another node.
+// Admin actions act on this node; those that would change the catalog refuse on followers.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 30)
+@ConditionalOnProperty(name = "replication.role", havingValue = "follower")
+public class ReplicaRequestFilter extends OncePerRequestFilter {
+
+    private static final long POLL_STEP_MILLIS = 20;
+
+    private final ReplicaState state;
+    private final String leaderUrl;
+    private final long maxWaitMillis;
+
+    public ReplicaRequestFilter(ReplicaState state,
+                                @Value("${replication.leader-url}") String leaderUrl,
+                                @Value("${replication.read-your-writes-wait-ms:1000}") long maxWaitMillis) {
+        this.state = state;
+        this.leaderUrl = leaderUrl.endsWith("/") ? leaderUrl.substring(0, leaderUrl.length() - 1) : leaderUrl;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // /api/batch is a POST but only reads; admin actions (jfr, backups, maintenance, ...) are about this node
+        boolean read = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod())
+                || "/api/batch".equals(request.getRequestURI())
+                || request.getRequestURI().startsWith("/api/admin/");
+        if (!read) {
+            String query = request.getQueryString();
+            response.setStatus(HttpServletResponse.SC_TEMPORARY_REDIRECT);
+            response.setHeader(HttpHeaders.LOCATION, leaderUrl + request.getRequestURI() + (query != null ? "?" + query : ""));
+            return;
+        }
+
+        String minSeqHeader = request.getHeader(ConsistencyTokenHeader.MIN_CATALOG_SEQ);
+        long minSeq = minSeqHeader == null ? 0 : parseSeq(minSeqHeader);
+        if (minSeq < 0) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("Invalid " + ConsistencyTokenHeader.MIN_CATALOG_SEQ + " header: " + minSeqHeader);
+            return;
+        }
+        if (minSeq > 0 && !awaitApplied(minSeq)) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setHeader(ConsistencyTokenHeader.CATALOG_SEQ, Long.toString(state.appliedSeq()));
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("Replica has not caught up to sequence " + minSeqHeader);
+            return;
+        }
+
+        response.setHeader(ConsistencyTokenHeader.CATALOG_SEQ, Long.toString(state.appliedSeq()));
+        chain.doFilter(request, response);
+    }
+
+    private boolean awaitApplied(long minSeq) {
+        long deadline = System.currentTimeMillis() + maxWaitMillis;
+        while (state.appliedSeq() < minSeq) {
+            if (System.currentTimeMillis() >= deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(POLL_STEP_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // -1 unless the token is a sequence number; serving the read anyway could hide the client's own writes
+    private static long parseSeq(String value) {
+        try {
+            return Math.max(-1, Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.koodjohvi.movieapi.replication;
+
+import com.koodjohvi.movieapi.repositories.ChangeLogRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Replication progress of this node. On a follower it is advanced by ReplicationFollower; on the
+// leader everything committed is applied by definition.
+@Component
+public class ReplicaState {
+
+    private final ReplicationRole role;
+    private final ChangeLogRepository changeLogRepository;
+
+    private volatile long appliedSeq;
+    private volatile long leaderHeadSeq;
+    // leader commit time of the newest applied change
+    private volatile long lastAppliedAt;
+    private volatile Long lastPollAt;
+    private volatile String lastError;
+    // sequence of a leader bulk load this follower cannot replay; it stops there
+    private volatile Long stalledAtSeq;
+
+    public ReplicaState(@Value("${replication.role:leader}") String role, ChangeLogRepository changeLogRepository,
+                        MeterRegistry meterRegistry) {
+        this.role = ReplicationRole.of(role);
+        this.changeLogRepository = changeLogRepository;
+        Gauge.builder("replication.lag.entries", this, s -> s.status().lagEntries()).register(meterRegistry);
+        Gauge.builder("replication.lag.seconds", this, s -> s.status().lagMillis() / 1000.0).register(meterRegistry);
+    }
+
+    public ReplicationRole role() {
+        return role;
+    }
+
+    public boolean isFollower() {
+        return role == ReplicationRole.FOLLOWER;
+    }
+
+    public long appliedSeq() {
+        return isFollower() ? appliedSeq : changeLogRepository.findHeadSeq();
+    }
+
+    public ReplicationStatus status() {
+        if (!isFollower()) {
+            long head = changeLogRepository.findHeadSeq();
+            return new ReplicationStatus(role, head, head, 0, 0, null, null, null);
+        }
+        long lagEntries = Math.max(0, leaderHeadSeq - appliedSeq);
+        // while behind, we are at least as stale as the newest change we have
+        long lagMillis = lagEntries == 0 || lastAppliedAt == 0 ? 0 : System.currentTimeMillis() - lastAppliedAt;
+        return new ReplicationStatus(role, appliedSeq, leaderHeadSeq, lagEntries, lagMillis, lastPollAt, lastError,
+                stalledAtSeq);
+    }
+
+    public Long stalledAtSeq() {
+        return stalledAtSeq;
+    }
+
+    void initialize(long appliedSeq) {
+        this.appliedSeq = appliedSeq;
+        this.leaderHeadSeq = Math.max(leaderHeadSeq, appliedSeq);
+    }
+
+    void polled(long appliedSeq, long leaderHeadSeq, long lastAppliedAt) {
+        this.appliedSeq = appliedSeq;
+        this.leaderHeadSeq = leaderHeadSeq;
+        if (lastAppliedAt > 0) {
+            this.lastAppliedAt = lastAppliedAt;
+        }
+        this.lastPollAt = System.currentTimeMillis();
+        this.lastError = null;
+    }
+
+    void stalled(long bulkLoadSeq) {
+        this.stalledAtSeq = bulkLoadSeq;
+        this.lastError = "Change " + bulkLoadSeq + " is a bulk load on the leader that cannot be replayed; "
+                + "re-copy this follower from a leader backup and restart it";
+    }
+
+    void failed(String error) {
+        this.lastPollAt = System.currentTimeMillis();
+        this.lastError = error;
+    }
+}
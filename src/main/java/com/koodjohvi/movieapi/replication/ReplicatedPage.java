@@ -0,0 +1,13 @@
+package com.koodjohvi.movieapi.replication;
+
+import com.koodjohvi.movieapi.events.CatalogChangeType;
+import com.koodjohvi.movieapi.events.CatalogEntityType;
+
+import java.util.List;
+
+// wire format of the leader's GET /api/changes
+record ReplicatedPage(List<Entry> entries, long nextSeq, long headSeq) {
+
+    record Entry(Long seq, CatalogEntityType entityType, Long entityId, CatalogChangeType changeType,
+                 String payload, Long createdAt) {}
+}
@@ -0,0 +1,172 @@
+package com.koodjohvi.movieapi.replication;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.koodjohvi.movieapi.events.*;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Applies change log entries shipped from the leader to the local database. Rows are written
+// with their leader ids through plain JDBC, the entry is copied into the local change_log with
+// the leader's sequence, and the usual CatalogChangeEvent is published so that caches, stats
+// and indexes on this node update after commit exactly as they would on the leader.
+@Component
+@ConditionalOnProperty(name = "replication.role", havingValue = "follower")
+public class ReplicationApplier {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ReplicationApplier(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                              ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // one transaction per page, so a page is applied completely or not at all
+    @Transactional
+    public void apply(List<ReplicatedPage.Entry> entries) {
+        for (ReplicatedPage.Entry entry : entries) {
+            eventPublisher.publishEvent(applyEntry(entry));
+            jdbcTemplate.update("INSERT INTO change_log (seq, entity_type, entity_id, change_type, payload, created_at) "
+                            + "VALUES (?, ?, ?, ?, ?, ?)",
+                    entry.seq(), entry.entityType().name(), entry.entityId(), entry.changeType().name(),
+                    entry.payload(), entry.createdAt());
+        }
+    }
+
+    private CatalogChangeEvent applyEntry(ReplicatedPage.Entry entry) {
+        Long id = entry.entityId();
+        return switch (entry.changeType()) {
+            case CREATED, UPDATED -> {
+                CatalogSnapshot before = readSnapshot(entry.entityType(), id);
+                CatalogSnapshot after = switch (entry.entityType()) {
+                    case MOVIE -> upsertMovie(read(entry, MovieSnapshot.class), entry.seq());
+                    case ACTOR -> upsertActor(read(entry, ActorSnapshot.class), entry.seq());
+                    case GENRE -> upsertGenre(read(entry, GenreSnapshot.class), entry.seq());
+                };
+                yield before == null ? CatalogChangeEvent.created(after) : CatalogChangeEvent.updated(before, after);
+            }
+            case DELETED -> {
+                CatalogSnapshot before = readSnapshot(entry.entityType(), id);
+                switch (entry.entityType()) {
+                    case MOVIE -> {
+                        jdbcTemplate.update("DELETE FROM movie_genres WHERE movie_id = ?", id);
+                        jdbcTemplate.update("DELETE FROM movie_actors WHERE movie_id = ?", id);
+                        jdbcTemplate.update("DELETE FROM movie WHERE id = ?", id);
+                    }
+                    case ACTOR -> {
+                        jdbcTemplate.update("DELETE FROM movie_actors WHERE actor_id = ?", id);
+                        jdbcTemplate.update("DELETE FROM actor WHERE id = ?", id);
+                    }
+                    case GENRE -> {
+                        jdbcTemplate.update("DELETE FROM movie_genres WHERE genre_id = ?", id);
+                        jdbcTemplate.update("DELETE FROM genre WHERE id = ?", id);
+                    }
+                }
+                yield CatalogChangeEvent.deleted(before != null ? before : read(entry, snapshotType(entry.entityType())));
+            }
+            // the rows are not in the log; ReplicationFollower stops before this entry, so this only
+            // guards against applying past it
+            case BULK_LOADED -> throw new IllegalStateException("Change " + entry.seq()
+                    + " is a bulk load on the leader that cannot be replayed; re-copy this follower from a leader backup");
+            case RELATIONSHIPS_CLEARED -> {
+                ClearedRelationships cleared = read(entry, ClearedRelationships.class);
+                String column = switch (cleared.entityType()) {
+                    case MOVIE -> "movie_id";
+                    case ACTOR -> "actor_id";
+                    case GENRE -> "genre_id";
+                };
+                // the table name comes from the payload, so only the two join tables are accepted
+                if (!Set.of("movie_actors", "movie_genres").contains(cleared.joinTable())) {
+                    throw new IllegalStateException("Unexpected join table in change " + entry.seq());
+                }
+                jdbcTemplate.update("DELETE FROM " + cleared.joinTable() + " WHERE " + column + " = ?", cleared.id());
+                yield CatalogChangeEvent.relationshipsCleared(cleared.entityType(), cleared.id(), cleared.joinTable());
+            }
+        };
+    }
+
+    private MovieSnapshot upsertMovie(MovieSnapshot movie, Long seq) {
+        int updated = jdbcTemplate.update("UPDATE movie SET title = ?, release_year = ?, duration = ?, mod_seq = ? WHERE id = ?",
+                movie.title(), movie.releaseYear(), movie.duration(), seq, movie.id());
+        if (updated == 0) {
+            jdbcTemplate.update("INSERT INTO movie (id, title, release_year, duration, mod_seq) VALUES (?, ?, ?, ?, ?)",
+                    movie.id(), movie.title(), movie.releaseYear(), movie.duration(), seq);
+        }
+        jdbcTemplate.update("DELETE FROM movie_genres WHERE movie_id = ?", movie.id());
+        for (Long genreId : movie.genreIds()) {
+            jdbcTemplate.update("INSERT INTO movie_genres (movie_id, genre_id) VALUES (?, ?)", movie.id(), genreId);
+        }
+        jdbcTemplate.update("DELETE FROM movie_actors WHERE movie_id = ?", movie.id());
+        for (Long actorId : movie.actorIds()) {
+            jdbcTemplate.update("INSERT INTO movie_actors (movie_id, actor_id) VALUES (?, ?)", movie.id(), actorId);
+        }
+        return movie;
+    }
+
+    private ActorSnapshot upsertActor(ActorSnapshot actor, Long seq) {
+        Date birthDate = actor.birthDate() == null ? null : Date.valueOf(actor.birthDate());
+        int updated = jdbcTemplate.update("UPDATE actor SET name = ?, birth_date = ?, mod_seq = ? WHERE id = ?",
+                actor.name(), birthDate, seq, actor.id());
+        if (updated == 0) {
+            jdbcTemplate.update("INSERT INTO actor (id, name, birth_date, mod_seq) VALUES (?, ?, ?, ?)",
+                    actor.id(), actor.name(), birthDate, seq);
+        }
+        return actor;
+    }
+
+    private GenreSnapshot upsertGenre(GenreSnapshot genre, Long seq) {
+        int updated = jdbcTemplate.update("UPDATE genre SET name = ?, mod_seq = ? WHERE id = ?",
+                genre.name(), seq, genre.id());
+        if (updated == 0) {
+            jdbcTemplate.update("INSERT INTO genre (id, name, mod_seq) VALUES (?, ?, ?)", genre.id(), genre.name(), seq);
+        }
+        return genre;
+    }
+
+    // local state before the change, for listeners that apply deltas (e.g. stats)
+    private CatalogSnapshot readSnapshot(CatalogEntityType type, Long id) {
+        return switch (type) {
+            case MOVIE -> jdbcTemplate.query("SELECT title, release_year, duration FROM movie WHERE id = ?",
+                    rs -> rs.next() ? new MovieSnapshot(id, rs.getString(1), rs.getInt(2), rs.getInt(3),
+                            Set.copyOf(ids("SELECT genre_id FROM movie_genres WHERE movie_id = ?", id)),
+                            Set.copyOf(ids("SELECT actor_id FROM movie_actors WHERE movie_id = ?", id))) : null, id);
+            case ACTOR -> jdbcTemplate.query("SELECT name, birth_date FROM actor WHERE id = ?",
+                    rs -> rs.next() ? new ActorSnapshot(id, rs.getString(1),
+                            rs.getDate(2) == null ? null : rs.getDate(2).toLocalDate()) : null, id);
+            case GENRE -> jdbcTemplate.query("SELECT name FROM genre WHERE id = ?",
+                    rs -> rs.next() ? new GenreSnapshot(id, rs.getString(1)) : null, id);
+        };
+    }
+
+    private Set<Long> ids(String sql, Long id) {
+        return new HashSet<>(jdbcTemplate.queryForList(sql, Long.class, id));
+    }
+
+    private static Class<? extends CatalogSnapshot> snapshotType(CatalogEntityType type) {
+        return switch (type) {
+            case MOVIE -> MovieSnapshot.class;
+            case ACTOR -> ActorSnapshot.class;
+            case GENRE -> GenreSnapshot.class;
+        };
+    }
+
+    private <T> T read(ReplicatedPage.Entry entry, Class<T> type) {
+        try {
+            return objectMapper.readValue(entry.payload(), type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable payload in change " + entry.seq(), e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.koodjohvi.movieapi.replication;
+
+import com.koodjohvi.movieapi.events.CatalogChangeType;
+import com.koodjohvi.movieapi.repositories.ChangeLogRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.List;
+
+// Tails the leader's change log over HTTP (GET /api/changes?after=) and applies it page by page.
+// The local change_log holds the leader's sequence numbers, so the newest local entry is also
+// the resume position after a restart. A follower's database must start as a copy of the
+// leader's taken before the leader's first change log entry (or be empty on a fresh leader).
+// A bulk load on the leader (a generator run) has no per-row entries to replay: the follower
+// applies everything before it and then stops polling, reporting the stall in its status until
+// it is re-copied from the leader and restarted.
+@Component
+@ConditionalOnProperty(name = "replication.role", havingValue = "follower")
+public class ReplicationFollower {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicationFollower.class);
+
+    private final RestClient leader;
+    private final ReplicationApplier applier;
+    private final ReplicaState state;
+    private final ChangeLogRepository changeLogRepository;
+    private final int batchSize;
+    // guarded by "this"
+    private boolean resumed;
+
+    public ReplicationFollower(RestClient.Builder restClientBuilder,
+                               @Value("${replication.leader-url}") String leaderUrl,
+                               @Value("${replication.batch-size:500}") int batchSize,
+                               ReplicationApplier applier, ReplicaState state,
+                               ChangeLogRepository changeLogRepository) {
+        this.leader = restClientBuilder.baseUrl(leaderUrl).build();
+        this.batchSize = batchSize;
+        this.applier = applier;
+        this.state = state;
+        this.changeLogRepository = changeLogRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${replication.poll-interval-ms:500}")
+    public synchronized void poll() {
+        if (state.stalledAtSeq() != null) {
+            return;
+        }
+        if (!resumed) {
+            state.initialize(changeLogRepository.findHeadSeq());
+            resumed = true;
+            log.info("Following leader from change log sequence {}", state.appliedSeq());
+        }
+        try {
+            ReplicatedPage page;
+            do {
+                long applied = state.appliedSeq();
+                page = leader.get()
+                        .uri("/api/changes?after={after}&limit={limit}", applied, batchSize)
+                        .retrieve()
+                        .body(ReplicatedPage.class);
+                if (page == null) {
+                    return;
+                }
+                List<ReplicatedPage.Entry> entries = page.entries();
+                ReplicatedPage.Entry bulkLoad = entries.stream()
+                        .filter(entry -> entry.changeType() == CatalogChangeType.BULK_LOADED)
+                        .findFirst()
+                        .orElse(null);
+                if (bulkLoad != null) {
+                    entries = entries.subList(0, entries.indexOf(bulkLoad));
+                }
+                long lastAppliedAt = 0;
+                if (!entries.isEmpty()) {
+                    applier.apply(entries);
+                    ReplicatedPage.Entry last = entries.get(entries.size() - 1);
+                    applied = last.seq();
+                    lastAppliedAt = last.createdAt();
+                }
+                state.polled(applied, page.headSeq(), lastAppliedAt);
+                if (bulkLoad != null) {
+                    log.error("Replication stopped at change {}: a bulk load on the leader cannot be replayed; "
+                            + "re-copy this follower from a leader backup and restart it", bulkLoad.seq());
+                    state.stalled(bulkLoad.seq());
+                    return;
+                }
+            } while (page.entries().size() == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Replication poll failed: {}", e.getMessage());
+            state.failed(e.getMessage());
+        }
+    }
+}
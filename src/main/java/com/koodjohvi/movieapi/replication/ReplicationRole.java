@@ -0,0 +1,14 @@
+package com.koodjohvi.movieapi.replication;
+
+import java.util.Locale;
+
+// replication.role: the leader takes writes and records them in the change log,
+// followers are read-only and apply the leader's log to their own database
+public enum ReplicationRole {
+    LEADER,
+    FOLLOWER;
+
+    public static ReplicationRole of(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
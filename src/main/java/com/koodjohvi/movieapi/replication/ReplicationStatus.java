@@ -0,0 +1,7 @@
+package com.koodjohvi.movieapi.replication;
+
+// appliedSeq is the newest change this node serves; lag is measured against the leader's head.
+// stalledAtSeq is set once a follower has stopped at a leader bulk load it cannot replay.
+public record ReplicationStatus(ReplicationRole role, long appliedSeq, long leaderHeadSeq,
+                                long lagEntries, long lagMillis, Long lastPollAt, String lastError,
+                                Long stalledAtSeq) {}
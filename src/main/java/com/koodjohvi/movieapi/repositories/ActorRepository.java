@@ -1,9 +1,13 @@
 package com.koodjohvi.movieapi.repositories;
 
 import com.koodjohvi.movieapi.entities.Actor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,4 +17,25 @@ public interface ActorRepository extends JpaRepository<Actor, Long> {
     // custom query methods as mandatory
     List<Actor> findByNameContainingIgnoreCase(String name);
     Page<Actor> findByNameContainingIgnoreCase(String name, Pageable pageable);
+
+    // pages in popularity order, see MovieRepository
+    String POPULARITY = " LEFT JOIN PopularityEntry p ON p.entityType = com.koodjohvi.movieapi.events.CatalogEntityType.ACTOR"
+            + " AND p.entityId = a.id";
+    @Query(value = "SELECT a FROM Actor a" + POPULARITY, countQuery = "SELECT COUNT(a) FROM Actor a")
+    Page<Actor> findAllOrderByPopularity(Pageable pageable);
+    @Query(value = "SELECT a FROM Actor a" + POPULARITY + " WHERE LOWER(a.name) LIKE LOWER(:pattern) ESCAPE '\\'",
+            countQuery = "SELECT COUNT(a) FROM Actor a WHERE LOWER(a.name) LIKE LOWER(:pattern) ESCAPE '\\'")
+    Page<Actor> findByNameLikeOrderByPopularity(@Param("pattern") String pattern, Pageable pageable);
+
+    // id and name only, for rebuilding in-memory views without loading entities
+    @Query("SELECT a.id, a.name FROM Actor a")
+    List<Object[]> findAllIdsAndNames();
+
+    // delta sync: stamp the change log sequence and scan changed rows by it
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Actor a SET a.modSeq = :seq WHERE a.id = :id")
+    void updateModSeq(@Param("id") Long id, @Param("seq") Long seq);
+    List<Actor> findByModSeqGreaterThanAndModSeqLessThanEqual(Long since, Long until);
+    // initial snapshot, paged by id
+    List<Actor> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
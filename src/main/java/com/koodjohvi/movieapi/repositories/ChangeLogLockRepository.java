@@ -0,0 +1,15 @@
+package com.koodjohvi.movieapi.repositories;
+
+import com.koodjohvi.movieapi.entities.ChangeLogLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ChangeLogLockRepository extends JpaRepository<ChangeLogLock, Long> {
+    // row lock held until the surrounding transaction commits
+    @Modifying
+    @Query("UPDATE ChangeLogLock l SET l.appends = l.appends + 1 WHERE l.id = 1")
+    int acquire();
+}
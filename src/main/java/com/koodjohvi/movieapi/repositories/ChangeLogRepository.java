@@ -0,0 +1,20 @@
+package com.koodjohvi.movieapi.repositories;
+
+import com.koodjohvi.movieapi.entities.ChangeLogEntry;
+import com.koodjohvi.movieapi.events.CatalogChangeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+    List<ChangeLogEntry> findBySeqGreaterThanOrderBySeqAsc(Long seq, Limit limit);
+    List<ChangeLogEntry> findByChangeTypeAndSeqGreaterThanAndSeqLessThanEqualOrderBySeqAsc(
+            CatalogChangeType changeType, Long since, Long until);
+
+    @Query("SELECT COALESCE(MAX(c.seq), 0) FROM ChangeLogEntry c")
+    long findHeadSeq();
+}
@@ -1,13 +1,26 @@
 package com.koodjohvi.movieapi.repositories;
 
 import com.koodjohvi.movieapi.entities.Genre;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface GenreRepository extends JpaRepository<Genre, Long> {
     Optional<Genre> findByNameContainingIgnoreCase(String name);
     boolean existsByNameIgnoreCase(String name);
+
+    // delta sync: stamp the change log sequence and scan changed rows by it
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Genre g SET g.modSeq = :seq WHERE g.id = :id")
+    void updateModSeq(@Param("id") Long id, @Param("seq") Long seq);
+    List<Genre> findByModSeqGreaterThanAndModSeqLessThanEqual(Long since, Long until);
+    // initial snapshot, paged by id
+    List<Genre> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
@@ -0,0 +1,167 @@
+package com.koodjohvi.movieapi.repositories;
+
+import com.koodjohvi.movieapi.entities.Movie;
+import com.koodjohvi.movieapi.popularity.PopularityService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// single database: everything goes straight to MovieRepository
+@Component
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "false", matchIfMissing = true)
+public class JpaMovieStore implements MovieStore {
+
+    private final MovieRepository movieRepository;
+    private final PopularityService popularityService;
+
+    public JpaMovieStore(MovieRepository movieRepository, PopularityService popularityService) {
+        this.movieRepository = movieRepository;
+        this.popularityService = popularityService;
+    }
+
+    @Override
+    public Optional<Movie> findById(Long id) {
+        return movieRepository.findById(id);
+    }
+
+    @Override
+    public List<Movie> findAllById(Collection<Long> ids) {
+        return movieRepository.findAllById(ids);
+    }
+
+    @Override
+    public List<Movie> findAll() {
+        return movieRepository.findAll();
+    }
+
+    @Override
+    public Page<Movie> findAll(Pageable pageable) {
+        return movieRepository.findAll(pageable);
+    }
+
+    @Override
+    public List<Movie> findByReleaseYear(Integer year) {
+        return movieRepository.findByReleaseYear(year);
+    }
+
+    @Override
+    public Page<Movie> findByReleaseYear(Integer year, Pageable pageable) {
+        return movieRepository.findByReleaseYear(year, pageable);
+    }
+
+    @Override
+    public List<Movie> findByGenresId(Long genreId) {
+        return movieRepository.findByGenresId(genreId);
+    }
+
+    @Override
+    public Page<Movie> findByGenresId(Long genreId, Pageable pageable) {
+        return movieRepository.findByGenresId(genreId, pageable);
+    }
+
+    @Override
+    public List<Movie> findByActorsId(Long actorId) {
+        return movieRepository.findByActorsId(actorId);
+    }
+
+    @Override
+    public Page<Movie> findByActorsId(Long actorId, Pageable pageable) {
+        return movieRepository.findByActorsId(actorId, pageable);
+    }
+
+    @Override
+    public List<Movie> findByTitleContainingIgnoreCase(String title) {
+        return movieRepository.findByTitleContainingIgnoreCase(title);
+    }
+
+    @Override
+    public Page<Movie> findByTitleContainingIgnoreCase(String title, Pageable pageable) {
+        return movieRepository.findByTitleContainingIgnoreCase(title, pageable);
+    }
+
+    @Override
+    public Page<Movie> findAllOrderByPopularity(Pageable pageable) {
+        return movieRepository.findAllOrderByPopularity(popularityService.scoreSorted(pageable));
+    }
+
+    @Override
+    public Page<Movie> findByReleaseYearOrderByPopularity(Integer year, Pageable pageable) {
+        return movieRepository.findByReleaseYearOrderByPopularity(year, popularityService.scoreSorted(pageable));
+    }
+
+    @Override
+    public Page<Movie> findByGenresIdOrderByPopularity(Long genreId, Pageable pageable) {
+        return movieRepository.findByGenresIdOrderByPopularity(genreId, popularityService.scoreSorted(pageable));
+    }
+
+    @Override
+    public Page<Movie> findByActorsIdOrderByPopularity(Long actorId, Pageable pageable) {
+        return movieRepository.findByActorsIdOrderByPopularity(actorId, popularityService.scoreSorted(pageable));
+    }
+
+    @Override
+    public Page<Movie> findByTitleContainingIgnoreCaseOrderByPopularity(String title, Pageable pageable) {
+        return movieRepository.findByTitleLikeOrderByPopularity(MovieRepository.containsPattern(title),
+                popularityService.scoreSorted(pageable));
+    }
+
+    @Override
+    public List<Object[]> findAllIdsAndTitles() {
+        return movieRepository.findAllIdsAndTitles();
+    }
+
+    @Override
+    public List<Object[]> findAllMovieActorIds() {
+        return movieRepository.findAllMovieActorIds();
+    }
+
+    @Override
+    public List<Object[]> findAllMovieGenreIds() {
+        return movieRepository.findAllMovieGenreIds();
+    }
+
+    @Override
+    public List<Movie> findAllByIdWithAssociations(Collection<Long> ids) {
+        // the second query fills the actors of the same managed instances
+        List<Movie> movies = movieRepository.findAllWithGenresByIdIn(ids);
+        if (!movies.isEmpty()) {
+            movieRepository.findAllWithActorsByIdIn(ids);
+        }
+        return movies;
+    }
+
+    @Override
+    public List<Object[]> findMovieIdsByActorIds(Collection<Long> actorIds) {
+        return movieRepository.findMovieIdsByActorIds(actorIds);
+    }
+
+    @Override
+    public List<Object[]> findMovieIdsByGenreIds(Collection<Long> genreIds) {
+        return movieRepository.findMovieIdsByGenreIds(genreIds);
+    }
+
+    @Override
+    public Movie save(Movie movie) {
+        return movieRepository.save(movie);
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        movieRepository.deleteById(id);
+    }
+
+    @Override
+    public void clearMovieGenreRelationships(Long movieId) {
+        movieRepository.clearMovieGenreRelationships(movieId);
+    }
+
+    @Override
+    public void clearMovieActorRelationships(Long movieId) {
+        movieRepository.clearMovieActorRelationships(movieId);
+    }
+}
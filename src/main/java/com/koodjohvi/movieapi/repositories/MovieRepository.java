@@ -2,6 +2,7 @@ package com.koodjohvi.movieapi.repositories;
 
 import com.koodjohvi.movieapi.entities.Movie;
 import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -10,6 +11,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -26,6 +28,59 @@ public interface MovieRepository extends JpaRepository<Movie, Long> {
     Page<Movie> findByActorsId(Long actorId, Pageable pageable);
     Page<Movie> findByTitleContainingIgnoreCase(String title, Pageable pageable);
 
+    // pages in popularity order: the popularity row is joined as "p", so the database sorts by
+    // p.logScore (PopularityService.scoreSorted) and only the page is loaded
+    String POPULARITY = " LEFT JOIN PopularityEntry p ON p.entityType = com.koodjohvi.movieapi.events.CatalogEntityType.MOVIE"
+            + " AND p.entityId = m.id";
+    @Query(value = "SELECT m FROM Movie m" + POPULARITY, countQuery = "SELECT COUNT(m) FROM Movie m")
+    Page<Movie> findAllOrderByPopularity(Pageable pageable);
+    @Query(value = "SELECT m FROM Movie m" + POPULARITY + " WHERE m.releaseYear = :year",
+            countQuery = "SELECT COUNT(m) FROM Movie m WHERE m.releaseYear = :year")
+    Page<Movie> findByReleaseYearOrderByPopularity(@Param("year") Integer year, Pageable pageable);
+    @Query(value = "SELECT m FROM Movie m JOIN m.genres g" + POPULARITY + " WHERE g.id = :genreId",
+            countQuery = "SELECT COUNT(m) FROM Movie m JOIN m.genres g WHERE g.id = :genreId")
+    Page<Movie> findByGenresIdOrderByPopularity(@Param("genreId") Long genreId, Pageable pageable);
+    @Query(value = "SELECT m FROM Movie m JOIN m.actors a" + POPULARITY + " WHERE a.id = :actorId",
+            countQuery = "SELECT COUNT(m) FROM Movie m JOIN m.actors a WHERE a.id = :actorId")
+    Page<Movie> findByActorsIdOrderByPopularity(@Param("actorId") Long actorId, Pageable pageable);
+    // pattern from containsPattern
+    @Query(value = "SELECT m FROM Movie m" + POPULARITY + " WHERE LOWER(m.title) LIKE LOWER(:pattern) ESCAPE '\\'",
+            countQuery = "SELECT COUNT(m) FROM Movie m WHERE LOWER(m.title) LIKE LOWER(:pattern) ESCAPE '\\'")
+    Page<Movie> findByTitleLikeOrderByPopularity(@Param("pattern") String pattern, Pageable pageable);
+
+    // LIKE pattern matching text anywhere, with backslash as the escape character
+    static String containsPattern(String text) {
+        return "%" + text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    // id and title only, for rebuilding in-memory views without loading entities
+    @Query("SELECT m.id, m.title FROM Movie m")
+    List<Object[]> findAllIdsAndTitles();
+    @Query(value = "SELECT movie_id, actor_id FROM movie_actors", nativeQuery = true)
+    List<Object[]> findAllMovieActorIds();
+    @Query(value = "SELECT movie_id, genre_id FROM movie_genres", nativeQuery = true)
+    List<Object[]> findAllMovieGenreIds();
+
+    // batched lookups: one IN query per association instead of one query per movie
+    @Query("SELECT DISTINCT m FROM Movie m LEFT JOIN FETCH m.genres WHERE m.id IN :ids")
+    List<Movie> findAllWithGenresByIdIn(@Param("ids") Collection<Long> ids);
+    @Query("SELECT DISTINCT m FROM Movie m LEFT JOIN FETCH m.actors WHERE m.id IN :ids")
+    List<Movie> findAllWithActorsByIdIn(@Param("ids") Collection<Long> ids);
+    @Query(value = "SELECT actor_id, movie_id FROM movie_actors WHERE actor_id IN (:actorIds) ORDER BY movie_id",
+            nativeQuery = true)
+    List<Object[]> findMovieIdsByActorIds(@Param("actorIds") Collection<Long> actorIds);
+    @Query(value = "SELECT genre_id, movie_id FROM movie_genres WHERE genre_id IN (:genreIds) ORDER BY movie_id",
+            nativeQuery = true)
+    List<Object[]> findMovieIdsByGenreIds(@Param("genreIds") Collection<Long> genreIds);
+
+    // aggregates used by the stats recompute job
+    @Query("SELECT m.releaseYear, COUNT(m) FROM Movie m GROUP BY m.releaseYear")
+    List<Object[]> countMoviesByReleaseYear();
+    @Query("SELECT g.id, COUNT(m), SUM(m.duration) FROM Movie m JOIN m.genres g GROUP BY g.id")
+    List<Object[]> summarizeMoviesByGenre();
+    @Query("SELECT a.id, COUNT(m) FROM Movie m JOIN m.actors a GROUP BY a.id")
+    List<Object[]> countMoviesByActor();
+
     // clear all movies for a specific actor (when force-deleting actor)
     @Modifying
     @Transactional
@@ -49,4 +104,12 @@ public interface MovieRepository extends JpaRepository<Movie, Long> {
     @Transactional
     @Query(value = "DELETE FROM movie_genres WHERE movie_id = :movieId", nativeQuery = true)
     void clearMovieGenreRelationships(@Param("movieId") Long movieId);
+
+    // delta sync: stamp the change log sequence and scan changed rows by it
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Movie m SET m.modSeq = :seq WHERE m.id = :id")
+    void updateModSeq(@Param("id") Long id, @Param("seq") Long seq);
+    List<Movie> findByModSeqGreaterThanAndModSeqLessThanEqual(Long since, Long until);
+    // initial snapshot, paged by id
+    List<Movie> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
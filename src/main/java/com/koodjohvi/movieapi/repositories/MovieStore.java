@@ -0,0 +1,50 @@
+package com.koodjohvi.movieapi.repositories;
+
+import com.koodjohvi.movieapi.entities.Movie;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// where MovieService keeps movies and their join rows: the JPA repository by default,
+// or the shard files when sharding.enabled=true
+public interface MovieStore {
+    Optional<Movie> findById(Long id);
+    // in no particular order; unknown ids are skipped
+    List<Movie> findAllById(Collection<Long> ids);
+    List<Movie> findAll();
+    Page<Movie> findAll(Pageable pageable);
+    List<Movie> findByReleaseYear(Integer year);
+    Page<Movie> findByReleaseYear(Integer year, Pageable pageable);
+    List<Movie> findByGenresId(Long genreId);
+    Page<Movie> findByGenresId(Long genreId, Pageable pageable);
+    List<Movie> findByActorsId(Long actorId);
+    Page<Movie> findByActorsId(Long actorId, Pageable pageable);
+    List<Movie> findByTitleContainingIgnoreCase(String title);
+    Page<Movie> findByTitleContainingIgnoreCase(String title, Pageable pageable);
+    // a page sorted by popularity (the pageable's sort=popularity direction, ties by id)
+    Page<Movie> findAllOrderByPopularity(Pageable pageable);
+    Page<Movie> findByReleaseYearOrderByPopularity(Integer year, Pageable pageable);
+    Page<Movie> findByGenresIdOrderByPopularity(Long genreId, Pageable pageable);
+    Page<Movie> findByActorsIdOrderByPopularity(Long actorId, Pageable pageable);
+    Page<Movie> findByTitleContainingIgnoreCaseOrderByPopularity(String title, Pageable pageable);
+
+    // id and title only, for rebuilding in-memory views without loading entities
+    List<Object[]> findAllIdsAndTitles();
+    // raw join table rows as (movie_id, actor_id) / (movie_id, genre_id)
+    List<Object[]> findAllMovieActorIds();
+    List<Object[]> findAllMovieGenreIds();
+
+    // batched lookups: movies with genres and actors loaded in bulk, and the join rows of some
+    // actors / genres as (actor_id, movie_id) / (genre_id, movie_id) ordered by movie id
+    List<Movie> findAllByIdWithAssociations(Collection<Long> ids);
+    List<Object[]> findMovieIdsByActorIds(Collection<Long> actorIds);
+    List<Object[]> findMovieIdsByGenreIds(Collection<Long> genreIds);
+
+    Movie save(Movie movie);
+    void deleteById(Long id);
+    void clearMovieGenreRelationships(Long movieId);
+    void clearMovieActorRelationships(Long movieId);
+}
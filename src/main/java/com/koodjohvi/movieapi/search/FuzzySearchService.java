@@ -0,0 +1,131 @@
+package com.koodjohvi.movieapi.search;
+
+import com.koodjohvi.movieapi.events.ActorSnapshot;
+import com.koodjohvi.movieapi.events.CatalogBulkChangeEvent;
+import com.koodjohvi.movieapi.events.CatalogChangeEvent;
+import com.koodjohvi.movieapi.events.CatalogChangeType;
+import com.koodjohvi.movieapi.events.MovieSnapshot;
+import com.koodjohvi.movieapi.repositories.ActorRepository;
+import com.koodjohvi.movieapi.repositories.MovieStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Trigram indexes over movie titles and actor names for typo-tolerant search.
+// Loaded on startup and kept current from committed service changes.
+@Service
+public class FuzzySearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(FuzzySearchService.class);
+
+    public static final int MAX_RESULTS = 50;
+
+    private final MovieStore movieStore;
+    private final ActorRepository actorRepository;
+
+    // guarded by "this"; the indexes themselves are safe for concurrent readers
+    private TrigramIndex movieTitles = new TrigramIndex();
+    private TrigramIndex actorNames = new TrigramIndex();
+    // changes committed while a rebuild reads the database, replayed onto the new indexes
+    private List<CatalogChangeEvent> pendingChanges;
+
+    public FuzzySearchService(MovieStore movieStore, ActorRepository actorRepository) {
+        this.movieStore = movieStore;
+        this.actorRepository = actorRepository;
+    }
+
+    public List<Long> searchMovieIds(String title, int limit) {
+        return ids(currentMovieTitles().search(title, Math.min(limit, MAX_RESULTS), false));
+    }
+
+    public List<Long> searchActorIds(String name, int limit) {
+        return ids(currentActorNames().search(name, Math.min(limit, MAX_RESULTS), false));
+    }
+
+    @TransactionalEventListener
+    public synchronized void onCatalogChange(CatalogChangeEvent event) {
+        if (event.changeType() == CatalogChangeType.RELATIONSHIPS_CLEARED) {
+            return;
+        }
+        apply(event, movieTitles, actorNames);
+        if (pendingChanges != null) {
+            pendingChanges.add(event);
+        }
+    }
+
+    @EventListener({ApplicationReadyEvent.class, CatalogBulkChangeEvent.class})
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long started = System.nanoTime();
+        synchronized (this) {
+            pendingChanges = new ArrayList<>();
+        }
+
+        TrigramIndex titles = new TrigramIndex();
+        TrigramIndex names = new TrigramIndex();
+        try {
+            for (Object[] row : movieStore.findAllIdsAndTitles()) {
+                titles.put((Long) row[0], (String) row[1]);
+            }
+            for (Object[] row : actorRepository.findAllIdsAndNames()) {
+                names.put((Long) row[0], (String) row[1]);
+            }
+        } catch (RuntimeException e) {
+            // keep serving the indexes we have
+            synchronized (this) {
+                pendingChanges = null;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            for (CatalogChangeEvent event : pendingChanges) {
+                apply(event, titles, names);
+            }
+            movieTitles = titles;
+            actorNames = names;
+            pendingChanges = null;
+        }
+        log.info("Indexed {} movie titles and {} actor names in {} ms", titles.size(), names.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static void apply(CatalogChangeEvent event, TrigramIndex titles, TrigramIndex names) {
+        switch (event.entityType()) {
+            case MOVIE -> {
+                if (event.after() instanceof MovieSnapshot movie) {
+                    titles.put(movie.id(), movie.title());
+                } else {
+                    titles.remove(event.entityId());
+                }
+            }
+            case ACTOR -> {
+                if (event.after() instanceof ActorSnapshot actor) {
+                    names.put(actor.id(), actor.name());
+                } else {
+                    names.remove(event.entityId());
+                }
+            }
+            default -> { }
+        }
+    }
+
+    private synchronized TrigramIndex currentMovieTitles() {
+        return movieTitles;
+    }
+
+    private synchronized TrigramIndex currentActorNames() {
+        return actorNames;
+    }
+
+    private static List<Long> ids(List<TrigramIndex.Match> matches) {
+        return matches.stream().map(TrigramIndex.Match::id).toList();
+    }
+}
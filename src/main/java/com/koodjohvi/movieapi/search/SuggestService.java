@@ -0,0 +1,140 @@
+package com.koodjohvi.movieapi.search;
+
+import com.koodjohvi.movieapi.entities.Genre;
+import com.koodjohvi.movieapi.events.*;
+import com.koodjohvi.movieapi.repositories.ActorRepository;
+import com.koodjohvi.movieapi.repositories.GenreRepository;
+import com.koodjohvi.movieapi.repositories.MovieStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Typeahead over movie titles, actor names and genre names, one prefix trie per type.
+// Ranked by recency: on load by id, and every create or update moves an entry to the front.
+@Service
+public class SuggestService {
+
+    private static final Logger log = LoggerFactory.getLogger(SuggestService.class);
+
+    private final MovieStore movieStore;
+    private final ActorRepository actorRepository;
+    private final GenreRepository genreRepository;
+
+    // guarded by "this"; the tries themselves are safe for concurrent readers
+    private Map<CatalogEntityType, SuggestTrie> tries = newTries();
+    // changes committed while a rebuild reads the database, replayed onto the new tries
+    private List<CatalogChangeEvent> pendingChanges;
+    private final AtomicLong clock = new AtomicLong();
+
+    public SuggestService(MovieStore movieStore, ActorRepository actorRepository, GenreRepository genreRepository) {
+        this.movieStore = movieStore;
+        this.actorRepository = actorRepository;
+        this.genreRepository = genreRepository;
+    }
+
+    public List<Suggestion> suggest(String prefix, Set<CatalogEntityType> types, int limit) {
+        Map<CatalogEntityType, SuggestTrie> current = currentTries();
+        List<Map.Entry<Suggestion, Long>> hits = new ArrayList<>();
+        for (CatalogEntityType type : types) {
+            for (SuggestTrie.Hit hit : current.get(type).suggest(prefix, limit)) {
+                hits.add(Map.entry(new Suggestion(type, hit.id(), hit.text()), hit.weight()));
+            }
+        }
+        return hits.stream()
+                .sorted(Map.Entry.<Suggestion, Long>comparingByValue().reversed())
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    @TransactionalEventListener
+    public synchronized void onCatalogChange(CatalogChangeEvent event) {
+        if (event.changeType() == CatalogChangeType.RELATIONSHIPS_CLEARED) {
+            return;
+        }
+        apply(event, tries);
+        if (pendingChanges != null) {
+            pendingChanges.add(event);
+        }
+    }
+
+    @EventListener({ApplicationReadyEvent.class, CatalogBulkChangeEvent.class})
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long started = System.nanoTime();
+        synchronized (this) {
+            pendingChanges = new ArrayList<>();
+        }
+
+        Map<CatalogEntityType, SuggestTrie> fresh = newTries();
+        long maxId = 0;
+        try {
+            for (Object[] row : movieStore.findAllIdsAndTitles()) {
+                fresh.get(CatalogEntityType.MOVIE).put((Long) row[0], (String) row[1], (Long) row[0]);
+                maxId = Math.max(maxId, (Long) row[0]);
+            }
+            for (Object[] row : actorRepository.findAllIdsAndNames()) {
+                fresh.get(CatalogEntityType.ACTOR).put((Long) row[0], (String) row[1], (Long) row[0]);
+                maxId = Math.max(maxId, (Long) row[0]);
+            }
+            for (Genre genre : genreRepository.findAll()) {
+                fresh.get(CatalogEntityType.GENRE).put(genre.getId(), genre.getName(), genre.getId());
+                maxId = Math.max(maxId, genre.getId());
+            }
+        } catch (RuntimeException e) {
+            // keep serving the tries we have
+            synchronized (this) {
+                pendingChanges = null;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            clock.accumulateAndGet(maxId, Math::max);
+            for (CatalogChangeEvent event : pendingChanges) {
+                apply(event, fresh);
+            }
+            tries = fresh;
+            pendingChanges = null;
+        }
+        log.info("Loaded {} movie, {} actor and {} genre suggestions in {} ms",
+                fresh.get(CatalogEntityType.MOVIE).size(), fresh.get(CatalogEntityType.ACTOR).size(),
+                fresh.get(CatalogEntityType.GENRE).size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void apply(CatalogChangeEvent event, Map<CatalogEntityType, SuggestTrie> target) {
+        SuggestTrie trie = target.get(event.entityType());
+        String text = null;
+        if (event.after() instanceof MovieSnapshot movie) {
+            text = movie.title();
+        } else if (event.after() instanceof ActorSnapshot actor) {
+            text = actor.name();
+        } else if (event.after() instanceof GenreSnapshot genre) {
+            text = genre.name();
+        }
+        if (text == null) {
+            trie.remove(event.entityId());
+        } else {
+            trie.put(event.entityId(), text, clock.incrementAndGet());
+        }
+    }
+
+    private synchronized Map<CatalogEntityType, SuggestTrie> currentTries() {
+        return tries;
+    }
+
+    private static Map<CatalogEntityType, SuggestTrie> newTries() {
+        Map<CatalogEntityType, SuggestTrie> tries = new EnumMap<>(CatalogEntityType.class);
+        for (CatalogEntityType type : CatalogEntityType.values()) {
+            tries.put(type, new SuggestTrie());
+        }
+        return tries;
+    }
+}
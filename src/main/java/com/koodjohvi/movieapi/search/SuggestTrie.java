@@ -0,0 +1,313 @@
+package com.koodjohvi.movieapi.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Radix trie over folded texts for typeahead. Every node caches the top-K entries of its
+// subtree, so a lookup is a walk down the prefix plus a copy of one small array. Each text is
+// inserted once per word start (up to MAX_WORD_STARTS), so "knight" finds "The Dark Knight".
+public class SuggestTrie {
+
+    public static final int TOP_K = 10;
+    private static final int MAX_WORD_STARTS = 8;
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+    // higher weight first, then shorter text, then lower id
+    private static final Comparator<Entry> RANKING = Comparator.comparingLong((Entry e) -> -e.weight)
+            .thenComparingInt(e -> e.text.length())
+            .thenComparingLong(e -> e.id);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node("");
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    public record Hit(long id, String text, long weight) {}
+
+    // inserts or replaces the text for an id
+    public void put(long id, String text, long weight) {
+        List<String> keys = keys(text);
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            Entry entry = new Entry(id, text, weight, keys);
+            for (String key : keys) {
+                insert(key, entry);
+            }
+            entries.put(id, entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Hit> suggest(String prefix, int limit) {
+        String key = TrigramIndex.fold(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = find(key);
+            if (node == null) {
+                return List.of();
+            }
+            List<Hit> hits = new ArrayList<>(Math.min(limit, node.top.length));
+            for (int i = 0; i < node.top.length && hits.size() < limit; i++) {
+                Entry entry = node.top[i];
+                hits.add(new Hit(entry.id, entry.text, entry.weight));
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void insert(String key, Entry entry) {
+        Node node = root;
+        offer(node, entry);
+        int i = 0;
+        while (i < key.length()) {
+            int index = childIndex(node, key.charAt(i));
+            if (index < 0) {
+                Node leaf = new Node(key.substring(i));
+                addChild(node, leaf);
+                node = leaf;
+                offer(node, entry);
+                break;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                // split the edge; the new middle node has the same subtree, so the same top list
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.children = new Node[] {child};
+                middle.top = child.top.clone();
+                node.children[index] = middle;
+                child = middle;
+            }
+            node = child;
+            offer(node, entry);
+            i += common;
+        }
+        if (node.terminals == null) {
+            node.terminals = new ArrayList<>(1);
+        }
+        node.terminals.add(entry);
+    }
+
+    private void removeLocked(long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        for (String key : entry.keys) {
+            List<Node> path = path(key);
+            if (path == null) {
+                continue;
+            }
+            Node end = path.get(path.size() - 1);
+            if (end.terminals != null) {
+                end.terminals.remove(entry);
+            }
+            // rebuild the cached tops bottom-up and drop nodes left empty
+            for (int i = path.size() - 1; i >= 0; i--) {
+                Node node = path.get(i);
+                if (i > 0 && node.children.length == 0 && (node.terminals == null || node.terminals.isEmpty())) {
+                    removeChild(path.get(i - 1), node);
+                } else if (contains(node.top, entry)) {
+                    node.top = recomputeTop(node);
+                }
+            }
+        }
+    }
+
+    private Node find(String prefix) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            int index = childIndex(node, prefix.charAt(i));
+            if (index < 0) {
+                return null;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, prefix, i);
+            if (i + common == prefix.length()) {
+                // the prefix ends on or inside this edge
+                return child;
+            }
+            if (common < child.label.length()) {
+                return null;
+            }
+            node = child;
+            i += common;
+        }
+        return node;
+    }
+
+    // nodes from the root to the node where the key ends, or null if the key is not present
+    private List<Node> path(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            int index = childIndex(node, key.charAt(i));
+            if (index < 0) {
+                return null;
+            }
+            Node child = node.children[index];
+            if (!key.startsWith(child.label, i)) {
+                return null;
+            }
+            node = child;
+            path.add(node);
+            i += child.label.length();
+        }
+        return path;
+    }
+
+    private static void offer(Node node, Entry entry) {
+        if (contains(node.top, entry)) {
+            return;
+        }
+        if (node.top.length == TOP_K && RANKING.compare(entry, node.top[TOP_K - 1]) >= 0) {
+            return;
+        }
+        Entry[] top = Arrays.copyOf(node.top, Math.min(TOP_K, node.top.length + 1));
+        int position = node.top.length;
+        while (position > 0 && RANKING.compare(entry, node.top[position - 1]) < 0) {
+            position--;
+        }
+        System.arraycopy(node.top, position, top, position + 1, top.length - position - 1);
+        top[position] = entry;
+        node.top = top;
+    }
+
+    // the subtree's best entries are among the node's own entries and its children's tops
+    private static Entry[] recomputeTop(Node node) {
+        Set<Entry> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (node.terminals != null) {
+            candidates.addAll(node.terminals);
+        }
+        for (Node child : node.children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        return candidates.stream().sorted(RANKING).limit(TOP_K).toArray(Entry[]::new);
+    }
+
+    private static boolean contains(Entry[] top, Entry entry) {
+        for (Entry candidate : top) {
+            if (candidate == entry) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // children are kept sorted by the first character of their label
+    private static int childIndex(Node node, char c) {
+        int low = 0;
+        int high = node.children.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char first = node.children[mid].label.charAt(0);
+            if (first < c) {
+                low = mid + 1;
+            } else if (first > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static void addChild(Node node, Node child) {
+        char first = child.label.charAt(0);
+        int position = 0;
+        while (position < node.children.length && node.children[position].label.charAt(0) < first) {
+            position++;
+        }
+        Node[] children = new Node[node.children.length + 1];
+        System.arraycopy(node.children, 0, children, 0, position);
+        children[position] = child;
+        System.arraycopy(node.children, position, children, position + 1, node.children.length - position);
+        node.children = children;
+    }
+
+    private static void removeChild(Node node, Node child) {
+        Node[] children = new Node[node.children.length - 1];
+        int j = 0;
+        for (Node candidate : node.children) {
+            if (candidate != child) {
+                children[j++] = candidate;
+            }
+        }
+        node.children = children;
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    // the folded text from each word start
+    private static List<String> keys(String text) {
+        String folded = TrigramIndex.fold(text);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < folded.length() && keys.size() < MAX_WORD_STARTS; i++) {
+            if (i == 0 || folded.charAt(i - 1) == ' ') {
+                keys.add(folded.substring(i));
+            }
+        }
+        return keys;
+    }
+
+    private static final class Node {
+        private String label;
+        private Node[] children = NO_CHILDREN;
+        private List<Entry> terminals;
+        private Entry[] top = NO_ENTRIES;
+
+        Node(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final class Entry {
+        private final long id;
+        private final String text;
+        private final long weight;
+        private final List<String> keys;
+
+        Entry(long id, String text, long weight, List<String> keys) {
+            this.id = id;
+            this.text = text;
+            this.weight = weight;
+            this.keys = keys;
+        }
+    }
+}
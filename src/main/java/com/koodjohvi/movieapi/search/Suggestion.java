@@ -0,0 +1,6 @@
+package com.koodjohvi.movieapi.search;
+
+import com.koodjohvi.movieapi.events.CatalogEntityType;
+
+// one typeahead entry: a movie title, actor name or genre name
+public record Suggestion(CatalogEntityType type, long id, String text) {}
@@ -0,0 +1,358 @@
+package com.koodjohvi.movieapi.search;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory trigram index over short texts (titles, names) keyed by entity id.
+// Texts are folded (accents stripped, lowercased, punctuation as word breaks) and each word is
+// padded as "  word " so word starts and ends get their own trigrams. A query counts shared
+// trigrams per document from the posting lists of its rarer trigrams only, rescoring the best
+// candidates exactly, so a lookup touches a bounded slice of the index; the counts go into a
+// small hash table sized by the postings it walks, not an array over every document.
+// Removal only tombstones the slot: its posting entries are skipped by searches and purged in
+// one pass once tombstones pile up (or dropped wholesale when the owner rebuilds the index).
+public class TrigramIndex {
+
+    // trigrams found in more than this share of documents are skipped while collecting candidates
+    private static final double COMMON_GRAM_FRACTION = 0.02;
+    private static final int COMMON_GRAM_MIN_POSTINGS = 1_000;
+    // posting entries a single query may walk, which bounds lookup latency as the index grows
+    private static final int MAX_POSTINGS_SCANNED = 150_000;
+    // candidates rescored exactly per result requested
+    private static final int RESCORE_FACTOR = 8;
+    // share of the query's trigrams a match has to contain
+    private static final double MIN_SCORE = 0.3;
+    private static final int MAX_QUERY_LENGTH = 100;
+    // tombstoned slots tolerated before their posting entries are purged
+    private static final int MIN_TOMBSTONES_COMPACTED = 1_024;
+    private static final double TOMBSTONE_FRACTION = 0.25;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+    private final IntList freeSlots = new IntList();
+    // removed slots still referenced from postings; reused only after compaction
+    private final IntList tombstones = new IntList();
+    private long[] ids = new long[16];
+    private String[] texts = new String[16];
+    private String[] folded = new String[16];
+    private int[] gramCounts = new int[16];
+    private int slotCount;
+
+    public record Match(long id, String text, double score) {}
+
+    public void put(long id, String text) {
+        String foldedText = fold(text);
+        long[] grams = grams(foldedText, false);
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            int slot = freeSlots.isEmpty() ? slotCount++ : freeSlots.removeLast();
+            ensureCapacity(slot + 1);
+            ids[slot] = id;
+            texts[slot] = text;
+            folded[slot] = foldedText;
+            gramCounts[slot] = grams.length;
+            for (long gram : grams) {
+                postings.computeIfAbsent(gram, g -> new IntList()).add(slot);
+            }
+            slotsById.put(id, slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // best matches first; prefix=true leaves the last query word open-ended, for typeahead
+    public List<Match> search(String query, int limit, boolean prefix) {
+        String foldedQuery = fold(query.length() > MAX_QUERY_LENGTH ? query.substring(0, MAX_QUERY_LENGTH) : query);
+        long[] queryGrams = grams(foldedQuery, prefix);
+        if (queryGrams.length == 0 || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<IntList> lists = new ArrayList<>(queryGrams.length);
+            for (long gram : queryGrams) {
+                IntList posting = postings.get(gram);
+                if (posting != null) {
+                    lists.add(posting);
+                }
+            }
+            if (lists.isEmpty()) {
+                return List.of();
+            }
+            lists.sort(Comparator.comparingInt(IntList::size));
+            int commonThreshold = Math.max(COMMON_GRAM_MIN_POSTINGS, (int) (slotsById.size() * COMMON_GRAM_FRACTION));
+
+            // the rarest trigram is always used, so a query made only of common trigrams still answers
+            int walked = 0;
+            int scanned = 0;
+            for (int i = 0; i < lists.size(); i++) {
+                scanned += lists.get(i).size();
+                if (i > 0 && (lists.get(i).size() > commonThreshold || scanned > MAX_POSTINGS_SCANNED)) {
+                    break;
+                }
+                walked = i + 1;
+            }
+            int entries = 0;
+            for (int i = 0; i < walked; i++) {
+                entries += lists.get(i).size();
+            }
+
+            SlotCounts counts = new SlotCounts(entries);
+            for (int i = 0; i < walked; i++) {
+                IntList posting = lists.get(i);
+                for (int j = 0; j < posting.size(); j++) {
+                    int slot = posting.get(j);
+                    if (folded[slot] != null) {
+                        counts.increment(slot);
+                    }
+                }
+            }
+            return rank(candidates(counts, limit * RESCORE_FACTOR), queryGrams, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // the slots with the highest partial counts, bucketed by count instead of sorted
+    private static IntList candidates(SlotCounts counts, int max) {
+        int highest = 0;
+        for (int i = 0; i < counts.capacity(); i++) {
+            highest = Math.max(highest, counts.countAt(i));
+        }
+        IntList[] buckets = new IntList[highest + 1];
+        for (int i = 0; i < counts.capacity(); i++) {
+            int count = counts.countAt(i);
+            if (count == 0) {
+                continue;
+            }
+            IntList bucket = buckets[count];
+            if (bucket == null) {
+                bucket = buckets[count] = new IntList();
+            }
+            bucket.add(counts.slotAt(i));
+        }
+
+        IntList selected = new IntList();
+        for (int count = highest; count > 0 && selected.size() < max; count--) {
+            IntList bucket = buckets[count];
+            for (int i = 0; bucket != null && i < bucket.size() && selected.size() < max; i++) {
+                selected.add(bucket.get(i));
+            }
+        }
+        return selected;
+    }
+
+    // exact score: share of the query's trigrams found in the text, ties to the closer length
+    private List<Match> rank(IntList candidates, long[] queryGrams, int limit) {
+        List<Match> matches = new ArrayList<>();
+        double[] jaccard = new double[candidates.size()];
+        for (int i = 0; i < candidates.size(); i++) {
+            int slot = candidates.get(i);
+            int shared = 0;
+            for (long gram : grams(folded[slot], false)) {
+                if (Arrays.binarySearch(queryGrams, gram) >= 0) {
+                    shared++;
+                }
+            }
+            double score = (double) shared / queryGrams.length;
+            if (score >= MIN_SCORE) {
+                jaccard[matches.size()] = (double) shared / (queryGrams.length + gramCounts[slot] - shared);
+                matches.add(new Match(ids[slot], texts[slot], score));
+            }
+        }
+
+        Integer[] order = new Integer[matches.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingDouble(i -> -matches.get(i).score())
+                .thenComparingDouble(i -> -jaccard[i])
+                .thenComparingLong(i -> matches.get(i).id()));
+
+        List<Match> ranked = new ArrayList<>(Math.min(limit, order.length));
+        for (int i = 0; i < order.length && ranked.size() < limit; i++) {
+            ranked.add(matches.get(order[i]));
+        }
+        return ranked;
+    }
+
+    private void removeLocked(long id) {
+        Integer slot = slotsById.remove(id);
+        if (slot == null) {
+            return;
+        }
+        texts[slot] = null;
+        folded[slot] = null;
+        tombstones.add(slot);
+        if (tombstones.size() >= MIN_TOMBSTONES_COMPACTED && tombstones.size() > slotsById.size() * TOMBSTONE_FRACTION) {
+            compactLocked();
+        }
+    }
+
+    // one pass over all postings drops the tombstoned slots, which then become reusable
+    private void compactLocked() {
+        boolean[] dead = new boolean[slotCount];
+        for (int i = 0; i < tombstones.size(); i++) {
+            dead[tombstones.get(i)] = true;
+        }
+        postings.values().removeIf(posting -> {
+            posting.removeAll(dead);
+            return posting.isEmpty();
+        });
+        while (!tombstones.isEmpty()) {
+            freeSlots.add(tombstones.removeLast());
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ids.length) {
+            int grown = Math.max(capacity, ids.length * 2);
+            ids = Arrays.copyOf(ids, grown);
+            texts = Arrays.copyOf(texts, grown);
+            folded = Arrays.copyOf(folded, grown);
+            gramCounts = Arrays.copyOf(gramCounts, grown);
+        }
+    }
+
+    static String fold(String text) {
+        String stripped = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+        StringBuilder folded = new StringBuilder(stripped.length());
+        boolean space = true;
+        for (int i = 0; i < stripped.length(); i++) {
+            char c = stripped.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                folded.append(Character.toLowerCase(c));
+                space = false;
+            } else if (!space) {
+                folded.append(' ');
+                space = true;
+            }
+        }
+        int end = folded.length();
+        return space && end > 0 ? folded.substring(0, end - 1) : folded.toString();
+    }
+
+    // distinct trigrams of folded text, each packed as three 16-bit chars, in ascending order
+    static long[] grams(String folded, boolean openEnded) {
+        if (folded.isEmpty()) {
+            return new long[0];
+        }
+        String[] words = folded.split(" ");
+        long[] grams = new long[folded.length() + 3 * words.length];
+        int count = 0;
+        for (int w = 0; w < words.length; w++) {
+            boolean open = openEnded && w == words.length - 1;
+            String padded = "  " + words[w] + (open ? "" : " ");
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams[count++] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+            }
+        }
+        Arrays.sort(grams, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || grams[i] != grams[distinct - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    // growable int array
+    static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int removeLast() {
+            return values[--size];
+        }
+
+        // keeps the values not flagged in dead, in order
+        void removeAll(boolean[] dead) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (!dead[values[i]]) {
+                    values[kept++] = values[i];
+                }
+            }
+            size = kept;
+        }
+    }
+
+    // slot -> partial count for one query, open addressing with linear probing; sized for the
+    // posting entries the query walks, so it never needs to grow
+    private static final class SlotCounts {
+        private final int[] slots;
+        private final int[] counts;
+        private final int mask;
+
+        SlotCounts(int entries) {
+            int capacity = Integer.highestOneBit(Math.max(2, entries) * 2 - 1) << 1;
+            slots = new int[capacity];
+            counts = new int[capacity];
+            mask = capacity - 1;
+        }
+
+        void increment(int slot) {
+            int hash = slot * 0x9E3779B9;
+            int i = (hash ^ hash >>> 16) & mask;
+            while (counts[i] != 0 && slots[i] != slot) {
+                i = (i + 1) & mask;
+            }
+            slots[i] = slot;
+            counts[i]++;
+        }
+
+        int capacity() {
+            return slots.length;
+        }
+
+        int slotAt(int i) {
+            return slots[i];
+        }
+
+        int countAt(int i) {
+            return counts[i];
+        }
+    }
+}
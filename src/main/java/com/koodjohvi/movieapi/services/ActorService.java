@@ -2,17 +2,30 @@ package com.koodjohvi.movieapi.services;
 
 import com.koodjohvi.movieapi.entities.Actor;
 import com.koodjohvi.movieapi.entities.Movie;
+import com.koodjohvi.movieapi.events.ActorSnapshot;
+import com.koodjohvi.movieapi.events.CatalogChangeEvent;
+import com.koodjohvi.movieapi.events.CatalogEntityType;
 import com.koodjohvi.movieapi.exception.DeletionNotAllowedException;
 import com.koodjohvi.movieapi.exception.ResourceNotFoundException;
+import com.koodjohvi.movieapi.popularity.PopularityService;
 import com.koodjohvi.movieapi.repositories.ActorRepository;
 import com.koodjohvi.movieapi.repositories.MovieRepository;
+import com.koodjohvi.movieapi.repositories.MovieStore;
+import com.koodjohvi.movieapi.search.FuzzySearchService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Service
 @Transactional
@@ -20,10 +33,26 @@ public class ActorService {
 
     private final ActorRepository actorRepository;
     private final MovieRepository movieRepository;
-
-    public ActorService(ActorRepository actorRepository, MovieRepository movieRepository) {
+    private final MovieStore movieStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SingleFlight singleFlight;
+    private final FuzzySearchService fuzzySearchService;
+    private final PopularityService popularityService;
+    // movies live in the shard files and are not JPA entities
+    private final boolean sharded;
+
+    public ActorService(ActorRepository actorRepository, MovieRepository movieRepository, MovieStore movieStore,
+                        ApplicationEventPublisher eventPublisher, SingleFlight singleFlight,
+                        FuzzySearchService fuzzySearchService, PopularityService popularityService,
+                        @Value("${sharding.enabled:false}") boolean sharded) {
         this.actorRepository = actorRepository;
         this.movieRepository = movieRepository;
+        this.movieStore = movieStore;
+        this.eventPublisher = eventPublisher;
+        this.singleFlight = singleFlight;
+        this.fuzzySearchService = fuzzySearchService;
+        this.popularityService = popularityService;
+        this.sharded = sharded;
     }
 
     // create actor
@@ -36,36 +65,73 @@ public class ActorService {
             throw new IllegalArgumentException("Birth date cannot be in the future");
         }
 
-        return actorRepository.save(actor);
+        Actor saved = actorRepository.save(actor);
+        eventPublisher.publishEvent(CatalogChangeEvent.created(ActorSnapshot.of(saved)));
+        return saved;
     }
 
-    // get all actors with pagination
-    @Transactional(readOnly = true)
+    // get all actors with pagination; a page sorted by popularity is ranked by the database
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Object getAllActors(Pageable pageable, boolean unpaginated) {
-        return unpaginated
+        return singleFlight.execute("actors.all", () -> unpaginated
         ? actorRepository.findAll()
-        : actorRepository.findAll(pageable);
+        : popularityService.isPopularitySort(pageable)
+        ? actorRepository.findAllOrderByPopularity(popularityService.scoreSorted(pageable))
+        : actorRepository.findAll(pageable), pageable, unpaginated);
     }
 
     // get actor by ID
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Actor getActorById(Long id) {
-        return actorRepository.findById(id)
-        .orElseThrow(() -> new ResourceNotFoundException("No actor found with ID: " + id));
+        return singleFlight.execute("actors.byId", () -> actorRepository.findById(id)
+        .orElseThrow(() -> new ResourceNotFoundException("No actor found with ID: " + id)), id);
     }
 
     // get actors by name with pagination
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Object getActorsByNameContainingIgnoreCase(String name, Pageable pageable, boolean unpaginated) {
-        return unpaginated
+        return singleFlight.execute("actors.byName", () -> unpaginated
         ? actorRepository.findByNameContainingIgnoreCase(name)
-        : actorRepository.findByNameContainingIgnoreCase(name, pageable);
+        : popularityService.isPopularitySort(pageable)
+        ? actorRepository.findByNameLikeOrderByPopularity(MovieRepository.containsPattern(name),
+                popularityService.scoreSorted(pageable))
+        : actorRepository.findByNameContainingIgnoreCase(name, pageable), name, pageable, unpaginated);
+    }
+
+    // typo-tolerant name search, best matches first
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<Actor> searchActorsFuzzy(String name, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        return singleFlight.execute("actors.fuzzy", () -> {
+            List<Long> ids = fuzzySearchService.searchActorIds(name, limit);
+            Map<Long, Actor> actors = new HashMap<>();
+            for (Actor actor : actorRepository.findAllById(ids)) {
+                actors.put(actor.getId(), actor);
+            }
+            return ids.stream().map(actors::get).filter(Objects::nonNull).toList();
+        }, name, limit);
+    }
+
+    // most viewed actors, decayed so recent views count more
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<Actor> getTrendingActors(int limit) {
+        List<Long> ids = popularityService.trending(CatalogEntityType.ACTOR, limit);
+        return singleFlight.execute("actors.trending", () -> {
+            Map<Long, Actor> actors = new HashMap<>();
+            for (Actor actor : actorRepository.findAllById(ids)) {
+                actors.put(actor.getId(), actor);
+            }
+            return ids.stream().map(actors::get).filter(Objects::nonNull).toList();
+        }, ids);
     }
 
     // update actor(PATCH)
     public Actor updateActor(Long id, Actor updatedActor) {
         Actor existing = actorRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Actor not found with id: " + id));
+        ActorSnapshot before = ActorSnapshot.of(existing);
 
         // Ensure ID is not modified
         if (updatedActor.getId() != null && !updatedActor.getId().equals(id)) {
@@ -92,13 +158,19 @@ public class ActorService {
                 if (movie.getId() == null) {
                     throw new IllegalArgumentException("Movie ID is required");
                 }
-                validatedMovies.add(movieRepository.findById(movie.getId())
+                validatedMovies.add(movieStore.findById(movie.getId())
                         .orElseThrow(() -> new ResourceNotFoundException("Movie not found: " + movie.getId())));
             }
-            existing.setMovies(validatedMovies);
+            // the movie side owns the join rows either way; shard rows must not be merged into
+            // the main database through the cascade
+            if (!sharded) {
+                existing.setMovies(validatedMovies);
+            }
         }
 
-        return actorRepository.save(existing);
+        Actor saved = actorRepository.save(existing);
+        eventPublisher.publishEvent(CatalogChangeEvent.updated(before, ActorSnapshot.of(saved)));
+        return saved;
     }
 
     // delete actor either by force or not
@@ -120,8 +192,10 @@ public class ActorService {
         if (force) {
             // Clear all movie relationships for this actor
             movieRepository.clearActorRelationships(id);
+            eventPublisher.publishEvent(CatalogChangeEvent.relationshipsCleared(CatalogEntityType.ACTOR, id, "movie_actors"));
         }
 
         actorRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangeEvent.deleted(ActorSnapshot.of(actor)));
     }
 }
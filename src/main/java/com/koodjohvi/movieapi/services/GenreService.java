@@ -1,11 +1,16 @@
 package com.koodjohvi.movieapi.services;
 
 import com.koodjohvi.movieapi.entities.Genre;
+import com.koodjohvi.movieapi.events.CatalogChangeEvent;
+import com.koodjohvi.movieapi.events.CatalogEntityType;
+import com.koodjohvi.movieapi.events.GenreSnapshot;
 import com.koodjohvi.movieapi.exception.DeletionNotAllowedException;
 import com.koodjohvi.movieapi.exception.ResourceNotFoundException;
 import com.koodjohvi.movieapi.repositories.GenreRepository;
 import com.koodjohvi.movieapi.repositories.MovieRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -16,10 +21,15 @@ public class GenreService {
 
     private final GenreRepository genreRepository;
     private final MovieRepository movieRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SingleFlight singleFlight;
 
-    public GenreService(GenreRepository genreRepository, MovieRepository movieRepository) {
+    public GenreService(GenreRepository genreRepository, MovieRepository movieRepository,
+                        ApplicationEventPublisher eventPublisher, SingleFlight singleFlight) {
         this.genreRepository = genreRepository;
         this.movieRepository = movieRepository;
+        this.eventPublisher = eventPublisher;
+        this.singleFlight = singleFlight;
     }
 
     // create genre
@@ -32,26 +42,29 @@ public class GenreService {
 
         // Set normalized name and save
         genre.setName(genreName);
-        return genreRepository.save(genre);
+        Genre saved = genreRepository.save(genre);
+        eventPublisher.publishEvent(CatalogChangeEvent.created(GenreSnapshot.of(saved)));
+        return saved;
     }
 
     // get all genres
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Genre> getAllGenres() {
-        return genreRepository.findAll();
+        return singleFlight.execute("genres.all", () -> genreRepository.findAll());
     }
 
     // get genre by ID
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Genre getGenreById(Long id) {
-        return genreRepository.findById(id)
-        .orElseThrow(() -> new ResourceNotFoundException("No genre found with ID: " + id));
+        return singleFlight.execute("genres.byId", () -> genreRepository.findById(id)
+        .orElseThrow(() -> new ResourceNotFoundException("No genre found with ID: " + id)), id);
     }
 
     // update genre(PATCH)
     public Genre updateGenre(Long id, Genre updatedGenre) {
         Genre existing = genreRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Genre not found with id: " + id));
+        GenreSnapshot before = GenreSnapshot.of(existing);
 
         // Ensure ID is not modified
         if (updatedGenre.getId() != null && !updatedGenre.getId().equals(id)) {
@@ -69,7 +82,9 @@ public class GenreService {
             existing.setName(updatedGenre.getName().trim());
         }
 
-        return genreRepository.save(existing);
+        Genre saved = genreRepository.save(existing);
+        eventPublisher.publishEvent(CatalogChangeEvent.updated(before, GenreSnapshot.of(saved)));
+        return saved;
     }
 
     // delete genre either by force or not
@@ -91,8 +106,10 @@ public class GenreService {
         if(force) {
             // Clear all relationships in a single batch operation
             movieRepository.clearGenreRelationships(genre.getId());
+            eventPublisher.publishEvent(CatalogChangeEvent.relationshipsCleared(CatalogEntityType.GENRE, id, "movie_genres"));
         }
 
         genreRepository.delete(genre);
+        eventPublisher.publishEvent(CatalogChangeEvent.deleted(GenreSnapshot.of(genre)));
     }
 }
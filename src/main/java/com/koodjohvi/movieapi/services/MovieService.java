@@ -3,13 +3,22 @@ package com.koodjohvi.movieapi.services;
 import com.koodjohvi.movieapi.entities.Actor;
 import com.koodjohvi.movieapi.entities.Genre;
 import com.koodjohvi.movieapi.entities.Movie;
+import com.koodjohvi.movieapi.events.CatalogChangeEvent;
+import com.koodjohvi.movieapi.events.CatalogEntityType;
+import com.koodjohvi.movieapi.events.MovieSnapshot;
 import com.koodjohvi.movieapi.exception.DeletionNotAllowedException;
 import com.koodjohvi.movieapi.exception.ResourceNotFoundException;
+import com.koodjohvi.movieapi.popularity.PopularityService;
 import com.koodjohvi.movieapi.repositories.ActorRepository;
 import com.koodjohvi.movieapi.repositories.GenreRepository;
-import com.koodjohvi.movieapi.repositories.MovieRepository;
+import com.koodjohvi.movieapi.recommendations.SimilarMoviesIndex;
+import com.koodjohvi.movieapi.repositories.MovieStore;
+import com.koodjohvi.movieapi.search.FuzzySearchService;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
@@ -19,14 +28,27 @@ import java.util.*;
 @Transactional
 public class MovieService {
 
-    private final MovieRepository movieRepository;
+    private final MovieStore movieStore;
     private final ActorRepository actorRepository;
     private final GenreRepository genreRepository;
-
-    public MovieService(MovieRepository movieRepository,  ActorRepository actorRepository, GenreRepository genreRepository) {
-        this.movieRepository = movieRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SingleFlight singleFlight;
+    private final FuzzySearchService fuzzySearchService;
+    private final SimilarMoviesIndex similarMoviesIndex;
+    private final PopularityService popularityService;
+
+    public MovieService(MovieStore movieStore,  ActorRepository actorRepository, GenreRepository genreRepository,
+                        ApplicationEventPublisher eventPublisher, SingleFlight singleFlight,
+                        FuzzySearchService fuzzySearchService, SimilarMoviesIndex similarMoviesIndex,
+                        PopularityService popularityService) {
+        this.movieStore = movieStore;
         this.actorRepository = actorRepository;
         this.genreRepository = genreRepository;
+        this.eventPublisher = eventPublisher;
+        this.singleFlight = singleFlight;
+        this.fuzzySearchService = fuzzySearchService;
+        this.similarMoviesIndex = similarMoviesIndex;
+        this.popularityService = popularityService;
     }
 
     // create movie
@@ -68,74 +90,162 @@ public class MovieService {
             movie.setActors(validatedActors);
         }
 
-        return movieRepository.save(movie);
+        Movie saved = movieStore.save(movie);
+        eventPublisher.publishEvent(CatalogChangeEvent.created(MovieSnapshot.of(saved)));
+        return saved;
     }
 
-    // get all movies with pagination
-    @Transactional(readOnly = true)
+    // get all movies with pagination; a page sorted by popularity is ranked by the store
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Object getAllMovies(Pageable pageable, boolean unpaginated) {
-        return unpaginated ? movieRepository.findAll() : movieRepository.findAll(pageable);
+        return singleFlight.execute("movies.all", () -> initialized(unpaginated
+                ? movieStore.findAll()
+                : byPopularity(pageable) ? movieStore.findAllOrderByPopularity(pageable) : movieStore.findAll(pageable)),
+                pageable, unpaginated);
     }
 
     // get movie by ID
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Movie getMovieById(Long id) {
-        return movieRepository.findById(id)
-        .orElseThrow(() -> new ResourceNotFoundException("No movie found with ID: " + id));
+        return singleFlight.execute("movies.byId", () -> initialized(movieStore.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("No movie found with ID: " + id))), id);
     }
 
     // get movies by year with pagination
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Object getMoviesByYear(Integer year, Pageable pageable, boolean unpaginated) {
-        return unpaginated
-        ? movieRepository.findByReleaseYear(year)
-        : movieRepository.findByReleaseYear(year, pageable);
+        return singleFlight.execute("movies.byYear", () -> initialized(unpaginated
+                ? movieStore.findByReleaseYear(year)
+                : byPopularity(pageable) ? movieStore.findByReleaseYearOrderByPopularity(year, pageable)
+                : movieStore.findByReleaseYear(year, pageable)),
+                year, pageable, unpaginated);
     }
 
     // get movies by genre with pagination
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Object getMoviesByGenre(Long genreId, Pageable pageable, boolean unpaginated) {
-        if (!genreRepository.existsById(genreId)) {
-            throw new ResourceNotFoundException("Genre not found: " + genreId);
-        }
+        return singleFlight.execute("movies.byGenre", () -> {
+            if (!genreRepository.existsById(genreId)) {
+                throw new ResourceNotFoundException("Genre not found with id: " + genreId);
+            }
 
-        return unpaginated
-        ? movieRepository.findByGenresId(genreId)
-        : movieRepository.findByGenresId(genreId, pageable);
+            return initialized(unpaginated
+            ? movieStore.findByGenresId(genreId)
+            : byPopularity(pageable) ? movieStore.findByGenresIdOrderByPopularity(genreId, pageable)
+            : movieStore.findByGenresId(genreId, pageable));
+        }, genreId, pageable, unpaginated);
     }
 
     // get movies by actor with pagination
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Object getMoviesByActor(Long actorId, Pageable pageable, boolean unpaginated) {
-        if (!actorRepository.existsById(actorId)) {
-            throw new ResourceNotFoundException("Actor not found: " + actorId);
-        }
+        return singleFlight.execute("movies.byActor", () -> {
+            if (!actorRepository.existsById(actorId)) {
+                throw new ResourceNotFoundException("Actor not found with id: " + actorId);
+            }
 
-        return unpaginated
-        ? movieRepository.findByActorsId(actorId)
-        : movieRepository.findByActorsId(actorId, pageable);
+            return initialized(unpaginated
+            ? movieStore.findByActorsId(actorId)
+            : byPopularity(pageable) ? movieStore.findByActorsIdOrderByPopularity(actorId, pageable)
+            : movieStore.findByActorsId(actorId, pageable));
+        }, actorId, pageable, unpaginated);
     }
 
     // get movies by title with pagination
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Object getMoviesByTitleContainingIgnoreCase(String title, Pageable pageable, boolean unpaginated) {
-        return unpaginated
-        ? movieRepository.findByTitleContainingIgnoreCase(title)
-        : movieRepository.findByTitleContainingIgnoreCase(title, pageable);
+        return singleFlight.execute("movies.byTitle", () -> initialized(unpaginated
+                ? movieStore.findByTitleContainingIgnoreCase(title)
+                : byPopularity(pageable) ? movieStore.findByTitleContainingIgnoreCaseOrderByPopularity(title, pageable)
+                : movieStore.findByTitleContainingIgnoreCase(title, pageable)),
+                title, pageable, unpaginated);
+    }
+
+    // typo-tolerant title search, best matches first
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<Movie> searchMoviesFuzzy(String title, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        return singleFlight.execute("movies.fuzzy", () -> {
+            List<Long> ids = fuzzySearchService.searchMovieIds(title, limit);
+            Map<Long, Movie> movies = new HashMap<>();
+            for (Movie movie : movieStore.findAllById(ids)) {
+                movies.put(movie.getId(), movie);
+            }
+            return initialized(ids.stream().map(movies::get).filter(Objects::nonNull).toList());
+        }, title, limit);
+    }
+
+    // movies sharing the most actors and genres with this one, best first
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<Movie> getSimilarMovies(Long id, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        return singleFlight.execute("movies.similar", () -> {
+            Optional<List<Long>> ranked = similarMoviesIndex.similarTo(id, Math.min(limit, SimilarMoviesIndex.MAX_SIMILAR));
+            if (ranked.isEmpty()) {
+                // not indexed yet (startup): only the 404 is decided by the database
+                movieStore.findById(id)
+                        .orElseThrow(() -> new ResourceNotFoundException("No movie found with ID: " + id));
+                return List.<Movie>of();
+            }
+            List<Long> ids = ranked.get();
+            Map<Long, Movie> movies = new HashMap<>();
+            for (Movie movie : movieStore.findAllById(ids)) {
+                movies.put(movie.getId(), movie);
+            }
+            return initialized(ids.stream().map(movies::get).filter(Objects::nonNull).toList());
+        }, id, limit);
+    }
+
+    // most viewed movies, decayed so recent views count more
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<Movie> getTrendingMovies(int limit) {
+        List<Long> ids = popularityService.trending(CatalogEntityType.MOVIE, limit);
+        return singleFlight.execute("movies.trending", () -> {
+            Map<Long, Movie> movies = new HashMap<>();
+            for (Movie movie : movieStore.findAllById(ids)) {
+                movies.put(movie.getId(), movie);
+            }
+            return initialized(ids.stream().map(movies::get).filter(Objects::nonNull).toList());
+        }, ids);
     }
 
     // get all actors in a movie
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Actor> getActorsByMovie(Long movieId) {
-        // validate movie exists first
-        Movie movie = movieRepository.findById(movieId)
-        .orElseThrow(() -> new ResourceNotFoundException("Movie not found with ID: " + movieId));
-        return new ArrayList<>(movie.getActors());
+        return singleFlight.execute("movies.actors", () -> {
+            // validate movie exists first
+            Movie movie = movieStore.findById(movieId)
+            .orElseThrow(() -> new ResourceNotFoundException("Movie not found with ID: " + movieId));
+            return List.copyOf(movie.getActors());
+        }, movieId);
+    }
+
+    private boolean byPopularity(Pageable pageable) {
+        return popularityService.isPopularitySort(pageable);
+    }
+
+    // Coalesced results are handed to several requests, each serializing them outside the
+    // session that loaded them, so the associations the JSON includes are loaded up front.
+    private static <T> T initialized(T result) {
+        Iterable<?> movies = result instanceof Iterable<?> iterable ? iterable : List.of(result);
+        for (Object item : movies) {
+            if (item instanceof Movie movie) {
+                Hibernate.initialize(movie.getGenres());
+                Hibernate.initialize(movie.getActors());
+            }
+        }
+        return result;
     }
 
     // update movie(PATCH)
     public Movie updateMovie(Long id, Movie updatedMovie) {
-        Movie existing = movieRepository.findById(id)
+        Movie existing = movieStore.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Movie not found with id: " + id));
+        MovieSnapshot before = MovieSnapshot.of(existing);
 
         // Ensure ID is not modified
         if (updatedMovie.getId() != null && !updatedMovie.getId().equals(id)) {
@@ -189,14 +299,17 @@ public class MovieService {
             existing.setActors(validatedActors);
         }
 
-        return movieRepository.save(existing);
+        Movie saved = movieStore.save(existing);
+        eventPublisher.publishEvent(CatalogChangeEvent.updated(before, MovieSnapshot.of(saved)));
+        return saved;
     }
 
     // delete movie
     @Transactional
     public void deleteMovie(Long id, boolean force) {
-        Movie movie = movieRepository.findById(id)
+        Movie movie = movieStore.findById(id)
         .orElseThrow(() -> new ResourceNotFoundException("Movie not found with ID: " + id));
+        MovieSnapshot before = MovieSnapshot.of(movie);
 
         // Check if there are associated genres OR actors
         if (!force && (!movie.getGenres().isEmpty() || !movie.getActors().isEmpty())) {
@@ -221,10 +334,13 @@ public class MovieService {
         // relationship clearing
         if (force) {
             // Clear all relationships in batch operations
-            movieRepository.clearMovieGenreRelationships(movie.getId());
-            movieRepository.clearMovieActorRelationships(movie.getId());
+            movieStore.clearMovieGenreRelationships(movie.getId());
+            eventPublisher.publishEvent(CatalogChangeEvent.relationshipsCleared(CatalogEntityType.MOVIE, id, "movie_genres"));
+            movieStore.clearMovieActorRelationships(movie.getId());
+            eventPublisher.publishEvent(CatalogChangeEvent.relationshipsCleared(CatalogEntityType.MOVIE, id, "movie_actors"));
         }
 
-        movieRepository.deleteById(id);
+        movieStore.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangeEvent.deleted(before));
     }
 }
\ No newline at end of file
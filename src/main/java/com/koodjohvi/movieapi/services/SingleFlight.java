@@ -0,0 +1,122 @@
+package com.koodjohvi.movieapi.services;
+
+import com.koodjohvi.movieapi.events.CatalogBulkChangeEvent;
+import com.koodjohvi.movieapi.events.CatalogChangeEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Request coalescing for read methods: concurrent calls with the same method name and arguments
+// share one computation. The computation opens its own read-only transaction, so callers that
+// are only waiting do not hold a pooled connection, and its entities are detached before they
+// are handed out: several threads then serialize the same objects, which must not reach back
+// into the session that loaded them. A caller already inside a transaction is not coalesced,
+// as it may see its own uncommitted changes (and a failure must not mark its transaction
+// rollback-only for others).
+// Every committed catalog change starts a new generation, which is part of the key: a call never
+// joins a computation that started before the latest commit, so a client reading after its own
+// write sees it (and the response cache never stores pre-write results under a newer generation).
+@Component
+public class SingleFlight {
+
+    private record Key(String name, long generation, List<Object> args) {}
+
+    private final ConcurrentHashMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> executed = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> coalesced = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final TransactionTemplate readOnlyTransaction;
+    private final MeterRegistry meterRegistry;
+    // the shared proxy: the session of whichever thread runs the computation
+    private final EntityManager entityManager;
+
+    public SingleFlight(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                        EntityManager entityManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+        this.entityManager = entityManager;
+    }
+
+    // args must have proper equals/hashCode (ids, PageRequest, flags)
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String name, Supplier<T> computation, Object... args) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            counter(executed, name, "executed").increment();
+            return computation.get();
+        }
+        Key key = new Key(name, generation.get(), Arrays.asList(args));
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+
+        if (existing != null) {
+            counter(coalesced, name, "coalesced").increment();
+            try {
+                return (T) existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        counter(executed, name, "executed").increment();
+        try {
+            T result = readOnlyTransaction.execute(status -> {
+                T computed = computation.get();
+                // with open-in-view the request's session outlives the transaction; results are
+                // fully loaded by the computation (see MovieService.initialized)
+                entityManager.clear();
+                return computed;
+            });
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // ahead of the other after-commit listeners, so the generation moves before the response
+    // cache's does
+    @TransactionalEventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        generation.incrementAndGet();
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onBulkChange(CatalogBulkChangeEvent event) {
+        generation.incrementAndGet();
+    }
+
+    private Counter counter(ConcurrentHashMap<String, Counter> counters, String name, String outcome) {
+        return counters.computeIfAbsent(name, n -> Counter.builder("catalog.singleflight.calls")
+                .description("Read calls that ran a computation or joined one already in flight")
+                .tag("method", n)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+}
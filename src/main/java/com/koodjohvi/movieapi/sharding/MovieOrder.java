@@ -0,0 +1,83 @@
+package com.koodjohvi.movieapi.sharding;
+
+import com.koodjohvi.movieapi.sharding.ShardedMovieStore.MovieRow;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// a page sort as both the shard ORDER BY and the comparator that merges the shard runs;
+// the two must agree exactly, so titles compare the way SQLite's BINARY and NOCASE collations do
+final class MovieOrder implements Comparator<MovieRow> {
+
+    private final String sql;
+    private final Comparator<MovieRow> comparator;
+
+    private MovieOrder(String sql, Comparator<MovieRow> comparator) {
+        this.sql = sql;
+        this.comparator = comparator;
+    }
+
+    static MovieOrder of(Sort sort) {
+        List<String> columns = new ArrayList<>();
+        Comparator<MovieRow> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            String column;
+            Comparator<MovieRow> next;
+            switch (order.getProperty()) {
+                case "id" -> {
+                    column = "m.id";
+                    next = Comparator.comparingLong(MovieRow::id);
+                }
+                case "title" -> {
+                    column = order.isIgnoreCase() ? "m.title COLLATE NOCASE" : "m.title";
+                    next = (a, b) -> compareTitles(a.title(), b.title(), order.isIgnoreCase());
+                }
+                case "releaseYear" -> {
+                    column = "m.release_year";
+                    next = Comparator.comparingInt(MovieRow::releaseYear);
+                }
+                case "duration" -> {
+                    column = "m.duration";
+                    next = Comparator.comparingInt(MovieRow::duration);
+                }
+                default -> throw new IllegalArgumentException("Cannot sort movies by: " + order.getProperty());
+            }
+            columns.add(column + (order.isDescending() ? " DESC" : " ASC"));
+            comparator = comparator.thenComparing(order.isDescending() ? next.reversed() : next);
+        }
+        // ties broken by id so every shard and the merge agree on one total order
+        columns.add("m.id ASC");
+        return new MovieOrder(String.join(", ", columns), comparator.thenComparingLong(MovieRow::id));
+    }
+
+    String sql() {
+        return sql;
+    }
+
+    @Override
+    public int compare(MovieRow a, MovieRow b) {
+        return comparator.compare(a, b);
+    }
+
+    // code point order is UTF-8 byte order; NOCASE folds ASCII letters only
+    private static int compareTitles(String a, String b, boolean ignoreCase) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int x = a.codePointAt(i);
+            int y = b.codePointAt(j);
+            if (ignoreCase) {
+                x = x >= 'A' && x <= 'Z' ? x + 32 : x;
+                y = y >= 'A' && y <= 'Z' ? y + 32 : y;
+            }
+            if (x != y) {
+                return Integer.compare(x, y);
+            }
+            i += Character.charCount(x);
+            j += Character.charCount(y);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+}
@@ -0,0 +1,138 @@
+package com.koodjohvi.movieapi.sharding;
+
+import com.koodjohvi.movieapi.replication.ReplicationRole;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+// one SQLite file per shard under sharding.directory, each with its own writer lock and pool
+@Component
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+public class MovieShards {
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS movie (id INTEGER PRIMARY KEY, title TEXT NOT NULL, "
+                    + "release_year INTEGER NOT NULL, duration INTEGER NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS idx_movie_release_year ON movie (release_year)",
+            "CREATE TABLE IF NOT EXISTS movie_genres (movie_id INTEGER NOT NULL, genre_id INTEGER NOT NULL, "
+                    + "PRIMARY KEY (movie_id, genre_id))",
+            "CREATE INDEX IF NOT EXISTS idx_movie_genres_genre ON movie_genres (genre_id)",
+            "CREATE TABLE IF NOT EXISTS movie_actors (movie_id INTEGER NOT NULL, actor_id INTEGER NOT NULL, "
+                    + "PRIMARY KEY (movie_id, actor_id))",
+            "CREATE INDEX IF NOT EXISTS idx_movie_actors_actor ON movie_actors (actor_id)"
+    };
+
+    private final List<HikariDataSource> dataSources = new ArrayList<>();
+    private final List<JdbcTemplate> jdbcTemplates = new ArrayList<>();
+    private final List<TransactionTemplate> transactionTemplates = new ArrayList<>();
+    private final ExecutorService scatterExecutor;
+
+    public MovieShards(@Value("${sharding.shards:4}") int shardCount,
+                       @Value("${sharding.directory:./shards}") String directory,
+                       @Value("${sharding.pool-size:4}") int poolSize,
+                       @Value("${replication.role:leader}") String replicationRole) throws IOException {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("sharding.shards must be at least 1");
+        }
+        // followers apply the change log to the single database file
+        if (ReplicationRole.of(replicationRole) == ReplicationRole.FOLLOWER) {
+            throw new IllegalStateException("Sharded mode is not supported on replication followers");
+        }
+
+        Path root = Files.createDirectories(Path.of(directory));
+        for (int shard = 0; shard < shardCount; shard++) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("movie-shard-" + shard);
+            config.setJdbcUrl("jdbc:sqlite:" + root.resolve("shard-" + shard + ".db"));
+            config.setMaximumPoolSize(poolSize);
+            config.addDataSourceProperty("busy_timeout", "5000");
+            HikariDataSource dataSource = new HikariDataSource(config);
+            dataSources.add(dataSource);
+
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("PRAGMA journal_mode=WAL");
+            for (String statement : SCHEMA) {
+                jdbcTemplate.execute(statement);
+            }
+            jdbcTemplates.add(jdbcTemplate);
+            transactionTemplates.add(new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        }
+        scatterExecutor = Executors.newFixedThreadPool(shardCount, runnable -> {
+            Thread thread = new Thread(runnable, "movie-shard-scatter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int count() {
+        return jdbcTemplates.size();
+    }
+
+    // fixed hash of the movie id; changing sharding.shards needs the files rebuilt
+    public int shardFor(long movieId) {
+        long h = movieId;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) Math.floorMod(h, (long) jdbcTemplates.size());
+    }
+
+    public JdbcTemplate jdbc(int shard) {
+        return jdbcTemplates.get(shard);
+    }
+
+    public TransactionTemplate transactions(int shard) {
+        return transactionTemplates.get(shard);
+    }
+
+    // runs the query on every shard in parallel; results are indexed by shard
+    public <T> List<T> scatter(Function<JdbcTemplate, T> query) {
+        List<Future<T>> futures = new ArrayList<>(jdbcTemplates.size());
+        for (JdbcTemplate jdbcTemplate : jdbcTemplates) {
+            futures.add(scatterExecutor.submit(() -> query.apply(jdbcTemplate)));
+        }
+
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying movie shards", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Movie shard query failed", e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        return results;
+    }
+
+    @PreDestroy
+    void close() {
+        scatterExecutor.shutdownNow();
+        dataSources.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,503 @@
+package com.koodjohvi.movieapi.sharding;
+
+import com.koodjohvi.movieapi.entities.Actor;
+import com.koodjohvi.movieapi.entities.Genre;
+import com.koodjohvi.movieapi.entities.Movie;
+import com.koodjohvi.movieapi.popularity.PopularityService;
+import com.koodjohvi.movieapi.repositories.ActorRepository;
+import com.koodjohvi.movieapi.repositories.GenreRepository;
+import com.koodjohvi.movieapi.repositories.MovieStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// movies and their join rows partitioned across the shard files by movie id;
+// genres and actors stay in the main database and are attached after the shards answer
+@Component
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+public class ShardedMovieStore implements MovieStore {
+
+    // deepest offset + page size a scatter-gather page may reach into every shard
+    private static final long MAX_WINDOW = 100_000;
+    // stay under SQLite's 999 bound parameters
+    private static final int IN_BATCH = 500;
+
+    private static final String COLUMNS = "SELECT m.id, m.title, m.release_year, m.duration FROM movie m";
+    private static final RowMapper<MovieRow> MOVIE_ROW = (rs, rowNum) ->
+            new MovieRow(rs.getLong(1), rs.getString(2), rs.getInt(3), rs.getInt(4));
+
+    private final MovieShards shards;
+    private final GenreRepository genreRepository;
+    private final ActorRepository actorRepository;
+    // the main database, which holds the popularity table
+    private final JdbcTemplate main;
+    // ids stay unique across shards; one leader process allocates them
+    private final AtomicLong lastId;
+
+    public ShardedMovieStore(MovieShards shards, GenreRepository genreRepository, ActorRepository actorRepository,
+                             JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.shards = shards;
+        this.genreRepository = genreRepository;
+        this.actorRepository = actorRepository;
+        this.main = jdbcTemplate;
+
+        long shardedMovies = shards.scatter(jdbc -> jdbc.queryForObject("SELECT COUNT(*) FROM movie", Long.class))
+                .stream().mapToLong(Long::longValue).sum();
+        if (shardedMovies == 0) {
+            importUnshardedMovies(jdbcTemplate, new TransactionTemplate(transactionManager));
+        }
+        long maxId = shards.scatter(jdbc -> jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) FROM movie", Long.class))
+                .stream().mapToLong(Long::longValue).max().orElse(0);
+        Long mainMaxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM movie", Long.class);
+        this.lastId = new AtomicLong(Math.max(maxId, mainMaxId == null ? 0 : mainMaxId));
+    }
+
+    // first start in sharded mode: move the movies already in the main database to the shards.
+    // They are deleted from the main database once every shard has committed, so nothing reading
+    // the main tables (the genre and actor services' movie lists) sees a frozen copy
+    private void importUnshardedMovies(JdbcTemplate main, TransactionTemplate mainTransactions) {
+        Map<Long, List<Long>> genreIds = main.query("SELECT movie_id, genre_id FROM movie_genres",
+                        (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2)}).stream()
+                .collect(Collectors.groupingBy(row -> row[0], Collectors.mapping(row -> row[1], Collectors.toList())));
+        Map<Long, List<Long>> actorIds = main.query("SELECT movie_id, actor_id FROM movie_actors",
+                        (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2)}).stream()
+                .collect(Collectors.groupingBy(row -> row[0], Collectors.mapping(row -> row[1], Collectors.toList())));
+
+        Map<Integer, List<MovieRow>> byShard = main.query(
+                        "SELECT id, title, release_year, duration FROM movie", MOVIE_ROW).stream()
+                .collect(Collectors.groupingBy(row -> shards.shardFor(row.id())));
+        byShard.forEach((shard, rows) -> shards.transactions(shard).executeWithoutResult(status -> {
+            for (MovieRow row : rows) {
+                write(shards.jdbc(shard), row, genreIds.getOrDefault(row.id(), List.of()),
+                        actorIds.getOrDefault(row.id(), List.of()));
+            }
+        }));
+        mainTransactions.executeWithoutResult(status -> {
+            main.update("DELETE FROM movie_genres");
+            main.update("DELETE FROM movie_actors");
+            main.update("DELETE FROM movie");
+        });
+    }
+
+    @Override
+    public Optional<Movie> findById(Long id) {
+        List<MovieRow> rows = shards.jdbc(shards.shardFor(id)).query(COLUMNS + " WHERE m.id = ?", MOVIE_ROW, id);
+        return hydrate(rows).stream().findFirst();
+    }
+
+    @Override
+    public List<Movie> findAllById(Collection<Long> ids) {
+        Map<Integer, List<Long>> idsByShard = ids.stream().distinct()
+                .collect(Collectors.groupingBy(shards::shardFor));
+        List<MovieRow> rows = new ArrayList<>();
+        idsByShard.forEach((shard, shardIds) -> {
+            for (List<Long> batch : batches(shardIds)) {
+                String in = String.join(", ", Collections.nCopies(batch.size(), "?"));
+                rows.addAll(shards.jdbc(shard).query(COLUMNS + " WHERE m.id IN (" + in + ")", MOVIE_ROW, batch.toArray()));
+            }
+        });
+        return hydrate(rows);
+    }
+
+    @Override
+    public List<Movie> findAll() {
+        return list(Filter.NONE);
+    }
+
+    @Override
+    public Page<Movie> findAll(Pageable pageable) {
+        return page(Filter.NONE, pageable);
+    }
+
+    @Override
+    public List<Movie> findByReleaseYear(Integer year) {
+        return list(Filter.releaseYear(year));
+    }
+
+    @Override
+    public Page<Movie> findByReleaseYear(Integer year, Pageable pageable) {
+        return page(Filter.releaseYear(year), pageable);
+    }
+
+    @Override
+    public List<Movie> findByGenresId(Long genreId) {
+        return list(Filter.genre(genreId));
+    }
+
+    @Override
+    public Page<Movie> findByGenresId(Long genreId, Pageable pageable) {
+        return page(Filter.genre(genreId), pageable);
+    }
+
+    @Override
+    public List<Movie> findByActorsId(Long actorId) {
+        return list(Filter.actor(actorId));
+    }
+
+    @Override
+    public Page<Movie> findByActorsId(Long actorId, Pageable pageable) {
+        return page(Filter.actor(actorId), pageable);
+    }
+
+    @Override
+    public List<Movie> findByTitleContainingIgnoreCase(String title) {
+        return list(Filter.title(title));
+    }
+
+    @Override
+    public Page<Movie> findByTitleContainingIgnoreCase(String title, Pageable pageable) {
+        return page(Filter.title(title), pageable);
+    }
+
+    @Override
+    public Page<Movie> findAllOrderByPopularity(Pageable pageable) {
+        return popularityPage(Filter.NONE, pageable);
+    }
+
+    @Override
+    public Page<Movie> findByReleaseYearOrderByPopularity(Integer year, Pageable pageable) {
+        return popularityPage(Filter.releaseYear(year), pageable);
+    }
+
+    @Override
+    public Page<Movie> findByGenresIdOrderByPopularity(Long genreId, Pageable pageable) {
+        return popularityPage(Filter.genre(genreId), pageable);
+    }
+
+    @Override
+    public Page<Movie> findByActorsIdOrderByPopularity(Long actorId, Pageable pageable) {
+        return popularityPage(Filter.actor(actorId), pageable);
+    }
+
+    @Override
+    public Page<Movie> findByTitleContainingIgnoreCaseOrderByPopularity(String title, Pageable pageable) {
+        return popularityPage(Filter.title(title), pageable);
+    }
+
+    @Override
+    public List<Object[]> findAllIdsAndTitles() {
+        return scatterRows("SELECT id, title FROM movie");
+    }
+
+    @Override
+    public List<Object[]> findAllMovieActorIds() {
+        return scatterRows("SELECT movie_id, actor_id FROM movie_actors");
+    }
+
+    @Override
+    public List<Object[]> findAllMovieGenreIds() {
+        return scatterRows("SELECT movie_id, genre_id FROM movie_genres");
+    }
+
+    @Override
+    public List<Movie> findAllByIdWithAssociations(Collection<Long> ids) {
+        // hydrate already attaches genres and actors in bulk
+        return findAllById(ids);
+    }
+
+    @Override
+    public List<Object[]> findMovieIdsByActorIds(Collection<Long> actorIds) {
+        return scatterRowsIn("SELECT actor_id, movie_id FROM movie_actors WHERE actor_id IN ", actorIds);
+    }
+
+    @Override
+    public List<Object[]> findMovieIdsByGenreIds(Collection<Long> genreIds) {
+        return scatterRowsIn("SELECT genre_id, movie_id FROM movie_genres WHERE genre_id IN ", genreIds);
+    }
+
+    @Override
+    public Movie save(Movie movie) {
+        long id = movie.getId() != null ? movie.getId() : lastId.incrementAndGet();
+        int shard = shards.shardFor(id);
+        MovieRow row = new MovieRow(id, movie.getTitle(), movie.getReleaseYear(), movie.getDuration());
+        List<Long> genreIds = movie.getGenres() == null ? List.of()
+                : movie.getGenres().stream().map(Genre::getId).toList();
+        List<Long> actorIds = movie.getActors() == null ? List.of()
+                : movie.getActors().stream().map(Actor::getId).toList();
+
+        shards.transactions(shard).executeWithoutResult(status -> write(shards.jdbc(shard), row, genreIds, actorIds));
+        movie.setId(id);
+        return movie;
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        int shard = shards.shardFor(id);
+        shards.transactions(shard).executeWithoutResult(status -> {
+            JdbcTemplate jdbc = shards.jdbc(shard);
+            jdbc.update("DELETE FROM movie_genres WHERE movie_id = ?", id);
+            jdbc.update("DELETE FROM movie_actors WHERE movie_id = ?", id);
+            jdbc.update("DELETE FROM movie WHERE id = ?", id);
+        });
+    }
+
+    @Override
+    public void clearMovieGenreRelationships(Long movieId) {
+        shards.jdbc(shards.shardFor(movieId)).update("DELETE FROM movie_genres WHERE movie_id = ?", movieId);
+    }
+
+    @Override
+    public void clearMovieActorRelationships(Long movieId) {
+        shards.jdbc(shards.shardFor(movieId)).update("DELETE FROM movie_actors WHERE movie_id = ?", movieId);
+    }
+
+    // genre/actor side of the join tables, which lives on every shard
+    public void clearGenreRelationships(Long genreId) {
+        shards.scatter(jdbc -> jdbc.update("DELETE FROM movie_genres WHERE genre_id = ?", genreId));
+    }
+
+    public void clearActorRelationships(Long actorId) {
+        shards.scatter(jdbc -> jdbc.update("DELETE FROM movie_actors WHERE actor_id = ?", actorId));
+    }
+
+    public long countMoviesWithGenre(Long genreId) {
+        return count(Filter.genre(genreId));
+    }
+
+    public long countMoviesWithActor(Long actorId) {
+        return count(Filter.actor(actorId));
+    }
+
+    private List<Object[]> scatterRows(String sql, Object... args) {
+        List<Object[]> rows = new ArrayList<>();
+        shards.scatter(jdbc -> jdbc.query(sql, (rs, rowNum) -> new Object[] {rs.getLong(1), rs.getObject(2)}, args))
+                .forEach(rows::addAll);
+        return rows;
+    }
+
+    // (id, movie_id) rows for the given ids from every shard, ordered by movie id
+    private List<Object[]> scatterRowsIn(String sql, Collection<Long> ids) {
+        List<Object[]> rows = new ArrayList<>();
+        for (List<Long> batch : batches(List.copyOf(ids))) {
+            String in = "(" + String.join(", ", Collections.nCopies(batch.size(), "?")) + ")";
+            rows.addAll(scatterRows(sql + in, batch.toArray()));
+        }
+        rows.sort(Comparator.comparingLong(row -> (Long) row[1]));
+        return rows;
+    }
+
+    private static void write(JdbcTemplate jdbc, MovieRow row, List<Long> genreIds, List<Long> actorIds) {
+        jdbc.update("INSERT INTO movie (id, title, release_year, duration) VALUES (?, ?, ?, ?) "
+                        + "ON CONFLICT (id) DO UPDATE SET title = excluded.title, "
+                        + "release_year = excluded.release_year, duration = excluded.duration",
+                row.id(), row.title(), row.releaseYear(), row.duration());
+        jdbc.update("DELETE FROM movie_genres WHERE movie_id = ?", row.id());
+        jdbc.batchUpdate("INSERT INTO movie_genres (movie_id, genre_id) VALUES (?, ?)",
+                genreIds.stream().map(genreId -> new Object[] {row.id(), genreId}).toList());
+        jdbc.update("DELETE FROM movie_actors WHERE movie_id = ?", row.id());
+        jdbc.batchUpdate("INSERT INTO movie_actors (movie_id, actor_id) VALUES (?, ?)",
+                actorIds.stream().map(actorId -> new Object[] {row.id(), actorId}).toList());
+    }
+
+    private long count(Filter filter) {
+        return shards.scatter(jdbc -> jdbc.queryForObject(
+                        "SELECT COUNT(*) FROM movie m" + filter.join() + filter.where(), Long.class, filter.args()))
+                .stream().mapToLong(Long::longValue).sum();
+    }
+
+    private List<Movie> list(Filter filter) {
+        String sql = COLUMNS + filter.join() + filter.where() + " ORDER BY m.id";
+        List<List<MovieRow>> perShard = shards.scatter(jdbc -> jdbc.query(sql, MOVIE_ROW, filter.args()));
+        return hydrate(merge(perShard, MovieOrder.of(Sort.unsorted()), 0, Integer.MAX_VALUE));
+    }
+
+    // each shard returns its first offset + size rows in the requested order; the k-way merge
+    // of those runs skips the offset and keeps the page
+    private Page<Movie> page(Filter filter, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(list(filter));
+        }
+        long window = pageable.getOffset() + pageable.getPageSize();
+        if (window > MAX_WINDOW) {
+            throw new IllegalArgumentException("Page is too deep for sharded mode: offset + size must not exceed " + MAX_WINDOW);
+        }
+
+        MovieOrder order = MovieOrder.of(pageable.getSort());
+        String sql = COLUMNS + filter.join() + filter.where() + " ORDER BY " + order.sql() + " LIMIT " + window;
+        String countSql = "SELECT COUNT(*) FROM movie m" + filter.join() + filter.where();
+        List<ShardSlice> slices = shards.scatter(jdbc -> new ShardSlice(
+                jdbc.query(sql, MOVIE_ROW, filter.args()),
+                jdbc.queryForObject(countSql, Long.class, filter.args())));
+
+        List<MovieRow> rows = merge(slices.stream().map(ShardSlice::rows).toList(), order,
+                pageable.getOffset(), pageable.getPageSize());
+        long total = slices.stream().mapToLong(ShardSlice::total).sum();
+        return new PageImpl<>(hydrate(rows), pageable, total);
+    }
+
+    // the scores live in the main database, so the shards can't sort by them: every shard returns
+    // only the ids its filter matches, those are ranked by the scored rows, and only the page is loaded
+    private Page<Movie> popularityPage(Filter filter, Pageable pageable) {
+        List<Long> ids = new ArrayList<>();
+        shards.scatter(jdbc -> jdbc.queryForList("SELECT m.id FROM movie m" + filter.join() + filter.where(),
+                Long.class, filter.args())).forEach(ids::addAll);
+        Map<Long, Double> scores = new HashMap<>();
+        main.query("SELECT entity_id, log_score FROM popularity WHERE entity_type = 'MOVIE'",
+                rs -> { scores.put(rs.getLong(1), rs.getDouble(2)); });
+
+        Comparator<Long> byScore = Comparator.comparingDouble(id -> scores.getOrDefault(id, Double.NEGATIVE_INFINITY));
+        if (pageable.getSort().getOrderFor(PopularityService.SORT_PROPERTY).isDescending()) {
+            byScore = byScore.reversed();
+        }
+        ids.sort(byScore.thenComparing(Comparator.naturalOrder()));
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        List<Long> pageIds = ids.subList(from, Math.min(from + pageable.getPageSize(), ids.size()));
+
+        Map<Long, Movie> movies = new HashMap<>();
+        for (Movie movie : findAllById(pageIds)) {
+            movies.put(movie.getId(), movie);
+        }
+        return new PageImpl<>(pageIds.stream().map(movies::get).filter(Objects::nonNull).toList(), pageable, ids.size());
+    }
+
+    static List<MovieRow> merge(List<List<MovieRow>> runs, MovieOrder order, long skip, int limit) {
+        PriorityQueue<Run> heads = new PriorityQueue<>((a, b) -> order.compare(a.head, b.head));
+        for (List<MovieRow> run : runs) {
+            if (!run.isEmpty()) {
+                heads.add(new Run(run.iterator()));
+            }
+        }
+
+        List<MovieRow> page = new ArrayList<>();
+        long position = 0;
+        while (!heads.isEmpty() && page.size() < limit) {
+            Run run = heads.poll();
+            if (position++ >= skip) {
+                page.add(run.head);
+            }
+            if (run.advance()) {
+                heads.add(run);
+            }
+        }
+        return page;
+    }
+
+    // attaches genres and actors from the main database, keeping the row order
+    private List<Movie> hydrate(List<MovieRow> rows) {
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Set<Long>> genreIds = new HashMap<>();
+        Map<Long, Set<Long>> actorIds = new HashMap<>();
+        Map<Integer, List<Long>> idsByShard = rows.stream()
+                .collect(Collectors.groupingBy(row -> shards.shardFor(row.id()),
+                        Collectors.mapping(MovieRow::id, Collectors.toList())));
+        idsByShard.forEach((shard, ids) -> {
+            JdbcTemplate jdbc = shards.jdbc(shard);
+            for (List<Long> batch : batches(ids)) {
+                String in = String.join(", ", Collections.nCopies(batch.size(), "?"));
+                jdbc.query("SELECT movie_id, genre_id FROM movie_genres WHERE movie_id IN (" + in + ")",
+                        rs -> { genreIds.computeIfAbsent(rs.getLong(1), k -> new HashSet<>()).add(rs.getLong(2)); },
+                        batch.toArray());
+                jdbc.query("SELECT movie_id, actor_id FROM movie_actors WHERE movie_id IN (" + in + ")",
+                        rs -> { actorIds.computeIfAbsent(rs.getLong(1), k -> new HashSet<>()).add(rs.getLong(2)); },
+                        batch.toArray());
+            }
+        });
+
+        Map<Long, Genre> genres = load(genreIds.values(), batch -> genreRepository.findAllById(batch), Genre::getId);
+        Map<Long, Actor> actors = load(actorIds.values(), batch -> actorRepository.findAllById(batch), Actor::getId);
+
+        List<Movie> movies = new ArrayList<>(rows.size());
+        for (MovieRow row : rows) {
+            Movie movie = new Movie(row.title(), row.releaseYear(), row.duration());
+            movie.setId(row.id());
+            movie.setGenres(resolve(genreIds.get(row.id()), genres));
+            movie.setActors(resolve(actorIds.get(row.id()), actors));
+            movies.add(movie);
+        }
+        return movies;
+    }
+
+    private static <T> Map<Long, T> load(Collection<Set<Long>> idSets, Function<List<Long>, List<T>> finder,
+                                         Function<T, Long> idOf) {
+        List<Long> ids = idSets.stream().flatMap(Set::stream).distinct().toList();
+        Map<Long, T> loaded = new HashMap<>();
+        for (List<Long> batch : batches(ids)) {
+            for (T entity : finder.apply(batch)) {
+                loaded.put(idOf.apply(entity), entity);
+            }
+        }
+        return loaded;
+    }
+
+    // join rows pointing at a genre or actor that no longer exists are dropped
+    private static <T> Set<T> resolve(Set<Long> ids, Map<Long, T> entities) {
+        Set<T> resolved = new HashSet<>();
+        if (ids != null) {
+            for (Long id : ids) {
+                T entity = entities.get(id);
+                if (entity != null) {
+                    resolved.add(entity);
+                }
+            }
+        }
+        return resolved;
+    }
+
+    private static List<List<Long>> batches(List<Long> ids) {
+        List<List<Long>> batches = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += IN_BATCH) {
+            batches.add(ids.subList(from, Math.min(ids.size(), from + IN_BATCH)));
+        }
+        return batches;
+    }
+
+    record MovieRow(long id, String title, int releaseYear, int duration) {}
+
+    private record ShardSlice(List<MovieRow> rows, long total) {}
+
+    private record Filter(String join, String where, Object[] args) {
+        static final Filter NONE = new Filter("", "", new Object[0]);
+
+        static Filter releaseYear(Integer year) {
+            return new Filter("", " WHERE m.release_year = ?", new Object[] {year});
+        }
+
+        static Filter genre(Long genreId) {
+            return new Filter(" JOIN movie_genres mg ON mg.movie_id = m.id", " WHERE mg.genre_id = ?",
+                    new Object[] {genreId});
+        }
+
+        static Filter actor(Long actorId) {
+            return new Filter(" JOIN movie_actors ma ON ma.movie_id = m.id", " WHERE ma.actor_id = ?",
+                    new Object[] {actorId});
+        }
+
+        // SQLite LIKE is already case-insensitive for ASCII, like the single-file search
+        static Filter title(String title) {
+            String escaped = title.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+            return new Filter("", " WHERE m.title LIKE ? ESCAPE '\\'", new Object[] {"%" + escaped + "%"});
+        }
+    }
+
+    private static final class Run {
+        private final Iterator<MovieRow> rows;
+        private MovieRow head;
+
+        Run(Iterator<MovieRow> rows) {
+            this.rows = rows;
+            this.head = rows.next();
+        }
+
+        boolean advance() {
+            if (!rows.hasNext()) {
+                return false;
+            }
+            head = rows.next();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.koodjohvi.movieapi.sharding;
+
+import com.koodjohvi.movieapi.events.ActorSnapshot;
+import com.koodjohvi.movieapi.events.CatalogChangeEvent;
+import com.koodjohvi.movieapi.events.CatalogChangeType;
+import com.koodjohvi.movieapi.events.GenreSnapshot;
+import com.koodjohvi.movieapi.exception.DeletionNotAllowedException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// in sharded mode the join rows are not in the main database, so ActorService and GenreService
+// see no movies on a genre or actor; their events are checked against the shards instead.
+// runs synchronously inside the deleting transaction, so throwing here rolls the delete back
+@Component
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+public class ShardedReferenceGuard {
+
+    private final ShardedMovieStore movieStore;
+
+    public ShardedReferenceGuard(ShardedMovieStore movieStore) {
+        this.movieStore = movieStore;
+    }
+
+    @EventListener
+    public void onCatalogChange(CatalogChangeEvent event) {
+        // force delete: the services publish the clear before the delete
+        if (event.changeType() == CatalogChangeType.RELATIONSHIPS_CLEARED) {
+            switch (event.entityType()) {
+                case ACTOR -> movieStore.clearActorRelationships(event.entityId());
+                case GENRE -> movieStore.clearGenreRelationships(event.entityId());
+                default -> { }
+            }
+            return;
+        }
+        if (event.changeType() != CatalogChangeType.DELETED) {
+            return;
+        }
+
+        if (event.before() instanceof ActorSnapshot actor) {
+            long movieCount = movieStore.countMoviesWithActor(actor.id());
+            if (movieCount > 0) {
+                throw new DeletionNotAllowedException(
+                        "Cannot delete actor '" + actor.name() +
+                        "' because actor has " + movieCount + " associated movie(s)"
+                );
+            }
+        } else if (event.before() instanceof GenreSnapshot genre) {
+            long movieCount = movieStore.countMoviesWithGenre(genre.id());
+            if (movieCount > 0) {
+                throw new DeletionNotAllowedException(
+                        "Cannot delete genre '" + genre.name() +
+                        "' because genre has " + movieCount + " associated movie(s)."
+                );
+            }
+        }
+    }
+}
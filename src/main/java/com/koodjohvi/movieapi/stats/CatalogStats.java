@@ -0,0 +1,15 @@
+package com.koodjohvi.movieapi.stats;
+
+import java.util.List;
+
+public record CatalogStats(long movies, long actors, long genres,
+                           List<YearCount> moviesPerYear,
+                           List<GenreStats> genreStats,
+                           List<ActorStats> topActors) {
+
+    public record YearCount(Integer year, long movies) {}
+
+    public record GenreStats(Long genreId, String name, long movies, double averageDuration) {}
+
+    public record ActorStats(Long actorId, String name, long movies) {}
+}
@@ -0,0 +1,283 @@
+package com.koodjohvi.movieapi.stats;
+
+import com.koodjohvi.movieapi.entities.Genre;
+import com.koodjohvi.movieapi.events.*;
+import com.koodjohvi.movieapi.repositories.ActorRepository;
+import com.koodjohvi.movieapi.repositories.GenreRepository;
+import com.koodjohvi.movieapi.repositories.MovieRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+// Precomputed catalog aggregates. Counters are kept in memory and updated from committed
+// service changes, so reads never touch the database. recompute() rebuilds everything from
+// aggregate queries and is used on startup, on a schedule and on demand to repair drift.
+// In sharded mode the movies and join rows are in the shard files, which these queries do not
+// cover, so the statistics are refused rather than computed from the main database.
+@Service
+public class CatalogStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogStatsService.class);
+
+    // upper bound for the top-actor list kept in the cached view
+    public static final int MAX_TOP_ACTORS = 100;
+
+    private static final Comparator<ActorTotals> BY_MOVIES_DESC =
+            Comparator.comparingLong((ActorTotals a) -> a.movies).reversed().thenComparing(a -> a.id);
+
+    private final MovieRepository movieRepository;
+    private final ActorRepository actorRepository;
+    private final GenreRepository genreRepository;
+    private final boolean sharded;
+
+    // all state below is guarded by "this"
+    private State state = new State();
+    private CatalogStats view;
+    // changes committed while a recompute reads the database, replayed onto the new state
+    private List<CatalogChangeEvent> pendingChanges;
+
+    public CatalogStatsService(MovieRepository movieRepository, ActorRepository actorRepository,
+                               GenreRepository genreRepository,
+                               @Value("${sharding.enabled:false}") boolean sharded) {
+        this.movieRepository = movieRepository;
+        this.actorRepository = actorRepository;
+        this.genreRepository = genreRepository;
+        this.sharded = sharded;
+    }
+
+    // full snapshot, rebuilt lazily only after a change
+    public synchronized CatalogStats getStats(int topActors) {
+        requireUnsharded();
+        if (view == null) {
+            view = state.toView();
+        }
+        if (topActors >= view.topActors().size()) {
+            return view;
+        }
+        return new CatalogStats(view.movies(), view.actors(), view.genres(), view.moviesPerYear(),
+                view.genreStats(), List.copyOf(view.topActors().subList(0, topActors)));
+    }
+
+    public synchronized List<CatalogStats.ActorStats> getTopActors(int limit) {
+        requireUnsharded();
+        return state.topActors(Math.min(limit, MAX_TOP_ACTORS));
+    }
+
+    @TransactionalEventListener
+    public synchronized void onCatalogChange(CatalogChangeEvent event) {
+        // a force-delete's DELETED event carries the associations as they were before clearing
+        if (sharded || event.changeType() == CatalogChangeType.RELATIONSHIPS_CLEARED) {
+            return;
+        }
+        apply(event);
+        if (pendingChanges != null) {
+            pendingChanges.add(event);
+        }
+        view = null;
+    }
+
+    @EventListener({ApplicationReadyEvent.class, CatalogBulkChangeEvent.class})
+    @Scheduled(cron = "${stats.recompute-cron:0 0 3 * * *}")
+    @Transactional(readOnly = true)
+    public void recompute() {
+        if (sharded) {
+            return;
+        }
+        long started = System.nanoTime();
+        // set before the first query, which is where the read transaction takes its snapshot
+        synchronized (this) {
+            pendingChanges = new ArrayList<>();
+        }
+
+        // built without holding the lock; only a change whose commit lands right as this starts
+        // and whose event arrives after can be counted twice, which the next recompute corrects
+        State fresh = new State();
+        try {
+            fresh.movies = movieRepository.count();
+            for (Object[] row : movieRepository.countMoviesByReleaseYear()) {
+                fresh.moviesPerYear.put((Integer) row[0], ((Number) row[1]).longValue());
+            }
+            for (Genre genre : genreRepository.findAll()) {
+                fresh.genres.put(genre.getId(), new GenreTotals(genre.getName()));
+            }
+            for (Object[] row : movieRepository.summarizeMoviesByGenre()) {
+                GenreTotals totals = fresh.genres.get((Long) row[0]);
+                if (totals != null) {
+                    totals.movies = ((Number) row[1]).longValue();
+                    totals.durationSum = row[2] == null ? 0 : ((Number) row[2]).longValue();
+                }
+            }
+            for (Object[] row : actorRepository.findAllIdsAndNames()) {
+                fresh.actors.put((Long) row[0], new ActorTotals((Long) row[0], (String) row[1]));
+            }
+            for (Object[] row : movieRepository.countMoviesByActor()) {
+                ActorTotals totals = fresh.actors.get((Long) row[0]);
+                if (totals != null) {
+                    totals.movies = ((Number) row[1]).longValue();
+                }
+            }
+            fresh.ranking.addAll(fresh.actors.values());
+        } catch (RuntimeException e) {
+            // keep serving the counters we have
+            synchronized (this) {
+                pendingChanges = null;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            state = fresh;
+            for (CatalogChangeEvent event : pendingChanges) {
+                apply(event);
+            }
+            pendingChanges = null;
+            view = null;
+        }
+        log.info("Recomputed catalog stats in {} ms", (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void requireUnsharded() {
+        if (sharded) {
+            throw new IllegalArgumentException("Catalog statistics are not available in sharded mode");
+        }
+    }
+
+    private void apply(CatalogChangeEvent event) {
+        switch (event.entityType()) {
+            case MOVIE -> applyMovieChange((MovieSnapshot) event.before(), (MovieSnapshot) event.after());
+            case ACTOR -> applyActorChange((ActorSnapshot) event.before(), (ActorSnapshot) event.after());
+            case GENRE -> applyGenreChange((GenreSnapshot) event.before(), (GenreSnapshot) event.after());
+        }
+    }
+
+    private void applyMovieChange(MovieSnapshot before, MovieSnapshot after) {
+        if (before != null) {
+            state.movies--;
+            state.moviesPerYear.merge(before.releaseYear(), -1L, Long::sum);
+            state.moviesPerYear.remove(before.releaseYear(), 0L);
+            for (Long genreId : before.genreIds()) {
+                GenreTotals totals = state.genres.get(genreId);
+                if (totals != null) {
+                    totals.movies--;
+                    totals.durationSum -= before.duration();
+                }
+            }
+            for (Long actorId : before.actorIds()) {
+                state.adjustActor(actorId, -1);
+            }
+        }
+        if (after != null) {
+            state.movies++;
+            state.moviesPerYear.merge(after.releaseYear(), 1L, Long::sum);
+            for (Long genreId : after.genreIds()) {
+                GenreTotals totals = state.genres.get(genreId);
+                if (totals != null) {
+                    totals.movies++;
+                    totals.durationSum += after.duration();
+                }
+            }
+            for (Long actorId : after.actorIds()) {
+                state.adjustActor(actorId, 1);
+            }
+        }
+    }
+
+    private void applyActorChange(ActorSnapshot before, ActorSnapshot after) {
+        if (after == null) {
+            ActorTotals removed = state.actors.remove(before.id());
+            if (removed != null) {
+                state.ranking.remove(removed);
+            }
+            return;
+        }
+        ActorTotals totals = state.actors.get(after.id());
+        if (totals == null) {
+            totals = new ActorTotals(after.id(), after.name());
+            state.actors.put(after.id(), totals);
+            state.ranking.add(totals);
+        } else {
+            totals.name = after.name();
+        }
+    }
+
+    private void applyGenreChange(GenreSnapshot before, GenreSnapshot after) {
+        if (after == null) {
+            // force-delete also removed the genre from its movies, so its totals simply go away
+            state.genres.remove(before.id());
+            return;
+        }
+        state.genres.computeIfAbsent(after.id(), id -> new GenreTotals(after.name())).name = after.name();
+    }
+
+    private static final class GenreTotals {
+        String name;
+        long movies;
+        long durationSum;
+
+        GenreTotals(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final class ActorTotals {
+        final Long id;
+        String name;
+        long movies;
+
+        ActorTotals(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    private static final class State {
+        long movies;
+        final Map<Integer, Long> moviesPerYear = new TreeMap<>();
+        final Map<Long, GenreTotals> genres = new TreeMap<>();
+        final Map<Long, ActorTotals> actors = new HashMap<>();
+        // actors ordered by movie count, so the top list is read off the head
+        final TreeSet<ActorTotals> ranking = new TreeSet<>(BY_MOVIES_DESC);
+
+        void adjustActor(Long actorId, int delta) {
+            ActorTotals totals = actors.get(actorId);
+            if (totals == null) {
+                return;
+            }
+            // re-insert so the ranking stays ordered
+            ranking.remove(totals);
+            totals.movies += delta;
+            ranking.add(totals);
+        }
+
+        List<CatalogStats.ActorStats> topActors(int limit) {
+            List<CatalogStats.ActorStats> top = new ArrayList<>(limit);
+            for (ActorTotals totals : ranking) {
+                if (top.size() >= limit || totals.movies <= 0) {
+                    break;
+                }
+                top.add(new CatalogStats.ActorStats(totals.id, totals.name, totals.movies));
+            }
+            return top;
+        }
+
+        CatalogStats toView() {
+            List<CatalogStats.YearCount> years = new ArrayList<>(moviesPerYear.size());
+            moviesPerYear.forEach((year, count) -> years.add(new CatalogStats.YearCount(year, count)));
+
+            List<CatalogStats.GenreStats> genreStats = new ArrayList<>(genres.size());
+            genres.forEach((id, totals) -> genreStats.add(new CatalogStats.GenreStats(id, totals.name, totals.movies,
+                    totals.movies == 0 ? 0 : (double) totals.durationSum / totals.movies)));
+
+            return new CatalogStats(movies, actors.size(), genres.size(), List.copyOf(years),
+                    List.copyOf(genreStats), topActors(MAX_TOP_ACTORS));
+        }
+    }
+}
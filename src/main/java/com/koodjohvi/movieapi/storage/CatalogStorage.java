@@ -0,0 +1,21 @@
+package com.koodjohvi.movieapi.storage;
+
+import java.util.Locale;
+
+// storage engine selected by the active profile (catalog.storage)
+public enum CatalogStorage {
+    // default: ./database.db, one writer at a time
+    SQLITE,
+    // embedded H2 file database, MVStore/MVCC with concurrent writers (profile "h2")
+    H2,
+    // in-memory H2, for tests and benchmarks (profile "memory")
+    MEMORY;
+
+    public static CatalogStorage of(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public boolean isSingleWriter() {
+        return this == SQLITE;
+    }
+}
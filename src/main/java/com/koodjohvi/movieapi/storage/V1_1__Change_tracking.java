@@ -0,0 +1,59 @@
+package com.koodjohvi.movieapi.storage;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+// Flyway migration 1.1: the mod_seq columns, change_log and change_log_lock. In Java because SQLite
+// has no ADD COLUMN IF NOT EXISTS: databases created by ddl-auto=update after change tracking
+// was added already have the columns, older ones (like the shipped ./database.db) do not.
+// Spring Boot hands JavaMigration beans to Flyway; the standalone generator registers it itself.
+@Component
+public class V1_1__Change_tracking extends BaseJavaMigration {
+
+    private static final List<String> TRACKED = List.of("genre", "actor", "movie");
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            for (String table : TRACKED) {
+                if (!hasColumn(connection, table, "mod_seq")) {
+                    statement.execute("ALTER TABLE " + table + " ADD COLUMN mod_seq BIGINT");
+                }
+                statement.execute("CREATE INDEX IF NOT EXISTS idx_" + table + "_mod_seq ON " + table + " (mod_seq)");
+            }
+            statement.execute("""
+                    CREATE TABLE IF NOT EXISTS change_log (
+                        seq INTEGER PRIMARY KEY,
+                        entity_type VARCHAR(255) NOT NULL,
+                        entity_id BIGINT NOT NULL,
+                        change_type VARCHAR(255) NOT NULL,
+                        payload VARCHAR(65535),
+                        created_at BIGINT NOT NULL
+                    )""");
+            statement.execute("""
+                    CREATE TABLE IF NOT EXISTS change_log_lock (
+                        id BIGINT PRIMARY KEY,
+                        appends BIGINT
+                    )""");
+        }
+    }
+
+    private static boolean hasColumn(Connection connection, String table, String column) throws SQLException {
+        try (ResultSet columns = connection.getMetaData().getColumns(null, null, table, null)) {
+            while (columns.next()) {
+                if (column.equalsIgnoreCase(columns.getString("COLUMN_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
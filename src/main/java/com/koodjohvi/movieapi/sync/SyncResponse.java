@@ -0,0 +1,21 @@
+package com.koodjohvi.movieapi.sync;
+
+import com.koodjohvi.movieapi.entities.Actor;
+import com.koodjohvi.movieapi.entities.Genre;
+import com.koodjohvi.movieapi.entities.Movie;
+import com.koodjohvi.movieapi.events.CatalogEntityType;
+
+import java.util.List;
+
+// Clients apply "deleted" first, then upsert the changed entities, and send highWaterMark as the
+// next "since". A deleted actor or genre is not re-sent inside the movies that referenced it;
+// clients drop those references when they apply the tombstone. resnapshot means rows were bulk
+// loaded in the window without per-row changes: discard local state and sync again from 0.
+// The snapshot (since=0) comes in pages: while cursor is set, pass it back with since=0; once
+// it is null, the snapshot is complete as of highWaterMark and delta sync continues from there.
+public record SyncResponse(long since, long highWaterMark, boolean hasMore, boolean resnapshot, String cursor,
+                           List<Movie> movies, List<Actor> actors, List<Genre> genres,
+                           List<Tombstone> deleted) {
+
+    public record Tombstone(CatalogEntityType entityType, Long id, Long seq) {}
+}
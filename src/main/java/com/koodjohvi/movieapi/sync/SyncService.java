@@ -0,0 +1,165 @@
+package com.koodjohvi.movieapi.sync;
+
+import com.koodjohvi.movieapi.entities.ChangeLogEntry;
+import com.koodjohvi.movieapi.entities.Actor;
+import com.koodjohvi.movieapi.entities.Genre;
+import com.koodjohvi.movieapi.entities.Movie;
+import com.koodjohvi.movieapi.events.CatalogChangeType;
+import com.koodjohvi.movieapi.events.CatalogEntityType;
+import com.koodjohvi.movieapi.repositories.ActorRepository;
+import com.koodjohvi.movieapi.repositories.ChangeLogRepository;
+import com.koodjohvi.movieapi.repositories.GenreRepository;
+import com.koodjohvi.movieapi.repositories.MovieRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// Delta sync on top of the change log: every row carries the sequence of its latest change
+// (mod_seq, indexed) and deletes are the DELETED entries of the log, so a sync is a handful of
+// range scans over (since, highWaterMark]. The first sync pages through the tables by id
+// (genres, actors, then movies) with a cursor that pins the log head taken when it started:
+// rows changed while it runs have a later mod_seq and come again in the delta from that head.
+// Not available in sharded mode, where the movies are not in the main database.
+@Service
+public class SyncService {
+
+    public static final int MAX_CHANGES = 10_000;
+
+    private final ChangeLogRepository changeLogRepository;
+    private final MovieRepository movieRepository;
+    private final ActorRepository actorRepository;
+    private final GenreRepository genreRepository;
+    private final boolean sharded;
+
+    public SyncService(ChangeLogRepository changeLogRepository, MovieRepository movieRepository,
+                       ActorRepository actorRepository, GenreRepository genreRepository,
+                       @Value("${sharding.enabled:false}") boolean sharded) {
+        this.changeLogRepository = changeLogRepository;
+        this.movieRepository = movieRepository;
+        this.actorRepository = actorRepository;
+        this.genreRepository = genreRepository;
+        this.sharded = sharded;
+    }
+
+    @Transactional(readOnly = true)
+    public SyncResponse sync(long since, int limit, String cursor) {
+        if (sharded) {
+            throw new IllegalArgumentException("Sync is not available in sharded mode");
+        }
+        if (since < 0) {
+            throw new IllegalArgumentException("'since' must not be negative");
+        }
+        if (limit < 1 || limit > MAX_CHANGES) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_CHANGES);
+        }
+        // first sync: full snapshot, which also covers rows written before the change log existed
+        if (since == 0) {
+            return snapshot(limit, cursor == null ? new Cursor(changeLogRepository.findHeadSeq(), CatalogEntityType.GENRE, 0)
+                    : Cursor.parse(cursor));
+        }
+        if (cursor != null) {
+            throw new IllegalArgumentException("'cursor' continues a snapshot and requires since=0");
+        }
+        long head = changeLogRepository.findHeadSeq();
+
+        // cut the window after "limit" log entries so one response stays bounded
+        List<ChangeLogEntry> window = changeLogRepository.findBySeqGreaterThanOrderBySeqAsc(since, Limit.of(limit));
+        long until = window.size() < limit ? head : window.get(window.size() - 1).getSeq();
+        if (window.isEmpty()) {
+            return new SyncResponse(since, Math.max(since, head), false, false, null, List.of(), List.of(), List.of(), List.of());
+        }
+        if (window.stream().anyMatch(entry -> entry.getChangeType() == CatalogChangeType.BULK_LOADED)) {
+            return new SyncResponse(since, head, false, true, null, List.of(), List.of(), List.of(), List.of());
+        }
+
+        List<SyncResponse.Tombstone> deleted = changeLogRepository
+                .findByChangeTypeAndSeqGreaterThanAndSeqLessThanEqualOrderBySeqAsc(CatalogChangeType.DELETED, since, until)
+                .stream()
+                .map(entry -> new SyncResponse.Tombstone(entry.getEntityType(), entry.getEntityId(), entry.getSeq()))
+                .toList();
+
+        return new SyncResponse(since, until, until < head, false, null,
+                withAssociations(movieRepository.findByModSeqGreaterThanAndModSeqLessThanEqual(since, until)),
+                actorRepository.findByModSeqGreaterThanAndModSeqLessThanEqual(since, until),
+                genreRepository.findByModSeqGreaterThanAndModSeqLessThanEqual(since, until),
+                deleted);
+    }
+
+    // up to limit rows from the cursor on; a full page ends with the cursor of the next one
+    private SyncResponse snapshot(int limit, Cursor at) {
+        List<Genre> genres = List.of();
+        List<Actor> actors = List.of();
+        List<Movie> movies = List.of();
+        int budget = limit;
+        CatalogEntityType type = at.type();
+        long after = at.afterId();
+        if (type == CatalogEntityType.GENRE) {
+            genres = genreRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(budget));
+            if (genres.size() == budget) {
+                return snapshotPage(at.head(), type, genres.get(genres.size() - 1).getId(), movies, actors, genres);
+            }
+            budget -= genres.size();
+            type = CatalogEntityType.ACTOR;
+            after = 0;
+        }
+        if (type == CatalogEntityType.ACTOR) {
+            actors = actorRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(budget));
+            if (actors.size() == budget) {
+                return snapshotPage(at.head(), type, actors.get(actors.size() - 1).getId(), movies, actors, genres);
+            }
+            budget -= actors.size();
+            after = 0;
+        }
+        movies = withAssociations(movieRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(budget)));
+        if (movies.size() == budget) {
+            return snapshotPage(at.head(), CatalogEntityType.MOVIE, movies.get(movies.size() - 1).getId(),
+                    movies, actors, genres);
+        }
+        return new SyncResponse(0, at.head(), false, false, null, movies, actors, genres, List.of());
+    }
+
+    // genres and actors of the whole page in two queries inside the transaction, instead of two
+    // lazy loads per movie while the response is serialized; they fill the same managed instances
+    private List<Movie> withAssociations(List<Movie> movies) {
+        if (!movies.isEmpty()) {
+            List<Long> ids = movies.stream().map(Movie::getId).toList();
+            movieRepository.findAllWithGenresByIdIn(ids);
+            movieRepository.findAllWithActorsByIdIn(ids);
+        }
+        return movies;
+    }
+
+    private static SyncResponse snapshotPage(long head, CatalogEntityType type, long lastId, List<Movie> movies,
+                                             List<Actor> actors, List<Genre> genres) {
+        return new SyncResponse(0, head, true, false, new Cursor(head, type, lastId).toString(),
+                movies, actors, genres, List.of());
+    }
+
+    // "<pinned head>:<table>:<last id>"
+    private record Cursor(long head, CatalogEntityType type, long afterId) {
+
+        static Cursor parse(String value) {
+            String[] parts = value.split(":");
+            try {
+                if (parts.length == 3) {
+                    Cursor cursor = new Cursor(Long.parseLong(parts[0]), CatalogEntityType.valueOf(parts[1]),
+                            Long.parseLong(parts[2]));
+                    if (cursor.head() >= 0 && cursor.afterId() >= 0) {
+                        return cursor;
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                // reported below
+            }
+            throw new IllegalArgumentException("Invalid snapshot cursor: " + value);
+        }
+
+        @Override
+        public String toString() {
+            return head + ":" + type + ":" + afterId;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+-- The catalog tables as they were before change tracking, with the DDL of the shipped
+-- ./database.db (which Hibernate created from the entities). Every statement is idempotent and
+-- the prod profile baselines existing databases at version 0, so this also runs against them;
+-- V1_1 adds the change tracking schema.
+CREATE TABLE IF NOT EXISTS actor (
+    id integer,
+    birth_date date not null,
+    name varchar(255) not null,
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS genre (
+    id integer,
+    name varchar(30) not null unique,
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS movie (
+    id integer,
+    duration integer not null check (duration>=1),
+    release_year integer not null,
+    title varchar(255) not null,
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS movie_actors (
+    movie_id bigint not null,
+    actor_id bigint not null,
+    primary key (movie_id, actor_id)
+);
+
+CREATE TABLE IF NOT EXISTS movie_genres (
+    movie_id bigint not null,
+    genre_id bigint not null,
+    primary key (movie_id, genre_id)
+);
@@ -0,0 +1,3 @@
+-- the join table primary keys lead with movie_id; ?genre= and ?actor= filters look up by the other side
+CREATE INDEX IF NOT EXISTS idx_movie_genres_genre_id ON movie_genres (genre_id, movie_id);
+CREATE INDEX IF NOT EXISTS idx_movie_actors_actor_id ON movie_actors (actor_id, movie_id);
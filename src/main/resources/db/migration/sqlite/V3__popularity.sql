@@ -0,0 +1,9 @@
+-- view counters flushed in batches by PopularityService
+CREATE TABLE IF NOT EXISTS popularity (
+    entity_type VARCHAR(255) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    views BIGINT NOT NULL,
+    log_score DOUBLE NOT NULL,
+    updated_at BIGINT NOT NULL,
+    PRIMARY KEY (entity_type, entity_id)
+);
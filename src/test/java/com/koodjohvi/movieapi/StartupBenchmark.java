@@ -0,0 +1,105 @@
+package com.koodjohvi.movieapi;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Time from JVM launch to the first 200 from GET /api/genres, for the packaged jar:
+// ./gradlew benchmark --tests '*StartupBenchmark' -Pbenchmark.startup.profile=prod
+// (add -Pbenchmark.startup.jar=build/aot/movie-api-0.0.1-SNAPSHOT.jar and
+// -Pbenchmark.startup.jvm-args='-XX:AOTCache=build/aot/app.aot -Dspring.aot.enabled=true' after ./gradlew aotCache)
+@Tag("benchmark")
+class StartupBenchmark {
+
+    private static final String JAR = System.getProperty("benchmark.startup.jar", "");
+    private static final String PROFILE = System.getProperty("benchmark.startup.profile", "");
+    private static final String JVM_ARGS = System.getProperty("benchmark.startup.jvm-args", "");
+    private static final int RUNS = 5;
+    private static final Duration MAX_STARTUP = Duration.ofMinutes(2);
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    @Test
+    void timeToFirstGenresResponse() throws Exception {
+        assertThat(new File(JAR)).as("boot jar").exists();
+        Path database = Path.of("build", "startup-benchmark.db");
+        Files.deleteIfExists(database);
+
+        // the first start creates the schema; restarts against an existing database are what is measured
+        startAndMeasure(database);
+        long[] millis = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            millis[i] = startAndMeasure(database);
+        }
+        Arrays.sort(millis);
+
+        System.out.printf("startup to first GET /api/genres (profile %s%s): min %d ms, median %d ms, max %d ms%n",
+                PROFILE.isEmpty() ? "default" : PROFILE, JVM_ARGS.isEmpty() ? "" : ", " + JVM_ARGS,
+                millis[0], millis[RUNS / 2], millis[RUNS - 1]);
+        assertThat(millis[0]).isPositive();
+    }
+
+    private long startAndMeasure(Path database) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (!JVM_ARGS.isBlank()) {
+            command.addAll(Arrays.asList(JVM_ARGS.trim().split("\\s+")));
+        }
+        command.addAll(List.of("-jar", JAR, "--server.port=" + port,
+                "--spring.datasource.url=jdbc:sqlite:" + database.toAbsolutePath()));
+        if (!PROFILE.isEmpty()) {
+            command.add("--spring.profiles.active=" + PROFILE);
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/genres"))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (System.nanoTime() - started < MAX_STARTUP.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with code " + process.exitValue());
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return (System.nanoTime() - started) / 1_000_000;
+                    }
+                } catch (ConnectException e) {
+                    // not listening yet
+                }
+                Thread.sleep(5);
+            }
+            throw new IllegalStateException("No successful GET /api/genres within " + MAX_STARTUP);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
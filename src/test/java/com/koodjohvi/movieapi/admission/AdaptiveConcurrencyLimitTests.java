@@ -0,0 +1,96 @@
+package com.koodjohvi.movieapi.admission;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTests {
+
+    private static final long TARGET = 50_000_000L;
+    private static final long FAST = TARGET / 2;
+    private static final long SLOW = TARGET * 2;
+
+    private static void complete(AdaptiveConcurrencyLimit limit, int requests, long latencyNanos) {
+        for (int i = 0; i < requests; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+            limit.release(latencyNanos);
+        }
+    }
+
+    @Test
+    void rejectsAboveLimitUntilReleased() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, TARGET);
+
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+        assertThat(limit.inFlight()).isEqualTo(2);
+
+        limit.release(FAST);
+
+        assertThat(limit.inFlight()).isEqualTo(1);
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void cancelFreesSlotWithoutSample() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 10, TARGET);
+
+        complete(limit, 3, FAST);
+        assertThat(limit.tryAcquire()).isTrue();
+        limit.cancel();
+
+        assertThat(limit.inFlight()).isZero();
+        // the cancelled request did not complete the window
+        assertThat(limit.limit()).isEqualTo(4);
+    }
+
+    @Test
+    void growsByOneAfterWindowOfFastRequests() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 10, TARGET);
+
+        complete(limit, 3, FAST);
+        assertThat(limit.limit()).isEqualTo(4);
+        complete(limit, 1, FAST);
+        assertThat(limit.limit()).isEqualTo(5);
+        // the next window is the new limit long
+        complete(limit, 5, FAST);
+        assertThat(limit.limit()).isEqualTo(6);
+    }
+
+    @Test
+    void shrinksByTenPercentOnSlowRequest() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(100, 1, 200, TARGET);
+
+        complete(limit, 1, SLOW);
+        assertThat(limit.limit()).isEqualTo(90);
+        complete(limit, 1, SLOW);
+        assertThat(limit.limit()).isEqualTo(81);
+        // a latency at the target still counts as fast
+        complete(limit, 1, TARGET);
+        assertThat(limit.limit()).isEqualTo(81);
+    }
+
+    @Test
+    void slowRequestRestartsWindow() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 10, TARGET);
+
+        complete(limit, 3, FAST);
+        complete(limit, 1, SLOW);
+        assertThat(limit.limit()).isEqualTo(3);
+        complete(limit, 2, FAST);
+        assertThat(limit.limit()).isEqualTo(3);
+        complete(limit, 1, FAST);
+        assertThat(limit.limit()).isEqualTo(4);
+    }
+
+    @Test
+    void staysWithinBounds() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(3, 2, 4, TARGET);
+
+        complete(limit, 10, SLOW);
+        assertThat(limit.limit()).isEqualTo(2);
+        complete(limit, 100, FAST);
+        assertThat(limit.limit()).isEqualTo(4);
+    }
+}
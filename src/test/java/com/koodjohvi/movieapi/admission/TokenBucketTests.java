@@ -0,0 +1,60 @@
+package com.koodjohvi.movieapi.admission;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTests {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void startsFull() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(bucket.tryConsume(1, 0)).isZero();
+        }
+        assertThat(bucket.tryConsume(1, 0)).isPositive();
+    }
+
+    @Test
+    void reportsWaitUntilRefilled() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+        bucket.tryConsume(10, 0);
+
+        // 5 tokens per second: one token in 200 ms, three in 600 ms
+        assertThat(bucket.tryConsume(1, 0)).isEqualTo(SECOND / 5);
+        assertThat(bucket.tryConsume(3, 0)).isEqualTo(3 * SECOND / 5);
+        assertThat(bucket.tryConsume(3, 3 * SECOND / 5)).isZero();
+        assertThat(bucket.tryConsume(1, 3 * SECOND / 5)).isEqualTo(SECOND / 5);
+    }
+
+    @Test
+    void refillStopsAtCapacity() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+        bucket.tryConsume(10, 0);
+
+        long later = 100 * SECOND;
+        assertThat(bucket.tryConsume(10, later)).isZero();
+        assertThat(bucket.tryConsume(1, later)).isEqualTo(SECOND / 5);
+    }
+
+    @Test
+    void costAboveCapacityPassesOnceFull() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+        assertThat(bucket.tryConsume(50, 0)).isZero();
+        // and drains the bucket, so the next one waits for a full refill
+        assertThat(bucket.tryConsume(50, 0)).isEqualTo(2 * SECOND);
+    }
+
+    @Test
+    void tracksLastUse() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+        bucket.tryConsume(1, 5 * SECOND);
+
+        assertThat(bucket.idleSince(6 * SECOND)).isTrue();
+        assertThat(bucket.idleSince(5 * SECOND)).isFalse();
+    }
+}
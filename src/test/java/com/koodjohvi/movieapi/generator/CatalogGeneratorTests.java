@@ -0,0 +1,77 @@
+package com.koodjohvi.movieapi.generator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// the generator against the schema Hibernate creates from the entities, with its NOT NULL and
+// CHECK constraints, like the shipped database.db
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CatalogGeneratorTests {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) throws IOException {
+        String file = Files.createTempDirectory("generator").resolve("catalog.db").toString();
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + file);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create");
+    }
+
+    @BeforeEach
+    void emptyCatalog() {
+        for (String table : new String[] {"movie_actors", "movie_genres", "movie", "actor", "genre"}) {
+            jdbcTemplate.update("DELETE FROM " + table);
+        }
+    }
+
+    @Test
+    void generatesIntoHibernateSchema() throws Exception {
+        GeneratorSpec spec = new GeneratorSpec(42, 200, 50, 5, 5, 1.0, 1.0, 2, 1.2, 64, 2);
+        CatalogGenerator generator = new CatalogGenerator(spec, dataSource::getConnection, 1, false, () -> {});
+
+        generator.run();
+
+        assertThat(generator.movieIds()).containsExactly(1L, 200L);
+        assertThat(generator.actorIds()).containsExactly(1L, 50L);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movie", Long.class)).isEqualTo(200);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM actor", Long.class)).isEqualTo(50);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM genre", Long.class)).isEqualTo(5);
+        // the placeholders were taken over by real rows
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movie WHERE release_year = 1900", Long.class))
+                .isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM actor WHERE name LIKE '(reserved%'", Long.class))
+                .isZero();
+    }
+
+    @Test
+    void appendsAfterExistingRows() throws Exception {
+        jdbcTemplate.update("INSERT INTO movie (id, title, release_year, duration) VALUES (500, 'Existing', 2000, 90)");
+        GeneratorSpec spec = new GeneratorSpec(7, 30, 10, 3, 3, 1.0, 1.0, 2, 1.2, 16, 1);
+        CatalogGenerator generator = new CatalogGenerator(spec, dataSource::getConnection, 1, false, () -> {});
+
+        generator.run();
+
+        assertThat(generator.movieIds()).containsExactly(501L, 530L);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movie", Long.class)).isEqualTo(31);
+    }
+}
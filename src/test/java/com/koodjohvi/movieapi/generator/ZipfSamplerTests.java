@@ -0,0 +1,75 @@
+package com.koodjohvi.movieapi.generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class ZipfSamplerTests {
+
+    private static final int SAMPLES = 200_000;
+
+    // sample frequency of each rank, index 0 unused
+    private static double[] frequencies(int n, double exponent) {
+        ZipfSampler sampler = new ZipfSampler(n, exponent);
+        SplittableRandom random = new SplittableRandom(42);
+        double[] frequencies = new double[n + 1];
+        for (int i = 0; i < SAMPLES; i++) {
+            int k = sampler.sample(random);
+            assertThat(k).isBetween(1, n);
+            frequencies[k] += 1.0 / SAMPLES;
+        }
+        return frequencies;
+    }
+
+    private static double[] expected(int n, double exponent) {
+        double norm = 0;
+        for (int k = 1; k <= n; k++) {
+            norm += Math.pow(k, -exponent);
+        }
+        double[] expected = new double[n + 1];
+        for (int k = 1; k <= n; k++) {
+            expected[k] = Math.pow(k, -exponent) / norm;
+        }
+        return expected;
+    }
+
+    @Test
+    void matchesZipfDistribution() {
+        for (double exponent : new double[] {0.8, 1.0, 1.5}) {
+            double[] frequencies = frequencies(1_000, exponent);
+            double[] expected = expected(1_000, exponent);
+
+            for (int k = 1; k <= 10; k++) {
+                assertThat(frequencies[k]).as("P(%d), exponent %s", k, exponent).isCloseTo(expected[k], within(0.005));
+            }
+        }
+    }
+
+    @Test
+    void higherExponentIsMoreSkewed() {
+        double[] flat = frequencies(1_000, 0.8);
+        double[] steep = frequencies(1_000, 1.5);
+
+        assertThat(steep[1]).isGreaterThan(flat[1] * 2);
+        assertThat(steep[1] / steep[2]).isCloseTo(Math.pow(2, 1.5), within(0.1));
+    }
+
+    @Test
+    void staysInRangeForSmallN() {
+        assertThat(frequencies(1, 1.0)[1]).isCloseTo(1.0, within(1e-6));
+
+        double[] two = frequencies(2, 1.0);
+        assertThat(two[1]).isCloseTo(2.0 / 3, within(0.005));
+        assertThat(two[2]).isCloseTo(1.0 / 3, within(0.005));
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        assertThatThrownBy(() -> new ZipfSampler(0, 1.0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ZipfSampler(10, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,87 @@
+package com.koodjohvi.movieapi.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.koodjohvi.movieapi.entities.Actor;
+import com.koodjohvi.movieapi.entities.Genre;
+import com.koodjohvi.movieapi.entities.Movie;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MovieJsonSerializerTests {
+
+    // same settings Spring Boot applies to its ObjectMapper
+    static ObjectMapper defaultMapper() {
+        return JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    static ObjectMapper fastMapper() {
+        return JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .addModule(new SimpleModule().addSerializer(new MovieJsonSerializer()))
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    static List<Movie> sampleMovies(int count) {
+        List<Genre> genres = List.of(genre(1L, "Action"), genre(2L, "Science Fiction"), genre(3L, "Drama"));
+        List<Movie> movies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Movie movie = new Movie("Movie \"" + i + "\" été \\ part " + i, 1950 + i % 70, 80 + i % 90);
+            movie.setId((long) i + 1);
+            movie.getGenres().add(genres.get(i % genres.size()));
+            movie.getGenres().add(genres.get((i + 1) % genres.size()));
+            for (int a = 0; a < 5; a++) {
+                Actor actor = new Actor("Actor O'Name " + (i * 5 + a), LocalDate.of(1940 + a * 7, 1 + a, 10 + a));
+                actor.setId((long) i * 5 + a + 1);
+                movie.getActors().add(actor);
+            }
+            movies.add(movie);
+        }
+        return movies;
+    }
+
+    private static Genre genre(Long id, String name) {
+        Genre genre = new Genre(name);
+        genre.setId(id);
+        return genre;
+    }
+
+    @Test
+    void writesSameBytesAsBeanSerializer() throws Exception {
+        List<Movie> movies = sampleMovies(50);
+
+        assertThat(fastMapper().writeValueAsBytes(movies)).isEqualTo(defaultMapper().writeValueAsBytes(movies));
+    }
+
+    @Test
+    void writesNullsLikeBeanSerializer() throws Exception {
+        Movie movie = new Movie();
+        movie.setGenres(null);
+        Actor actor = new Actor(null, null);
+        movie.getActors().add(actor);
+        Movie empty = new Movie();
+
+        assertThat(fastMapper().writeValueAsString(movie)).isEqualTo(defaultMapper().writeValueAsString(movie));
+        assertThat(fastMapper().writeValueAsString(empty)).isEqualTo(defaultMapper().writeValueAsString(empty));
+    }
+
+    @Test
+    void writesSameBytesWhenIndented() throws Exception {
+        List<Movie> movies = sampleMovies(3);
+
+        assertThat(fastMapper().writerWithDefaultPrettyPrinter().writeValueAsString(movies))
+                .isEqualTo(defaultMapper().writerWithDefaultPrettyPrinter().writeValueAsString(movies));
+    }
+}
@@ -0,0 +1,52 @@
+package com.koodjohvi.movieapi.json;
+
+import com.koodjohvi.movieapi.entities.Movie;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// run with ./gradlew benchmark
+@Tag("benchmark")
+class MovieSerializationBenchmark {
+
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 1_000;
+
+    @Test
+    void movieListThroughput() throws Exception {
+        List<Movie> movies = MovieJsonSerializerTests.sampleMovies(1_000);
+        MappingJackson2HttpMessageConverter reflective =
+                new MappingJackson2HttpMessageConverter(MovieJsonSerializerTests.defaultMapper());
+        MappingJackson2HttpMessageConverter handWritten =
+                new MappingJackson2HttpMessageConverter(MovieJsonSerializerTests.fastMapper());
+
+        double reflectiveRate = measure(reflective, movies);
+        double handWrittenRate = measure(handWritten, movies);
+
+        System.out.printf("movie list (%d movies): reflective %.0f ops/s, hand-written %.0f ops/s (%.2fx)%n",
+                movies.size(), reflectiveRate, handWrittenRate, handWrittenRate / reflectiveRate);
+        assertThat(handWrittenRate).isPositive();
+    }
+
+    private static double measure(MappingJackson2HttpMessageConverter converter, List<Movie> movies) throws Exception {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            write(converter, movies);
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            write(converter, movies);
+        }
+        return MEASURED_ROUNDS / ((System.nanoTime() - started) / 1e9);
+    }
+
+    private static void write(MappingJackson2HttpMessageConverter converter, List<Movie> movies) throws Exception {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(movies, List.class, MediaType.APPLICATION_JSON, output);
+    }
+}
@@ -0,0 +1,102 @@
+package com.koodjohvi.movieapi.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestTrieTests {
+
+    private static List<Long> ids(List<SuggestTrie.Hit> hits) {
+        return hits.stream().map(SuggestTrie.Hit::id).toList();
+    }
+
+    @Test
+    void findsTextsByAnyWordStart() {
+        SuggestTrie trie = new SuggestTrie();
+        trie.put(1, "The Dark Knight", 5);
+        trie.put(2, "Amélie", 3);
+
+        assertThat(ids(trie.suggest("the d", 10))).containsExactly(1L);
+        assertThat(ids(trie.suggest("KNIG", 10))).containsExactly(1L);
+        assertThat(ids(trie.suggest("ame", 10))).containsExactly(2L);
+        assertThat(trie.suggest("dark x", 10)).isEmpty();
+        assertThat(trie.suggest("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void splitsEdgesWhenKeysDiverge() {
+        SuggestTrie trie = new SuggestTrie();
+        trie.put(1, "Stargate", 1);
+        trie.put(2, "Star Wars", 3);
+        trie.put(3, "Star Trek", 2);
+        trie.put(4, "Starship Troopers", 4);
+
+        assertThat(ids(trie.suggest("star", 10))).containsExactly(4L, 2L, 3L, 1L);
+        assertThat(ids(trie.suggest("starg", 10))).containsExactly(1L);
+        assertThat(ids(trie.suggest("star t", 10))).containsExactly(3L);
+        // a prefix ending inside an edge label
+        assertThat(ids(trie.suggest("stars", 10))).containsExactly(4L);
+        assertThat(trie.suggest("start", 10)).isEmpty();
+    }
+
+    @Test
+    void replacesTextOfSameId() {
+        SuggestTrie trie = new SuggestTrie();
+        trie.put(1, "Alien", 1);
+        trie.put(1, "Aliens", 2);
+
+        assertThat(trie.size()).isEqualTo(1);
+        assertThat(trie.suggest("alien", 10)).containsExactly(new SuggestTrie.Hit(1, "Aliens", 2));
+    }
+
+    @Test
+    void removeDropsEntryAndEmptyBranches() {
+        SuggestTrie trie = new SuggestTrie();
+        trie.put(1, "Star Wars", 2);
+        trie.put(2, "Stargate", 1);
+
+        trie.remove(1);
+
+        assertThat(trie.size()).isEqualTo(1);
+        assertThat(ids(trie.suggest("star", 10))).containsExactly(2L);
+        assertThat(trie.suggest("star w", 10)).isEmpty();
+        assertThat(trie.suggest("wars", 10)).isEmpty();
+
+        trie.remove(2);
+        trie.remove(2);
+
+        assertThat(trie.size()).isZero();
+        assertThat(trie.suggest("s", 10)).isEmpty();
+    }
+
+    @Test
+    void keepsTopKByWeightThenLengthThenId() {
+        SuggestTrie trie = new SuggestTrie();
+        for (int i = 1; i <= 15; i++) {
+            trie.put(i, "Movie " + i, i);
+        }
+        trie.put(100, "Movie long title", 15);
+        trie.put(101, "Movie xv", 15);
+        trie.put(99, "Movie xx", 15);
+
+        assertThat(ids(trie.suggest("movie", 100))).hasSize(SuggestTrie.TOP_K)
+                .containsExactly(15L, 99L, 101L, 100L, 14L, 13L, 12L, 11L, 10L, 9L);
+        assertThat(ids(trie.suggest("movie", 3))).containsExactly(15L, 99L, 101L);
+    }
+
+    @Test
+    void removingFromTopKPromotesNextBest() {
+        SuggestTrie trie = new SuggestTrie();
+        for (int i = 1; i <= 15; i++) {
+            trie.put(i, "Movie " + i, i);
+        }
+
+        trie.remove(15);
+        trie.remove(14);
+
+        assertThat(ids(trie.suggest("movie", 100))).containsExactly(13L, 12L, 11L, 10L, 9L, 8L, 7L, 6L, 5L, 4L);
+        assertThat(ids(trie.suggest("mov", 2))).containsExactly(13L, 12L);
+    }
+}
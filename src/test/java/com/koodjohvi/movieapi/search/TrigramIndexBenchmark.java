@@ -0,0 +1,72 @@
+package com.koodjohvi.movieapi.search;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// fuzzy lookup latency over a million generated titles: ./gradlew benchmark
+@Tag("benchmark")
+class TrigramIndexBenchmark {
+
+    private static final int TITLES = 1_000_000;
+    private static final int QUERIES = 2_000;
+    private static final String[] SYLLABLES = {"ka", "ro", "mi", "tan", "vel", "or", "is", "bra", "den", "lu",
+            "po", "shi", "zen", "mar", "qua", "el", "ti", "gor", "fa", "ne"};
+    private static final String[] WORDS = {"The", "Dark", "Night", "Star", "Return", "Of", "King", "Lost",
+            "Garden", "Ghost", "House", "River", "City", "Love", "War"};
+
+    @Test
+    void fuzzyLookupLatency() {
+        Random random = new Random(42);
+        TrigramIndex index = new TrigramIndex();
+        long started = System.nanoTime();
+        for (int i = 0; i < TITLES; i++) {
+            index.put(i, title(random));
+        }
+        index.put(TITLES, "Inception");
+        index.put(TITLES + 1L, "Amélie");
+        System.out.printf("indexed %d titles in %d ms%n", index.size(), (System.nanoTime() - started) / 1_000_000);
+
+        assertThat(index.search("Incepshun", 10, false)).extracting(TrigramIndex.Match::id).contains((long) TITLES);
+        assertThat(index.search("amelie", 1, false)).extracting(TrigramIndex.Match::id).containsExactly(TITLES + 1L);
+
+        List<String> queries = List.of("Incepshun", "dark nite", "lord of the rngs", "secrt gardn", "ghost huse",
+                "velmar", "zz9x", "the", "ince");
+        for (int i = 0; i < QUERIES * 5; i++) {
+            index.search(queries.get(i % queries.size()), 10, i % 2 == 0);
+        }
+        long[] latencies = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long start = System.nanoTime();
+            index.search(queries.get(i % queries.size()), 10, i % 2 == 0);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("fuzzy lookup: p50 %.2f ms, p99 %.2f ms%n",
+                latencies[QUERIES / 2] / 1e6, latencies[QUERIES * 99 / 100] / 1e6);
+    }
+
+    private static String title(Random random) {
+        StringBuilder title = new StringBuilder();
+        int words = 1 + random.nextInt(4);
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                title.append(' ');
+            }
+            if (random.nextInt(4) == 0) {
+                title.append(WORDS[random.nextInt(WORDS.length)]);
+            } else {
+                int syllables = 2 + random.nextInt(2);
+                for (int s = 0; s < syllables; s++) {
+                    title.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+                }
+            }
+        }
+        return title.toString();
+    }
+}
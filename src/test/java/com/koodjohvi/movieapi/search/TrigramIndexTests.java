@@ -0,0 +1,101 @@
+package com.koodjohvi.movieapi.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrigramIndexTests {
+
+    private static List<Long> ids(List<TrigramIndex.Match> matches) {
+        return matches.stream().map(TrigramIndex.Match::id).toList();
+    }
+
+    // distinct three-letter words: "aaa", "aab", ...
+    private static String word(int n) {
+        char[] letters = new char[3];
+        for (int i = letters.length - 1; i >= 0; i--) {
+            letters[i] = (char) ('a' + n % 26);
+            n /= 26;
+        }
+        return new String(letters);
+    }
+
+    @Test
+    void findsTextsDespiteTyposAndAccents() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "The Dark Knight");
+        index.put(2, "Amélie");
+        index.put(3, "Heat");
+
+        assertThat(ids(index.search("dark knigt", 10, false))).startsWith(1L);
+        assertThat(ids(index.search("AMELIE", 10, false))).containsExactly(2L);
+        assertThat(ids(index.search("the da", 10, true))).containsExactly(1L);
+        assertThat(index.search("zzz", 10, false)).isEmpty();
+        assertThat(index.search("  ", 10, false)).isEmpty();
+    }
+
+    @Test
+    void rePutReplacesTextOfSameId() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "Alien");
+        index.put(1, "Heat");
+        index.put(1, "Heat");
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.search("alien", 10, false)).isEmpty();
+        assertThat(index.search("heat", 10, false)).containsExactly(new TrigramIndex.Match(1, "Heat", 1.0));
+    }
+
+    @Test
+    void removedTextIsSkippedAndCanComeBack() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "Alien");
+        index.put(2, "Aliens");
+
+        index.remove(1);
+        index.remove(1);
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(ids(index.search("alien", 10, false))).containsExactly(2L);
+
+        index.put(1, "Alien");
+
+        assertThat(ids(index.search("alien", 10, false))).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void searchesStayCorrectAcrossCompactionAndSlotReuse() {
+        TrigramIndex index = new TrigramIndex();
+        for (int i = 0; i < 2_000; i++) {
+            index.put(i, word(i));
+        }
+        // enough removals to purge the tombstones once, with more left over afterwards
+        for (int i = 0; i < 1_500; i++) {
+            index.remove(i);
+        }
+        // new ids and removed ids with new texts take over the freed slots
+        for (int i = 2_000; i < 2_500; i++) {
+            index.put(i, word(i));
+        }
+        for (int i = 0; i < 100; i++) {
+            index.put(i, word(i + 3_000));
+        }
+
+        assertThat(index.size()).isEqualTo(1_100);
+        for (int i = 0; i < 3_100; i++) {
+            List<Long> found = ids(index.search(word(i), 1, false));
+            if (i >= 1_500 && i < 2_500) {
+                assertThat(found).as(word(i)).containsExactly((long) i);
+            } else if (i >= 3_000) {
+                assertThat(found).as(word(i)).containsExactly((long) i - 3_000);
+            } else {
+                assertThat(found).as(word(i)).doesNotContain((long) i);
+            }
+        }
+        for (int i = 100; i < 1_500; i++) {
+            assertThat(ids(index.search(word(i), 50, false))).as(word(i)).doesNotContain((long) i);
+        }
+    }
+}
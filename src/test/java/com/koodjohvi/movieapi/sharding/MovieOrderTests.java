@@ -0,0 +1,112 @@
+package com.koodjohvi.movieapi.sharding;
+
+import com.koodjohvi.movieapi.sharding.ShardedMovieStore.MovieRow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// the merge comparator has to put rows in exactly the order SQLite's ORDER BY returns them
+class MovieOrderTests {
+
+    private static final String[] TITLES = {"alpha", "Alpha", "ALPHA", "beta", "Beta", "Émile", "émile", "Zulu",
+            "zulu", "_under", "[bracket", "ä", "ß", "ﬀ ligature", "😀 smile", "Ω", "", "alpha2", "Alpha 2", "a"};
+    private static final List<Sort> SORTS = List.of(
+            Sort.unsorted(),
+            Sort.by("id"),
+            Sort.by("title"),
+            Sort.by(Sort.Order.asc("title").ignoreCase()),
+            Sort.by(Sort.Order.desc("title").ignoreCase()),
+            Sort.by(Sort.Order.desc("releaseYear"), Sort.Order.asc("title")),
+            Sort.by(Sort.Order.asc("duration"), Sort.Order.desc("title").ignoreCase()),
+            Sort.by(Sort.Order.desc("releaseYear"), Sort.Order.desc("duration"), Sort.Order.desc("id")));
+
+    private Connection connection;
+    private final List<MovieRow> rows = new ArrayList<>();
+
+    @BeforeEach
+    void createTable() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE movie (id INTEGER PRIMARY KEY, title TEXT, release_year INTEGER, duration INTEGER)");
+        }
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO movie VALUES (?, ?, ?, ?)")) {
+            for (int i = 0; i < 200; i++) {
+                // repeated titles, years and durations so the tie-breaks are exercised
+                MovieRow row = new MovieRow(i + 1, TITLES[(i * 7) % TITLES.length], 1990 + i % 5, 90 + i % 3);
+                insert.setLong(1, row.id());
+                insert.setString(2, row.title());
+                insert.setInt(3, row.releaseYear());
+                insert.setInt(4, row.duration());
+                insert.executeUpdate();
+                rows.add(row);
+            }
+        }
+    }
+
+    @AfterEach
+    void closeConnection() throws SQLException {
+        connection.close();
+    }
+
+    private List<MovieRow> query(String where, MovieOrder order) throws SQLException {
+        List<MovieRow> result = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT m.id, m.title, m.release_year, m.duration FROM movie m "
+                     + where + " ORDER BY " + order.sql())) {
+            while (rs.next()) {
+                result.add(new MovieRow(rs.getLong(1), rs.getString(2), rs.getInt(3), rs.getInt(4)));
+            }
+        }
+        return result;
+    }
+
+    @Test
+    void comparatorAgreesWithSqliteOrderBy() throws SQLException {
+        for (Sort sort : SORTS) {
+            MovieOrder order = MovieOrder.of(sort);
+            List<MovieRow> sorted = new ArrayList<>(rows);
+            sorted.sort(order);
+
+            assertThat(sorted).as(sort.toString()).containsExactlyElementsOf(query("", order));
+        }
+    }
+
+    @Test
+    void mergeOfShardRunsMatchesSinglePage() throws SQLException {
+        for (Sort sort : SORTS) {
+            MovieOrder order = MovieOrder.of(sort);
+            List<List<MovieRow>> runs = new ArrayList<>();
+            for (int shard = 0; shard < 3; shard++) {
+                runs.add(query("WHERE m.id % 3 = " + shard, order));
+            }
+            runs.add(List.of());
+            List<MovieRow> all = query("", order);
+
+            assertThat(ShardedMovieStore.merge(runs, order, 0, Integer.MAX_VALUE)).as(sort.toString())
+                    .containsExactlyElementsOf(all);
+            assertThat(ShardedMovieStore.merge(runs, order, 45, 20)).as(sort.toString())
+                    .containsExactlyElementsOf(all.subList(45, 65));
+            assertThat(ShardedMovieStore.merge(runs, order, 190, 20)).as(sort.toString())
+                    .containsExactlyElementsOf(all.subList(190, 200));
+        }
+    }
+
+    @Test
+    void rejectsUnknownProperty() {
+        assertThatThrownBy(() -> MovieOrder.of(Sort.by("rating")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,123 @@
+package com.koodjohvi.movieapi.storage;
+
+import com.koodjohvi.movieapi.entities.Actor;
+import com.koodjohvi.movieapi.entities.Genre;
+import com.koodjohvi.movieapi.entities.Movie;
+import com.koodjohvi.movieapi.services.ActorService;
+import com.koodjohvi.movieapi.services.GenreService;
+import com.koodjohvi.movieapi.services.MovieService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Same workload against each storage engine, through the services:
+// ./gradlew benchmark -Pbenchmark.storage=sqlite|h2|memory
+@Tag("benchmark")
+@SpringBootTest
+class StorageBenchmark {
+
+    private static final String STORAGE = System.getProperty("benchmark.storage", "memory");
+    private static final int MOVIES = 2_000;
+    private static final int READS = 5_000;
+
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) {
+        registry.add("catalog.storage", () -> STORAGE);
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        switch (CatalogStorage.of(STORAGE)) {
+            case SQLITE -> {
+                registry.add("spring.datasource.url", () -> "jdbc:sqlite:./build/benchmark-sqlite.db");
+                registry.add("spring.datasource.driver-class-name", () -> "org.sqlite.JDBC");
+            }
+            case H2 -> {
+                registry.add("spring.datasource.url", () -> "jdbc:h2:file:./build/benchmark-h2;DB_CLOSE_ON_EXIT=FALSE");
+                registry.add("spring.datasource.driver-class-name", () -> "org.h2.Driver");
+            }
+            case MEMORY -> {
+                registry.add("spring.datasource.url", () -> "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+                registry.add("spring.datasource.driver-class-name", () -> "org.h2.Driver");
+            }
+        }
+    }
+
+    @Autowired
+    private MovieService movieService;
+    @Autowired
+    private ActorService actorService;
+    @Autowired
+    private GenreService genreService;
+
+    @Test
+    void catalogWorkload() {
+        List<Genre> genres = new ArrayList<>();
+        for (String name : List.of("Action", "Drama", "Comedy", "Thriller", "Horror")) {
+            genres.add(genreService.createGenre(new Genre(name)));
+        }
+        List<Actor> actors = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            actors.add(actorService.createActor(new Actor("Actor " + (char) ('A' + i % 26) + " No" + toLetters(i),
+                    LocalDate.of(1950 + i % 50, 1 + i % 12, 1 + i % 28))));
+        }
+
+        long started = System.nanoTime();
+        List<Long> movieIds = new ArrayList<>(MOVIES);
+        for (int i = 0; i < MOVIES; i++) {
+            Movie movie = new Movie("Benchmark movie " + i, 1950 + i % 70, 80 + i % 100);
+            movie.setGenres(Set.of(genres.get(i % genres.size())));
+            movie.setActors(Set.of(actors.get(i % actors.size()), actors.get((i * 7 + 3) % actors.size())));
+            movieIds.add(movieService.createMovie(movie).getId());
+        }
+        report("create movie", MOVIES, started);
+
+        started = System.nanoTime();
+        for (int i = 0; i < READS; i++) {
+            assertThat(movieService.getMovieById(movieIds.get(i % movieIds.size()))).isNotNull();
+        }
+        report("get movie by id", READS, started);
+
+        started = System.nanoTime();
+        for (int i = 0; i < READS / 10; i++) {
+            movieService.getMoviesByGenre(genres.get(i % genres.size()).getId(), PageRequest.of(i % 5, 20), false);
+        }
+        report("movies by genre (page)", READS / 10, started);
+
+        started = System.nanoTime();
+        for (int i = 0; i < READS / 10; i++) {
+            movieService.getMoviesByTitleContainingIgnoreCase("movie " + (i % 100), PageRequest.of(0, 20), false);
+        }
+        report("title search (page)", READS / 10, started);
+
+        started = System.nanoTime();
+        for (int i = 0; i < MOVIES / 2; i++) {
+            movieService.deleteMovie(movieIds.get(i), true);
+        }
+        report("force-delete movie", MOVIES / 2, started);
+    }
+
+    private static void report(String operation, int count, long started) {
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("[%s] %-24s %8.0f ops/s%n", STORAGE, operation, count / seconds);
+    }
+
+    // actor names may only contain letters
+    private static String toLetters(int i) {
+        StringBuilder letters = new StringBuilder();
+        do {
+            letters.append((char) ('a' + i % 26));
+            i /= 26;
+        } while (i > 0);
+        return letters.toString();
+    }
+}